@@ -0,0 +1,42 @@
+package archive;
+
+import java.time.YearMonth;
+
+/**
+ * The seats sold for one show in one month, added up over its archived screenings.
+ */
+public class MonthlySales {
+    private final YearMonth month;
+    private final long showID;
+    private final String showName;
+    private int screeningCount;
+    private long seatsSold;
+
+    MonthlySales(YearMonth month, long showID, String showName) {
+        this.month = month;
+        this.showID = showID;
+        this.showName = showName;
+    }
+
+    // Accessors
+
+    public YearMonth getMonth() { return this.month; }
+    public long getShowID() { return this.showID; }
+
+    /**
+     * Returns the name the show had when it was last archived, which outlives the show itself.
+     *
+     * @return the title and release year of the show, or null if the screening had no show
+     */
+    public String getShowName() { return this.showName; }
+
+    public int getScreeningCount() { return this.screeningCount; }
+    public long getSeatsSold() { return this.seatsSold; }
+
+    // Mutators
+
+    void add(int seatsSold) {
+        this.screeningCount++;
+        this.seatsSold += seatsSold;
+    }
+}
@@ -0,0 +1,362 @@
+package archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import screening.Screening;
+import screening.SeatReservationEngine;
+import show.Show;
+import theater.Theater;
+
+/**
+ * An append-only, column-oriented archive of ended screenings.
+ *
+ * Every ended screening is one row. Each column is kept in its own file in the archive directory:
+ *   - show.col, theater.col: the IDs of the show and theater (8 bytes per row),
+ *   - experience.col: the experience type (1 byte per row),
+ *   - timestamp.col: when the screening ended, in epoch milliseconds (8 bytes per row),
+ *   - sold.col: the number of seats sold (4 bytes per row),
+ *   - seats.idx and seats.dat: the offset of each row's seat bitmap, and the bitmaps themselves
+ *     (rows, columns and the reserved words of the screening's reservation bitset).
+ * The names of shows and theaters are kept in shows.dict and theaters.dict, since they may be deleted later.
+ *
+ * Queries memory-map only the columns they read, so scanning months of history touches a few bytes per row
+ * and never loads the archive onto the heap. A crash in the middle of an append can leave the columns with
+ * different row counts; opening the archive cuts every column back to the shortest one.
+ */
+public class ScreeningArchive implements Closeable {
+    private static final String SHOW_COLUMN = "show.col";
+    private static final String THEATER_COLUMN = "theater.col";
+    private static final String EXPERIENCE_COLUMN = "experience.col";
+    private static final String TIMESTAMP_COLUMN = "timestamp.col";
+    private static final String SOLD_COLUMN = "sold.col";
+    private static final String SEATS_INDEX_COLUMN = "seats.idx";
+    private static final String SEATS_DATA = "seats.dat";
+    private static final String SHOW_NAMES = "shows.dict";
+    private static final String THEATER_NAMES = "theaters.dict";
+
+    private final Path directory;
+    private final ZoneId zone;
+    private final FileChannel showColumn, theaterColumn, experienceColumn, timestampColumn, soldColumn, seatsIndexColumn, seatsData;
+    private final DataOutputStream showNamesOut, theaterNamesOut;
+    private final Map<Long, String> showNames, theaterNames;
+    private int nRows;
+
+    private ScreeningArchive(Path directory, ZoneId zone) throws IOException {
+        this.directory = directory;
+        this.zone = zone;
+        this.showColumn = this.openColumn(SHOW_COLUMN);
+        this.theaterColumn = this.openColumn(THEATER_COLUMN);
+        this.experienceColumn = this.openColumn(EXPERIENCE_COLUMN);
+        this.timestampColumn = this.openColumn(TIMESTAMP_COLUMN);
+        this.soldColumn = this.openColumn(SOLD_COLUMN);
+        this.seatsIndexColumn = this.openColumn(SEATS_INDEX_COLUMN);
+        this.seatsData = this.openColumn(SEATS_DATA);
+        this.showNames = new HashMap<>();
+        this.theaterNames = new HashMap<>();
+        this.showNamesOut = this.openNames(SHOW_NAMES, this.showNames);
+        this.theaterNamesOut = this.openNames(THEATER_NAMES, this.theaterNames);
+    }
+
+    /**
+     * Opens the archive in the given directory, creating it if needed.
+     * Rows left incomplete by a crash are cut off.
+     *
+     * @param directory the directory holding the column files
+     * @param zone the time zone months are counted in
+     * @return the opened archive
+     * @throws IOException if the files cannot be opened
+     */
+    public static ScreeningArchive open(Path directory, ZoneId zone) throws IOException {
+        Files.createDirectories(directory);
+        ScreeningArchive archive = new ScreeningArchive(directory, zone);
+        archive.truncateToCompleteRows();
+        return archive;
+    }
+
+    // Accessors
+
+    public synchronized int getRowCount() { return this.nRows; }
+
+    public synchronized String getShowName(long showID) { return this.showNames.get(showID); }
+    public synchronized String getTheaterName(long theaterID) { return this.theaterNames.get(theaterID); }
+
+    // Other Methods
+
+    /**
+     * Appends a row for a screening that is ending, with the seats that are reserved at this moment.
+     * Held seats were not sold and are left out.
+     * If the row cannot be written, whatever part of it was written is cut off again, so the columns stay aligned.
+     *
+     * @param theater the theater the screening played in
+     * @param screening the ending screening
+     * @param endedAt when the screening ended
+     * @throws IOException if the row cannot be written
+     */
+    public synchronized void append(Theater theater, Screening screening, Instant endedAt) throws IOException {
+        Show show = screening.getShow();
+        long showID = show == null ? 0 : show.getID();
+        if (show != null) {
+            this.rememberName(this.showNames, this.showNamesOut, showID, show.toString());
+        }
+        this.rememberName(this.theaterNames, this.theaterNamesOut, theater.getID(), theater.getName());
+
+        SeatReservationEngine engine = screening.getReservationEngine();
+        ByteBuffer bitmap = ByteBuffer.allocate(8 + 8 * engine.getWordCount());
+        bitmap.putInt(engine.getRowLength());
+        bitmap.putInt(engine.getColumnLength());
+        int nSold = 0;
+        for (long reserved : engine.copyReservedWords()) {
+            bitmap.putLong(reserved);
+            nSold += Long.bitCount(reserved);
+        }
+
+        // The bitmap goes first, so a row is only complete once every fixed-width column has it.
+        // Each fixed-width column is written at the position of the new row, so a row left half written by a failure
+        // is overwritten by the next one even if the columns could not be cut back.
+        long row = this.nRows;
+        long bitmapOffset = this.seatsData.size();
+        try {
+            ScreeningArchive.writeFully(this.seatsData, bitmap.flip(), bitmapOffset);
+            ScreeningArchive.writeFully(this.seatsIndexColumn, ByteBuffer.allocate(8).putLong(0, bitmapOffset), 8 * row);
+            ScreeningArchive.writeFully(this.showColumn, ByteBuffer.allocate(8).putLong(0, showID), 8 * row);
+            ScreeningArchive.writeFully(this.theaterColumn, ByteBuffer.allocate(8).putLong(0, theater.getID()), 8 * row);
+            ScreeningArchive.writeFully(this.experienceColumn, ByteBuffer.allocate(1).put(0, (byte) screening.getExperienceType().ordinal()), row);
+            ScreeningArchive.writeFully(this.timestampColumn, ByteBuffer.allocate(8).putLong(0, endedAt.toEpochMilli()), 8 * row);
+            ScreeningArchive.writeFully(this.soldColumn, ByteBuffer.allocate(4).putInt(0, nSold), 4 * row);
+        } catch (IOException e) {
+            try {
+                this.truncateTo(row, bitmapOffset);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+        this.nRows++;
+    }
+
+    /**
+     * Adds up the seats sold per show and month, for screenings that ended within the given months.
+     * Only the timestamp, show and sold columns are read.
+     *
+     * @param from the first month to include
+     * @param to the last month to include
+     * @return the seats sold per show and month, ordered by month, then by most seats sold
+     * @throws IOException if the columns cannot be read
+     */
+    public synchronized List<MonthlySales> getMonthlySalesByShow(YearMonth from, YearMonth to) throws IOException {
+        long fromMillis = from.atDay(1).atStartOfDay(this.zone).toInstant().toEpochMilli();
+        long toMillis = to.plusMonths(1).atDay(1).atStartOfDay(this.zone).toInstant().toEpochMilli();
+        LongBuffer timestamps = this.timestampColumn.map(FileChannel.MapMode.READ_ONLY, 0, 8L * this.nRows).asLongBuffer();
+        LongBuffer shows = this.showColumn.map(FileChannel.MapMode.READ_ONLY, 0, 8L * this.nRows).asLongBuffer();
+        IntBuffer sold = this.soldColumn.map(FileChannel.MapMode.READ_ONLY, 0, 4L * this.nRows).asIntBuffer();
+
+        Map<YearMonth, Map<Long, MonthlySales>> salesByMonth = new HashMap<>();
+        YearMonth month = null;
+        Map<Long, MonthlySales> monthSales = null;
+        long monthStart = 0, monthEnd = 0;
+        for (int i = 0; i < this.nRows; i++) {
+            long timestamp = timestamps.get(i);
+            if (timestamp < fromMillis || timestamp >= toMillis) {
+                continue;
+            }
+            // Rows are appended in time order, so the month rarely changes from one row to the next
+            if (month == null || timestamp < monthStart || timestamp >= monthEnd) {
+                ZonedDateTime endedAt = Instant.ofEpochMilli(timestamp).atZone(this.zone);
+                month = YearMonth.from(endedAt);
+                monthStart = month.atDay(1).atStartOfDay(this.zone).toInstant().toEpochMilli();
+                monthEnd = month.plusMonths(1).atDay(1).atStartOfDay(this.zone).toInstant().toEpochMilli();
+                monthSales = salesByMonth.computeIfAbsent(month, m -> new HashMap<>());
+            }
+            YearMonth rowMonth = month;
+            monthSales.computeIfAbsent(shows.get(i), id -> new MonthlySales(rowMonth, id, this.showNames.get(id)))
+                .add(sold.get(i));
+        }
+
+        List<MonthlySales> result = new ArrayList<>();
+        for (Map<Long, MonthlySales> sales : salesByMonth.values()) {
+            result.addAll(sales.values());
+        }
+        result.sort((a, b) -> a.getMonth().equals(b.getMonth())
+            ? Long.compare(b.getSeatsSold(), a.getSeatsSold())
+            : a.getMonth().compareTo(b.getMonth()));
+        return result;
+    }
+
+    /**
+     * Reads the seats that were sold for an archived screening.
+     *
+     * @param row the row of the screening in the archive (0-indexed)
+     * @return the packed seat indexes of the sold seats, in row and column order
+     * @throws IOException if the bitmap cannot be read
+     */
+    public synchronized int[] getSoldSeats(int row) throws IOException {
+        if (row < 0 || row >= this.nRows) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for " + this.nRows + " archived screenings.");
+        }
+        ByteBuffer offset = ByteBuffer.allocate(8);
+        ScreeningArchive.readFully(this.seatsIndexColumn, offset, 8L * row);
+        ByteBuffer header = ByteBuffer.allocate(8);
+        ScreeningArchive.readFully(this.seatsData, header, offset.getLong(0));
+        int nSeatRows = header.getInt(0), nSeatColumns = header.getInt(4);
+        int wordsPerRow = (nSeatColumns + 63) >>> 6;
+        ByteBuffer words = ByteBuffer.allocate(8 * nSeatRows * wordsPerRow);
+        ScreeningArchive.readFully(this.seatsData, words, offset.getLong(0) + 8);
+
+        int nSold = this.soldColumn.map(FileChannel.MapMode.READ_ONLY, 4L * row, 4).getInt(0);
+        int[] seats = new int[nSold];
+        int n = 0;
+        for (int iWord = 0; iWord < nSeatRows * wordsPerRow && n < nSold; iWord++) {
+            long word = words.getLong(8 * iWord);
+            while (word != 0 && n < nSold) {
+                int iColumn = ((iWord % wordsPerRow) << 6) + Long.numberOfTrailingZeros(word);
+                seats[n++] = ((iWord / wordsPerRow) << 16) | iColumn;
+                word &= word - 1;
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * Syncs and closes every column file.
+     *
+     * @throws IOException if a file cannot be synced or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.showNamesOut.close();
+        this.theaterNamesOut.close();
+        for (FileChannel column : this.getColumns()) {
+            column.force(true);
+            column.close();
+        }
+    }
+
+    private FileChannel[] getColumns() {
+        return new FileChannel[] {
+            this.showColumn, this.theaterColumn, this.experienceColumn, this.timestampColumn,
+            this.soldColumn, this.seatsIndexColumn, this.seatsData
+        };
+    }
+
+    /**
+     * Counts the rows that every fixed-width column holds, and cuts off anything after them.
+     */
+    private void truncateToCompleteRows() throws IOException {
+        long nRows = Math.min(this.showColumn.size() / 8, this.theaterColumn.size() / 8);
+        nRows = Math.min(nRows, this.experienceColumn.size());
+        nRows = Math.min(nRows, this.timestampColumn.size() / 8);
+        nRows = Math.min(nRows, this.soldColumn.size() / 4);
+        nRows = Math.min(nRows, this.seatsIndexColumn.size() / 8);
+        this.nRows = (int) nRows;
+
+        long seatsDataLength = 0;
+        if (nRows > 0) {
+            // The bitmap of the last complete row ends where the data of an incomplete row would start
+            ByteBuffer offset = ByteBuffer.allocate(8);
+            ScreeningArchive.readFully(this.seatsIndexColumn, offset, 8 * (nRows - 1));
+            ByteBuffer header = ByteBuffer.allocate(8);
+            ScreeningArchive.readFully(this.seatsData, header, offset.getLong(0));
+            long wordsPerRow = (header.getInt(4) + 63) >>> 6;
+            seatsDataLength = offset.getLong(0) + 8 + 8 * header.getInt(0) * wordsPerRow;
+        }
+        this.truncateTo(nRows, seatsDataLength);
+    }
+
+    /**
+     * Cuts every fixed-width column back to the given number of rows and the seat data back to the given length.
+     */
+    private void truncateTo(long nRows, long seatsDataLength) throws IOException {
+        this.showColumn.truncate(8 * nRows);
+        this.theaterColumn.truncate(8 * nRows);
+        this.experienceColumn.truncate(nRows);
+        this.timestampColumn.truncate(8 * nRows);
+        this.soldColumn.truncate(4 * nRows);
+        this.seatsIndexColumn.truncate(8 * nRows);
+        this.seatsData.truncate(seatsDataLength);
+        for (FileChannel column : this.getColumns()) {
+            column.position(column.size());
+        }
+    }
+
+    private FileChannel openColumn(String name) throws IOException {
+        return FileChannel.open(this.directory.resolve(name), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reads the names of a dictionary file into the given map, and opens the file to append new names after them.
+     * A name cut short by a crash is cut off, so that the names appended later are not read as part of it.
+     */
+    private DataOutputStream openNames(String name, Map<Long, String> names) throws IOException {
+        FileChannel channel = FileChannel.open(this.directory.resolve(name), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        byte[] contents = new byte[(int) channel.size()];
+        ScreeningArchive.readFully(channel, ByteBuffer.wrap(contents), 0);
+
+        ByteArrayInputStream bytes = new ByteArrayInputStream(contents);
+        DataInputStream in = new DataInputStream(bytes);
+        long validLength = 0;
+        try {
+            while (bytes.available() > 0) {
+                long id = in.readLong();
+                names.put(id, in.readUTF());
+                validLength = contents.length - bytes.available();
+            }
+        } catch (EOFException | UTFDataFormatException e) {
+            // The last name was cut short by a crash
+        }
+        if (validLength < contents.length) {
+            channel.truncate(validLength);
+            channel.force(true);
+        }
+        channel.position(validLength);
+        return new DataOutputStream(Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Records the name of a show or theater if it is new or has changed; the latest name wins when reading.
+     */
+    private void rememberName(Map<Long, String> names, DataOutputStream out, long id, String name) throws IOException {
+        if (name.equals(names.get(id))) {
+            return;
+        }
+        out.writeLong(id);
+        out.writeUTF(name);
+        out.flush();
+        names.put(id, name);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Archive column ends before row data at " + position + ".");
+            }
+        }
+    }
+}
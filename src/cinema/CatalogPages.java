@@ -0,0 +1,160 @@
+package cinema;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import cinema.utils.Option;
+import cinema.utils.PageBuilder;
+import cinema.utils.PageResult;
+import exchange.CatalogFormat;
+import exchange.CatalogImporter;
+import exchange.ExportResult;
+import exchange.ImportResult;
+import exchange.ManifestExporter;
+
+class CatalogPages {
+    private Cinema cinema;
+
+    CatalogPages(Cinema cinema) {
+        this.cinema = cinema;
+    }
+
+    /**
+     * Imports shows and theaters from a CSV or JSON lines file.
+     * Asks the user for the path of the file, which must end in ".csv", ".jsonl" or ".ndjson",
+     * then imports every valid line and shows how many shows and theaters were added,
+     * along with the errors of the lines that were skipped.
+     * @return the PageResult corresponding with the user's selected option
+     */
+    public PageResult importPage() {
+        PageBuilder page = new PageBuilder();
+        page.setHud(Config.HUD_DISPLAY);
+        page.setHeader(Config.HEADER_DISPLAY);
+        page.setTitle("Import Catalog");
+        page.setSubTitle("Import Shows and Theaters from a CSV or JSON Lines File");
+        page.setBody(PageBuilder.formatAsBody(List.of(
+            "CSV columns: type, title, description, releaseYear, durationMinutes, credit, rows, columns",
+            "Types: movie, animated_movie, concert_film, theater (theaters use title as their name)"
+        )));
+        page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
+        page.addCustomOption(Config.NAVIGATE_TO_START);
+
+        Path path;
+        CatalogFormat format;
+        while (true) {
+            PageResult.Str pathInput = page.nextLineResultInputLoop("Input File Path", "File path cannot be empty!");
+            if (pathInput.getPageResult() != null) {
+                return pathInput.getPageResult();
+            }
+            try {
+                path = Path.of(pathInput.getValue());
+            } catch (InvalidPathException e) {
+                page.setErrorMessage("'" + pathInput.getValue() + "' is not a valid path!");
+                continue;
+            }
+            format = CatalogFormat.fromPath(path);
+            if (!Files.isRegularFile(path)) {
+                page.setErrorMessage("'" + pathInput.getValue() + "' does not exist!");
+            } else if (format == null) {
+                page.setErrorMessage("File must end in .csv, .jsonl or .ndjson!");
+            } else {
+                break;
+            }
+        }
+
+        CatalogImporter importer = new CatalogImporter(Config.MAX_ROWS, Config.MAX_COLUMNS);
+        List<String> bodyLines = new ArrayList<>();
+        try {
+            ImportResult result = importer.importFile(path, format, this.cinema::addShows, this.cinema::addTheaters);
+            bodyLines.add(String.format(
+                "Imported %d shows and %d theaters from %d lines in %.1f seconds.",
+                result.getShowCount(),
+                result.getTheaterCount(),
+                result.getLineCount(),
+                result.getElapsed().toMillis() / 1000.0
+            ));
+            if (result.getErrorCount() > 0) {
+                bodyLines.add(result.getErrorCount() + " lines were skipped" + (result.getErrorCount() > result.getErrors().size() ? ", the first " + result.getErrors().size() + " are:" : ":"));
+                bodyLines.addAll(result.getErrors());
+            }
+        } catch (IOException e) {
+            bodyLines.add("Could not read '" + path + "': " + e.getMessage());
+        }
+
+        page.clearErrorMessage();
+        page.clearPromptInputHistory();
+        page.setSubTitle("Import Finished");
+        page.setBody(PageBuilder.formatAsBody(bodyLines));
+        page.setEnterOption(new Option(PageResult.Navigation.BACK_TO_START, "Continue"));
+        page.nextOptionResultInputLoop("Press Enter to Continue");
+
+        return PageResult.createResultJump(PageResult.Navigation.BACK_TO_START);
+    }
+
+    /**
+     * Exports the seat manifests of every screening to a single CSV or JSON lines file.
+     * Asks the user for the path of the file, which must end in ".csv", ".jsonl" or ".ndjson",
+     * then writes one line per reserved or held seat and shows how many seats were written.
+     * @return the PageResult corresponding with the user's selected option
+     */
+    public PageResult exportManifestsPage() {
+        PageBuilder page = new PageBuilder();
+        page.setHud(Config.HUD_DISPLAY);
+        page.setHeader(Config.HEADER_DISPLAY);
+        page.setTitle("Manage Screenings");
+        page.setSubTitle("Export Seat Manifests of All Screenings");
+        page.setBody(PageBuilder.formatAsBody("CSV columns: " + ManifestExporter.CSV_HEADER.replace(",", ", ")));
+        page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
+        page.addCustomOption(Config.NAVIGATE_TO_START);
+
+        Path path;
+        CatalogFormat format;
+        while (true) {
+            PageResult.Str pathInput = page.nextLineResultInputLoop("Input File Path", "File path cannot be empty!");
+            if (pathInput.getPageResult() != null) {
+                return pathInput.getPageResult();
+            }
+            try {
+                path = Path.of(pathInput.getValue());
+            } catch (InvalidPathException e) {
+                page.setErrorMessage("'" + pathInput.getValue() + "' is not a valid path!");
+                continue;
+            }
+            format = CatalogFormat.fromPath(path);
+            if (format == null) {
+                page.setErrorMessage("File must end in .csv, .jsonl or .ndjson!");
+            } else if (Files.isDirectory(path)) {
+                page.setErrorMessage("'" + pathInput.getValue() + "' is a directory!");
+            } else {
+                break;
+            }
+        }
+
+        String status;
+        try {
+            ExportResult result = new ManifestExporter(format).export(path, this.cinema.getScreenings().asList());
+            status = String.format(
+                "Exported %d seats of %d screenings (%d KB) in %.1f seconds.",
+                result.getSeatCount(),
+                result.getScreeningCount(),
+                (result.getByteCount() + 1023) / 1024,
+                result.getElapsed().toMillis() / 1000.0
+            );
+        } catch (IOException e) {
+            status = "Could not write '" + path + "': " + e.getMessage();
+        }
+
+        page.clearErrorMessage();
+        page.clearPromptInputHistory();
+        page.setSubTitle("Export Finished");
+        page.setBody(PageBuilder.formatAsBody(status));
+        page.setEnterOption(new Option(PageResult.Navigation.BACK_TO_PREVIOUS, "Continue"));
+        page.nextOptionResultInputLoop("Press Enter to Continue");
+
+        return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
+    }
+}
@@ -1,14 +1,39 @@
 package cinema;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 
+import archive.ScreeningArchive;
 import cinema.utils.PageResult;
 import cinema.utils.PageType;
+import persistence.CinemaSnapshot;
+import persistence.FileShowRepository;
+import persistence.Journal;
+import persistence.JournalCompactor;
+import persistence.JournalReader;
+import persistence.JournalReplayResult;
+import repository.InMemoryScreeningRepository;
+import repository.InMemoryShowRepository;
+import repository.InMemoryTheaterRepository;
+import repository.ScreeningRepository;
+import repository.ShowRepository;
+import repository.TheaterRepository;
 import show.Show;
+import screening.ScheduleConflictException;
 import screening.Screening;
+import screening.ScreeningSchedule;
+import search.PrefixTrie;
+import search.ShowSearchIndex;
 import theater.Theater;
 
 public class Cinema {
@@ -16,22 +41,40 @@ public class Cinema {
     private Deque<PageType> history;
 
     // Data Models
-    private List<Show> shows;
-    private List<Screening> screenings;
-    private List<Theater> theaters;
+    private ShowRepository shows;
+    private ScreeningRepository screenings;
+    private TheaterRepository theaters;
+    private ShowSearchIndex showSearchIndex;
+    private PrefixTrie showTitles;
+    private PrefixTrie theaterNames;
+    private ScreeningSchedule schedule;
+
+    // Changes made since the last snapshot, null if the journal could not be opened
+    private Journal journal;
+    private JournalCompactor compactor;
+
+    // Sales of ended screenings, null if the archive could not be opened
+    private ScreeningArchive archive;
 
     // Page Controllers
     private MainMenuPages mainMenuPages;
     private MainScreeningPages mainScreeningPages;
     private MainShowPages mainShowPages;
     private MainTheaterPages mainTheaterPages;
+    private CatalogPages catalogPages;
+    private ReportPages reportPages;
+    private SchedulePages schedulePages;
 
     public Cinema() {
         // Initialize State
         this.history = new ArrayDeque<>();
-        this.shows = new ArrayList<>();
-        this.screenings = new ArrayList<>();
-        this.theaters = new ArrayList<>();
+        this.shows = new InMemoryShowRepository();
+        this.screenings = new InMemoryScreeningRepository();
+        this.theaters = new InMemoryTheaterRepository();
+        this.showSearchIndex = new ShowSearchIndex();
+        this.showTitles = new PrefixTrie();
+        this.theaterNames = new PrefixTrie();
+        this.schedule = new ScreeningSchedule();
 
         // Initialize Main Menu
         this.mainMenuPages = new MainMenuPages();
@@ -40,23 +83,281 @@ public class Cinema {
         this.mainScreeningPages = new MainScreeningPages(this);
         this.mainShowPages = new MainShowPages(this);
         this.mainTheaterPages = new MainTheaterPages(this);
+        this.catalogPages = new CatalogPages(this);
+        this.reportPages = new ReportPages(this);
+        this.schedulePages = new SchedulePages(this);
     }
 
     // Accessors for Controllers
-    public List<Show> getShows() { return shows; }
-    public List<Screening> getScreenings() { return screenings; }
-    public List<Theater> getTheaters() { return theaters; }
+    public ShowRepository getShows() { return shows; }
+    public ScreeningRepository getScreenings() { return screenings; }
+    public TheaterRepository getTheaters() { return theaters; }
+    public ScreeningArchive getArchive() { return archive; }
+    public ShowSearchIndex getShowSearchIndex() { return showSearchIndex; }
+    public ScreeningSchedule getSchedule() { return schedule; }
+
+    /**
+     * Completes a show title as it is typed.
+     * @param prefix the start of the title, in any case
+     * @param limit the largest number of shows to return
+     * @return the first shows, in alphabetical order of title, whose title starts with the prefix
+     */
+    public List<Show> completeShowTitle(String prefix, int limit) {
+        List<Show> matches = new ArrayList<>();
+        for (long id : this.showTitles.complete(prefix, limit)) {
+            matches.add(this.shows.findByID(id));
+        }
+        return matches;
+    }
+
+    /**
+     * Completes a theater name as it is typed.
+     * @param prefix the start of the name, in any case
+     * @param limit the largest number of theaters to return
+     * @return the first theaters, in alphabetical order of name, whose name starts with the prefix
+     */
+    public List<Theater> completeTheaterName(String prefix, int limit) {
+        List<Theater> matches = new ArrayList<>();
+        for (long id : this.theaterNames.complete(prefix, limit)) {
+            matches.add(this.theaters.findByID(id));
+        }
+        return matches;
+    }
+
+    /**
+     * Checks that a screening would fit in the schedule of a theater, cleaning time included, before it is added or changed.
+     * The screening itself does not count as a conflict, so it can be checked against its own theater when it is moved.
+     * Only the screenings of the theater around the start time are looked at (see ScreeningSchedule).
+     * @param screening the screening to check
+     * @param theater the theater the screening would play in
+     * @param show the show the screening would play
+     * @param startTime the time the screening would start, or null for no start time, which never conflicts
+     * @throws ScheduleConflictException if the theater is booked by another screening during that time
+     */
+    public void checkSchedule(Screening screening, Theater theater, Show show, Instant startTime) throws ScheduleConflictException {
+        if (startTime == null) {
+            return;
+        }
+        Duration length = (show == null || show.getDuration() == null ? Duration.ZERO : show.getDuration()).plus(screening.getCleaningBuffer());
+        Screening conflict = this.schedule.findConflict(theater, startTime, startTime.plus(length), screening);
+        if (conflict != null) {
+            throw new ScheduleConflictException(String.format(
+                "%s is booked by %s until %s!",
+                theater.getName(),
+                conflict.getShow(),
+                Config.SHOWTIME_FORMAT.format(conflict.getBlockedUntil())
+            ), conflict);
+        }
+    }
+
+    // Mutators for Controllers
+    // Every change to the data models goes through these, so that it is recorded in the journal.
+
+    public void addShow(Show show) {
+        this.shows.add(show);
+        this.indexShow(show);
+        if (this.journal != null) { this.journal.appendShowPut(show); }
+    }
+
+    /**
+     * Adds a batch of shows, e.g. from a catalog import.
+     * @param shows the shows to add
+     */
+    public void addShows(List<Show> shows) {
+        this.shows.addAll(shows);
+        for (Show show : shows) {
+            this.indexShow(show);
+        }
+        if (this.journal != null) {
+            for (Show show : shows) {
+                this.journal.appendShowPut(show);
+            }
+        }
+    }
+
+    /**
+     * Records the current fields of a show after it was edited.
+     * @param show the edited show
+     */
+    public void updateShow(Show show) {
+        this.shows.update(show);
+        this.indexShow(show);
+        // A new duration moves the end of every screening of the show
+        for (Screening screening : this.screenings.findByShow(show)) {
+            this.schedule.put(screening);
+        }
+        if (this.journal != null) { this.journal.appendShowPut(show); }
+    }
+
+    public void removeShow(Show show) {
+        if (this.shows.remove(show)) {
+            this.showSearchIndex.remove(show.getID());
+            this.showTitles.remove(show.getID());
+            if (this.journal != null) { this.journal.appendShowRemoved(show); }
+        }
+    }
+
+    public void addTheater(Theater theater) {
+        this.theaters.add(theater);
+        this.theaterNames.put(theater.getID(), theater.getName());
+        if (this.journal != null) { this.journal.appendTheaterPut(theater); }
+    }
+
+    /**
+     * Adds a batch of theaters, e.g. from a catalog import.
+     * @param theaters the theaters to add
+     */
+    public void addTheaters(List<Theater> theaters) {
+        this.theaters.addAll(theaters);
+        for (Theater theater : theaters) {
+            this.theaterNames.put(theater.getID(), theater.getName());
+        }
+        if (this.journal != null) {
+            for (Theater theater : theaters) {
+                this.journal.appendTheaterPut(theater);
+            }
+        }
+    }
+
+    /**
+     * Records the current name, dimensions and icons of a theater after it was edited.
+     * @param theater the edited theater
+     */
+    public void updateTheater(Theater theater) {
+        this.theaters.update(theater);
+        this.theaterNames.put(theater.getID(), theater.getName());
+        if (this.journal != null) { this.journal.appendTheaterPut(theater); }
+    }
+
+    public void removeTheater(Theater theater) {
+        if (this.theaters.remove(theater)) {
+            this.theaterNames.remove(theater.getID());
+            if (this.journal != null) { this.journal.appendTheaterRemoved(theater); }
+        }
+    }
+
+    /**
+     * Adds a screening, unless it overlaps another screening of its theater.
+     * @param screening the screening to add
+     * @throws ScheduleConflictException if the theater is booked by another screening at the time of this one
+     */
+    public void addScreening(Screening screening) throws ScheduleConflictException {
+        this.checkSchedule(screening, screening.getTheater(), screening.getShow(), screening.getStartTime());
+        this.screenings.add(screening);
+        this.schedule.put(screening);
+        screening.setReservationListener(this.journal);
+        if (this.journal != null) { this.journal.appendScreeningPut(screening); }
+    }
+
+    /**
+     * Records the current theater, show, experience type and start time of a screening after it was edited.
+     * Changes that move the screening in time or to another theater should be checked first (see checkSchedule).
+     * @param screening the edited screening
+     */
+    public void updateScreening(Screening screening) {
+        this.screenings.update(screening);
+        this.schedule.put(screening);
+        if (this.journal != null) { this.journal.appendScreeningPut(screening); }
+    }
+
+    /**
+     * Deletes a screening, ending it first if it is playing.
+     * @param screening the screening to delete
+     */
+    public void removeScreening(Screening screening) {
+        Theater theater = screening.getTheater();
+        if (theater != null && theater.getCurrentScreening() == screening) {
+            this.endScreening(theater);
+        }
+        if (this.screenings.remove(screening)) {
+            this.schedule.remove(screening);
+            screening.setReservationListener(null);
+            if (this.journal != null) { this.journal.appendScreeningRemoved(screening); }
+        }
+    }
+
+    /**
+     * Deletes a show together with all of its screenings.
+     * Screenings of the show that are playing are ended first, so no theater keeps a deleted screening.
+     * Finding the screenings costs O(screenings of the show), and they are removed in a single pass.
+     * @param show the show to delete
+     * @return the number of screenings deleted with the show
+     */
+    public int deleteShow(Show show) {
+        List<Screening> dependents = this.screenings.findByShow(show);
+        this.removeScreenings(dependents);
+        this.removeShow(show);
+        return dependents.size();
+    }
+
+    /**
+     * Deletes a theater together with all of its screenings, ending its current screening first.
+     * Finding the screenings costs O(screenings of the theater), and they are removed in a single pass.
+     * @param theater the theater to delete
+     * @return the number of screenings deleted with the theater
+     */
+    public int deleteTheater(Theater theater) {
+        if (theater.getCurrentScreening() != null) {
+            this.endScreening(theater);
+        }
+        List<Screening> dependents = this.screenings.findByTheater(theater);
+        this.removeScreenings(dependents);
+        this.removeTheater(theater);
+        return dependents.size();
+    }
+
+    private void removeScreenings(List<Screening> screenings) {
+        for (Screening screening : screenings) {
+            Theater theater = screening.getTheater();
+            if (theater != null && theater.getCurrentScreening() == screening) {
+                this.endScreening(theater);
+            }
+        }
+        this.screenings.removeAll(screenings);
+        for (Screening screening : screenings) {
+            this.schedule.remove(screening);
+            screening.setReservationListener(null);
+            if (this.journal != null) { this.journal.appendScreeningRemoved(screening); }
+        }
+    }
+
+    public void startScreening(Theater theater, Screening screening) {
+        theater.startScreening(screening);
+        if (this.journal != null) { this.journal.appendScreeningStarted(theater, screening); }
+    }
+
+    /**
+     * Ends the current screening of a theater, archiving the seats it sold before its reservations are cleared.
+     * @param theater the theater whose screening ended
+     */
+    public void endScreening(Theater theater) {
+        if (this.archive != null && theater.getCurrentScreening() != null) {
+            try {
+                this.archive.append(theater, theater.getCurrentScreening(), Instant.now());
+            } catch (IOException e) {
+                this.mainMenuPages.setNotice("Could not archive the ended screening: " + e.getMessage());
+            }
+        }
+        theater.endScreening();
+        if (this.journal != null) { this.journal.appendScreeningEnded(theater); }
+    }
 
     /**
      * Starts the Cinema application, which is an infinite loop that
      * determines which page to display based on the history of pages
      * navigated to. It also handles the result of each page (navigation)
      * and updates the history accordingly.
+     * The data saved by previous runs is loaded first, and saved again when the user quits.
      */
     public void start() {
         PageResult result;
+        this.loadSavedState();
         
         while (true) {
+            // Between pages no change is half made, so the journal can be compacted here
+            this.compactJournal();
+            this.checkJournal();
+
             // Determine which page to display based on history
             if (this.history.isEmpty()) {
                 result = this.mainMenuPages.mainPage();
@@ -66,6 +367,12 @@ public class Cinema {
                     case PageType.LOAD_DEMO_DATA:
                         result = DemoPages.mainPage(this);
                         break;
+                    case PageType.IMPORT_CATALOG:
+                        result = this.catalogPages.importPage();
+                        break;
+                    case PageType.SALES_REPORT:
+                        result = this.reportPages.salesReportPage();
+                        break;
 
                     // Manage Screenings
                     case PageType.MAIN_MANAGE_SCREENINGS:
@@ -80,6 +387,12 @@ public class Cinema {
                     case PageType.ADD_RESERVATION:
                         result = this.mainScreeningPages.addSeatReservationPage();
                         break;
+                    case PageType.ADD_GROUP_RESERVATION:
+                        result = this.mainScreeningPages.addGroupSeatReservationPage();
+                        break;
+                    case PageType.HOLD_RESERVATION:
+                        result = this.mainScreeningPages.holdSeatPage();
+                        break;
                     case PageType.DELETE_RESERVATION:
                         result = this.mainScreeningPages.deleteSeatReservationPage();
                         break;
@@ -92,10 +405,19 @@ public class Cinema {
                     case PageType.EDIT_SCREENING_EXPERIENCE_TYPE:
                         result = this.mainScreeningPages.editScreeningExperienceTypePage();
                         break;
+                    case PageType.EDIT_SCREENING_START_TIME:
+                        result = this.mainScreeningPages.editScreeningStartTimePage();
+                        break;
                     
                     case PageType.ADD_SCREENING:
                         result = this.mainScreeningPages.addScreeningPage();
                         break;
+                    case PageType.EXPORT_MANIFESTS:
+                        result = this.catalogPages.exportManifestsPage();
+                        break;
+                    case PageType.PLAN_SCHEDULE:
+                        result = this.schedulePages.planSchedulePage();
+                        break;
                     case PageType.DELETE_SCREENING:
                         result = this.mainScreeningPages.deleteScreeningPage();
                         break;
@@ -104,6 +426,9 @@ public class Cinema {
                     case PageType.MAIN_SHOW_EDITOR:
                         result = this.mainShowPages.mainPage();
                         break;
+                    case PageType.SEARCH_SHOWS:
+                        result = this.mainShowPages.searchShowsPage();
+                        break;
                     case PageType.DELETE_SHOW:
                         result = this.mainShowPages.deleteShowPage();
                         break;
@@ -216,6 +541,7 @@ public class Cinema {
                     this.history.clear();
                     break;
                 case PageResult.Navigation.BACK_TO_EXIT:
+                    this.mainMenuPages.exitPage(this.saveSnapshot());
                     return;
                 default:
                     break;
@@ -229,4 +555,150 @@ public class Cinema {
             }
         }
     }
+
+    /**
+     * Indexes the current title, description and credit of a show for searching and completion.
+     */
+    private void indexShow(Show show) {
+        this.showSearchIndex.put(show);
+        this.showTitles.put(show.getID(), show.getTitle());
+    }
+
+    /**
+     * Loads the shows, theaters and screenings saved by previous runs, if any.
+     * The last snapshot is loaded first and the journal of changes made since then is replayed on top of it,
+     * starting with the rotated journal file of a compaction that did not finish.
+     * Afterwards the journal is opened to record the changes of this run.
+     * If the snapshot cannot be read, it is moved aside so that it is not overwritten, and the main menu shows why.
+     */
+    private void loadSavedState() {
+        Path snapshotPath = Path.of(Config.SNAPSHOT_PATH);
+        Path journalPath = Path.of(Config.JOURNAL_PATH);
+        Path rotatedPath = Journal.getRotatedPath(journalPath);
+        CinemaSnapshot state = new CinemaSnapshot(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        String notice = null;
+
+        if (Files.exists(snapshotPath)) {
+            try {
+                state = CinemaSnapshot.readFrom(snapshotPath);
+            } catch (IOException e) {
+                notice = "Could not load saved data: " + e.getMessage();
+                try {
+                    Files.move(snapshotPath, snapshotPath.resolveSibling(snapshotPath.getFileName() + ".corrupt"), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException moveException) {
+                    notice += " (" + moveException.getMessage() + ")";
+                }
+            }
+        }
+
+        try {
+            JournalReplayResult rotatedReplay = JournalReader.replay(rotatedPath, state);
+            JournalReplayResult replay = JournalReader.replay(journalPath, state);
+            long lastSequence = Math.max(rotatedReplay.getLastSequence(), replay.getLastSequence());
+            if ((rotatedReplay.hasTornTail() || replay.hasTornTail()) && notice == null) {
+                notice = "The last change before the previous exit was incomplete and has been discarded.";
+            }
+
+            if (Files.exists(rotatedPath)) {
+                // Finish the interrupted compaction now, so the next one can rotate the journal again
+                new CinemaSnapshot(state.getShows(), state.getTheaters(), state.getScreenings(), lastSequence).writeTo(snapshotPath);
+                Files.deleteIfExists(journalPath);
+                Files.delete(rotatedPath);
+                this.journal = Journal.open(journalPath, 0, lastSequence + 1);
+            } else {
+                this.journal = Journal.open(journalPath, replay.getValidLength(), lastSequence + 1);
+            }
+            this.compactor = new JournalCompactor(this.journal, journalPath, snapshotPath, Config.JOURNAL_COMPACTION_LENGTH);
+        } catch (IOException e) {
+            notice = "Could not open the journal, changes will only be saved on exit: " + e.getMessage();
+        }
+
+        try {
+            this.archive = ScreeningArchive.open(Path.of(Config.ARCHIVE_PATH), ZoneId.systemDefault());
+        } catch (IOException e) {
+            notice = "Could not open the screening archive, ended screenings will not be archived: " + e.getMessage();
+        }
+
+        if (Config.FILE_BACKED_SHOWS) {
+            try {
+                this.shows = new FileShowRepository(Path.of(Config.SHOW_STORE_PATH), Config.SHOW_CACHE_SIZE);
+            } catch (IOException e) {
+                notice = "Could not open the show store, shows are kept in memory: " + e.getMessage();
+            }
+        }
+        this.shows.addAll(state.getShows());
+        for (Show show : state.getShows()) {
+            this.indexShow(show);
+        }
+        this.theaters.addAll(state.getTheaters());
+        for (Theater theater : state.getTheaters()) {
+            this.theaterNames.put(theater.getID(), theater.getName());
+        }
+        this.screenings.addAll(state.getScreenings());
+        for (Screening screening : this.screenings) {
+            this.schedule.put(screening);
+            screening.setReservationListener(this.journal);
+        }
+        if (notice != null) {
+            this.mainMenuPages.setNotice(notice);
+        }
+    }
+
+    /**
+     * Starts folding the journal into a new snapshot in the background once it has grown large enough.
+     * Only the state is captured here, the snapshot is encoded and written by the compactor's own thread.
+     * A failed compaction is kept on the main menu, since no other one starts until it is resolved.
+     */
+    private void compactJournal() {
+        if (this.compactor == null) {
+            return;
+        }
+        this.compactor.compactIfDue(this.shows, this.theaters.asList(), this.screenings.asList());
+        String failure = this.compactor.getLastFailure();
+        this.mainMenuPages.setWarning(failure == null ? null : "Could not compact the journal: " + failure);
+    }
+
+    /**
+     * Keeps a warning on the main menu once the journal could not be written, since changes are then only saved on exit.
+     */
+    private void checkJournal() {
+        if (this.journal == null || this.journal.getFailure() == null) {
+            return;
+        }
+        this.mainMenuPages.setWarning("Could not write the journal, changes will only be saved on exit: " + this.journal.getFailure().getMessage());
+    }
+
+    /**
+     * Saves the shows, theaters and screenings so that the next run starts where this one ended.
+     * The journal is closed first, and removed once the snapshot holding all of its changes is written.
+     * @return a message describing whether the data was saved
+     */
+    private String saveSnapshot() {
+        try {
+            long journalSequence = 0;
+            if (this.compactor != null) {
+                this.compactor.close();
+            }
+            if (this.journal != null) {
+                try {
+                    this.journal.close();
+                } catch (IOException e) {
+                    // The snapshot below holds every change, including the ones the journal could not write
+                }
+                journalSequence = this.journal.getLastSequence();
+            }
+            new CinemaSnapshot(this.shows.asList(), this.theaters.asList(), this.screenings.asList(), journalSequence).writeTo(Path.of(Config.SNAPSHOT_PATH));
+            Files.deleteIfExists(Path.of(Config.JOURNAL_PATH));
+            Files.deleteIfExists(Journal.getRotatedPath(Path.of(Config.JOURNAL_PATH)));
+            if (this.archive != null) {
+                this.archive.close();
+            }
+            if (this.shows instanceof Closeable) {
+                ((Closeable) this.shows).close();
+            }
+            return "Saved " + this.shows.size() + " shows, " + this.theaters.size() + " theaters and " + this.screenings.size() + " screenings.";
+        } catch (IOException e) {
+            return "Could not save data: " + e.getMessage();
+        }
+    }
 }
@@ -1,5 +1,9 @@
 package cinema;
 
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
 import cinema.utils.CustomOption;
 import cinema.utils.PageBuilder;
 import cinema.utils.PageResult;
@@ -20,9 +24,47 @@ public class Config {
 
     public static int INTERFACE_WIDTH = 80;
 
-    public static int MAX_COLUMNS = 26;
+    public static int MAX_COLUMNS = 702;
+
+    public static int MAX_ROWS = 999;
+
+    public static int SEAT_HOLD_MINUTES = 10;
+
+    public static String BOX_OFFICE_HOLD_OWNER = "Box Office";
+
+    public static String SNAPSHOT_PATH = "cinema.snapshot";
+
+    public static String JOURNAL_PATH = "cinema.journal";
+
+    public static long JOURNAL_COMPACTION_LENGTH = 4L << 20;
+
+    public static boolean FILE_BACKED_SHOWS = false;
+
+    public static String SHOW_STORE_PATH = "cinema.shows";
+
+    public static int SHOW_CACHE_SIZE = 1000;
+
+    public static int SEARCH_RESULT_LIMIT = 20;
+
+    public static int PICKER_LIMIT = 10;
+
+    public static int LIST_PAGE_SIZE = 15;
+
+    public static int CLEANING_BUFFER_MINUTES = 15;
+
+    public static DateTimeFormatter SHOWTIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    public static LocalTime OPENING_TIME = LocalTime.of(10, 0);
+
+    public static LocalTime CLOSING_TIME = LocalTime.of(23, 30);
+
+    public static int PLAN_MAX_DAYS = 14;
+
+    public static int PLAN_MAX_SCREENINGS_PER_SHOW = 2;
+
+    public static String ARCHIVE_PATH = "cinema.archive";
 
-    public static int MAX_ROWS = 99;
+    public static int SALES_REPORT_MONTHS = 12;
 
     public static CustomOption NAVIGATE_TO_PREVIOUS = new CustomOption(PageResult.Navigation.BACK_TO_PREVIOUS, "Return", "R");
 
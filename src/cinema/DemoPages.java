@@ -1,14 +1,12 @@
 package cinema;
 
 import java.time.Duration;
-import java.util.List;
 
 import cinema.utils.Option;
 import cinema.utils.PageBuilder;
 import cinema.utils.PageResult;
 
 import show.Movie;
-import show.Show;
 import show.AnimatedMovie;
 import show.ConcertFilm;
 
@@ -24,11 +22,8 @@ public class DemoPages {
      */
     public static PageResult mainPage(Cinema cinema) {
 
-        List<Show> shows = cinema.getShows();
-        List<Theater> theaters = cinema.getTheaters(); // corrected spelling if needed
-
         // Movies
-        shows.add(new Movie(
+        cinema.addShow(new Movie(
             "Iron Man", 
             "After being held captive in an Afghan cave, billionaire engineer Tony Stark creates a unique weaponized suit of armor to fight evil.", 
             2008, 
@@ -36,7 +31,7 @@ public class DemoPages {
             Duration.ofMinutes(90)
         ));
 
-        shows.add(new Movie(
+        cinema.addShow(new Movie(
             "Jurassic World: Rebirth",
             "A team travels to a former island research where three specific gigantic species of dinosaurs reside, with the goal of extracting samples that are vital for a heart disease treatment.",
             2025,
@@ -44,7 +39,7 @@ public class DemoPages {
             Duration.ofMinutes(133)  
         ));
 
-        shows.add(new Movie(
+        cinema.addShow(new Movie(
             "Damsel",
             "A young woman who accepts a marriage proposal only to realize that she is being used to repay a royal family's ancient debts and must now escape while surviving attacks from the dragon lurking in the chasm.",
             2024,
@@ -52,7 +47,7 @@ public class DemoPages {
             Duration.ofMinutes(110)
         ));
 
-        shows.add(new Movie(
+        cinema.addShow(new Movie(
             "Nowhere",
             "A tense and thrilling survival drama that follows a woman trapped in a shipping container, fighting for her life as she tries to escape.",
             2023,
@@ -60,7 +55,7 @@ public class DemoPages {
             Duration.ofMinutes(109)
         ));
 
-        shows.add(new Movie(
+        cinema.addShow(new Movie(
             "Oppenheimer",
             "The story of J. Robert Oppenheimer and his role in the development of the atomic bomb during World War II.",
             2023,
@@ -71,7 +66,7 @@ public class DemoPages {
         
         // Animated Movies
 
-        shows.add(new AnimatedMovie(
+        cinema.addShow(new AnimatedMovie(
             "Spirited Away",
             "During her family's move to the suburbs, a sullen ten-year-old girl wanders into a world ruled by gods, witches, and spirits, where humans are changed into beasts.",
             2001,
@@ -79,7 +74,7 @@ public class DemoPages {
             Duration.ofMinutes(125)
         ));
 
-        shows.add(new AnimatedMovie(
+        cinema.addShow(new AnimatedMovie(
             "Grave of the Fireflies",
             "Set in Kobe during World War II, the film follows siblings Seita and Setsuko as they struggle to survive after the firebombing of their hometown.",
             1988,
@@ -87,7 +82,7 @@ public class DemoPages {
             Duration.ofMinutes(89)
         ));
 
-        shows.add(new AnimatedMovie(
+        cinema.addShow(new AnimatedMovie(
             "KPop Demon Hunters",
             "A K-pop girl group, Huntrix, who lead double lives as demon hunters, face off against a rival boy band whose members are secretly demons.",
             2025,
@@ -95,7 +90,7 @@ public class DemoPages {
             Duration.ofMinutes(95)
         ));
 
-        shows.add(new AnimatedMovie(
+        cinema.addShow(new AnimatedMovie(
             "Howl's Moving Castle",
             "The story of Sophie, a young woman cursed by a witch and turned into an elderly lady, who seeks refuge in a wizard's magical moving castle.",
             2004,
@@ -103,7 +98,7 @@ public class DemoPages {
             Duration.ofMinutes(119)
         ));
 
-        shows.add(new AnimatedMovie(
+        cinema.addShow(new AnimatedMovie(
             "How to Train Your Dragon",
             "Hiccup, an undersized Viking teen, injures a rare Night Fury dragon but ends up befriending it, changing the future of his village.",
             2010,
@@ -114,7 +109,7 @@ public class DemoPages {
 
         // Concert Films
 
-        shows.add(new ConcertFilm(
+        cinema.addShow(new ConcertFilm(
             "Taylor Swift: The Eras Tour",
             "A concert film documenting Taylor Swift's worldwide Eras Tour, highlighting performances across all her musical eras.",
             2023,
@@ -122,7 +117,7 @@ public class DemoPages {
             Duration.ofMinutes(169)
         ));
 
-        shows.add(new ConcertFilm(
+        cinema.addShow(new ConcertFilm(
             "Ariana Grande: Excuse Me, I Love You",
             "A concert film featuring performances from Ariana Grande's Sweetener World Tour, showcasing her vocals and stage presence.",
             2020,
@@ -130,7 +125,7 @@ public class DemoPages {
             Duration.ofMinutes(97)
         ));
         
-        shows.add(new ConcertFilm(
+        cinema.addShow(new ConcertFilm(
             "A Night at the Symphony: Hollywood Bowl",
             "A concert film from Laufey's Bewitched Tour at the Hollywood Bowl, featuring performances with the Los Angeles Philharmonic.",
             2024,
@@ -140,8 +135,8 @@ public class DemoPages {
 
 
         // Theaters
-        theaters.add(new Theater("Theater 1", 20, 20));
-        theaters.add(new Theater("Theater 2", 20, 15));
+        cinema.addTheater(new Theater("Theater 1", 20, 20));
+        cinema.addTheater(new Theater("Theater 2", 20, 15));
         
         PageBuilder page = new PageBuilder();
         page.setHud(Config.HUD_DISPLAY);
@@ -5,17 +5,39 @@ import cinema.utils.PageResult;
 import cinema.utils.PageType;
 
 import java.util.InputMismatchException;
+import java.util.List;
 
 import cinema.utils.CustomOption;
 import cinema.utils.Option;
 
 class MainMenuPages {
+    private String notice;
+    private String warning;
+
+    /**
+     * Sets a message to show once on the next display of the main menu, e.g. when saved data could not be loaded.
+     * @param notice the message to show
+     */
+    public void setNotice(String notice) {
+        this.notice = notice;
+    }
+
+    /**
+     * Sets a message to show on every display of the main menu until it is cleared, e.g. while changes cannot be saved.
+     * A notice is shown in its place when there is one.
+     * @param warning the message to show, or null to clear it
+     */
+    public void setWarning(String warning) {
+        this.warning = warning;
+    }
 
     /**
      * Displays the main menu page to the user, allowing them to choose from several options:
      *   - Manage Shows: Manage all shows in the cinema.
      *   - Manage Screenings: Manage all screenings in the cinema.
      *   - Manage Theaters: Manage all theaters in the cinema.
+     *   - Import Catalog: Import shows and theaters from a CSV or JSON lines file.
+     *   - Sales Report: Show the seats sold per show and month by the screenings that have ended.
      *   - Load Demo Data: Load demo data into the program.
      *   - Quit: Quit the program.
      * @return The result of the user's input, which can be used to navigate to the next page.
@@ -29,8 +51,16 @@ class MainMenuPages {
         page.addOption(new Option(PageType.MAIN_SHOW_EDITOR, "Manage Shows"));
         page.addOption(new Option(PageType.MAIN_MANAGE_SCREENINGS, "Manage Screenings"));
         page.addOption(new Option(PageType.MAIN_THEATER_EDITOR, "Manage Theaters"));
+        page.addOption(new Option(PageType.IMPORT_CATALOG, "Import Catalog"));
+        page.addOption(new Option(PageType.SALES_REPORT, "Sales Report"));
         page.addOption(new Option(PageType.LOAD_DEMO_DATA, "Load Demo Data"));
         page.addCustomOption(new CustomOption(PageResult.Navigation.BACK_TO_EXIT, "Quit", "Q"));
+        if (this.notice != null) {
+            page.setErrorMessage(this.notice);
+            this.notice = null;
+        } else if (this.warning != null) {
+            page.setErrorMessage(this.warning);
+        }
 
         PageResult result = null;
         while (result == null) {
@@ -46,10 +76,14 @@ class MainMenuPages {
         return result;
     }
 
-    public void exitPage() {
+    /**
+     * Displays the exit page with the outcome of saving the cinema's data.
+     * @param saveStatus a message describing whether the data was saved
+     */
+    public void exitPage(String saveStatus) {
         PageBuilder page = new PageBuilder();
         page.setTitle("Exit");
-        page.setBody("Exiting the application. Goodbye!");
+        page.setBody(PageBuilder.formatAsBody(List.of(saveStatus, "Exiting the application. Goodbye!")));
         page.display();
         
     }
@@ -1,5 +1,9 @@
 package cinema;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -11,9 +15,17 @@ import cinema.utils.Option;
 import cinema.utils.PageBuilder;
 import cinema.utils.PageResult;
 import cinema.utils.PageType;
+import cinema.utils.SeatMapRenderer;
+import screening.BestAvailableFinder;
 import screening.ExperienceType;
+import screening.GroupReservationResult;
+import screening.ScheduleConflictException;
 import screening.Screening;
+import screening.SeatBlock;
+import screening.SeatHold;
+import screening.SeatRemapResult;
 import seat.InvalidSeatException;
+import seat.Seat;
 import seat.SeatConflictException;
 import theater.Theater;
 import show.Show;
@@ -21,10 +33,12 @@ import show.Show;
 class MainScreeningPages {
     private Cinema cinema;
     private Screening workingScreening;
+    private SeatMapRenderer seatMapRenderer;
 
     MainScreeningPages(Cinema cinema) {
         this.cinema = cinema;
         this.workingScreening = null;
+        this.seatMapRenderer = null;
     }
 
     /**
@@ -39,15 +53,43 @@ class MainScreeningPages {
     /**
      * Returns a string representation of the current screening's reservation layout.
      * The returned string is a centered representation of the theater's seat layout, with
-     * reserved seats highlighted.
+     * reserved and held seats highlighted, followed by a legend of the seat icons.
+     * The rendered rows are kept per screening, so only rows that changed since the last display are rendered again.
      * @return a string representation of the current screening's reservation layout
      */
     public String getReservationLayout() {
-        List<String> bodyLines = new ArrayList<>();
-        for (String line : Arrays.asList(this.workingScreening.getTheater().generateSeatLayoutDisplay(this.workingScreening.getReservedSeatIDs()).split("\n"))) {
-            bodyLines.add(PageBuilder.formatStringToCenter(line));
+        Theater theater = this.workingScreening.getTheater();
+        if (this.seatMapRenderer == null || this.seatMapRenderer.getScreening() != this.workingScreening) {
+            this.seatMapRenderer = new SeatMapRenderer(this.workingScreening);
+        }
+        return this.seatMapRenderer.render() + "\n\n" + PageBuilder.formatStringToCenter(String.format(
+            "%s Available   %s Reserved   %s Held",
+            theater.getSeatAvailableIcon(),
+            theater.getSeatUnavailableIcon(),
+            theater.getSeatHeldIcon()
+        ));
+    }
+
+    /**
+     * Returns a short description of the row with the most occupied seats of a screening, e.g. "5 (20/30 seats)".
+     * Only the per-row counts of the screening are read, not the seats themselves.
+     * @param screening the screening to describe
+     * @return a description of the fullest row, or "None" if no seat is occupied
+     */
+    private String getFullestRowDescription(Screening screening) {
+        int fullestRow = 0;
+        int fullestCount = 0;
+        for (int row = 1; row <= screening.getTheater().getRowLength(); row++) {
+            int count = screening.getRowOccupiedSeatCount(row);
+            if (count > fullestCount) {
+                fullestRow = row;
+                fullestCount = count;
+            }
+        }
+        if (fullestCount == 0) {
+            return "None";
         }
-        return String.join("\n", bodyLines);
+        return fullestRow + " (" + fullestCount + "/" + screening.getTheater().getColumnLength() + " seats)";
     }
 
     /**
@@ -62,23 +104,11 @@ class MainScreeningPages {
         page.setHeader(Config.HEADER_DISPLAY);
         page.setTitle("Manage Screenings");
 
-        for (int i = 0; i < this.cinema.getScreenings().size(); i++) {
-            Screening screening = this.cinema.getScreenings().get(i);
-            
-            page.addDisplayOption(String.format(
-                "[%d] %s - %s {%d/%d seats} %s", 
-                i + 1, 
-                screening.getShow().toString(), 
-                screening.getTheater().getName(), 
-                screening.getReservedSeatIDs().size(), 
-                screening.getTheater().getRowLength() * screening.getTheater().getColumnLength(), 
-                (screening == screening.getTheater().getCurrentScreening() 
-                    ? "[Currently Screening]"
-                    : "")
-            ));
-        }
+        page.setListOptions(this.cinema.getScreenings().size(), i -> MainScreeningPages.formatScreeningLabel(this.cinema.getScreenings().get(i)));
         page.addCustomOption(new CustomOption(PageType.ADD_SCREENING, "Add Screening", "A"));
-        page.addCustomOption(new CustomOption(PageType.DELETE_SCREENING, "Delete Screening", "D"));        
+        page.addCustomOption(new CustomOption(PageType.DELETE_SCREENING, "Delete Screening", "D"));
+        page.addCustomOption(new CustomOption(PageType.EXPORT_MANIFESTS, "Export Seat Manifests", "X"));
+        page.addCustomOption(new CustomOption(PageType.PLAN_SCHEDULE, "Plan Schedule", "P"));
         page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
 
         PageResult.Int intInput = page.nextIntResultInputLoop(
@@ -94,10 +124,111 @@ class MainScreeningPages {
         return PageResult.createResultNextPage(PageType.MANAGE_SCREENING);
     }
 
+    /**
+     * Formats a screening as an item of the screening lists, e.g. "Dune - Hall 1 @ 2025-10-17 19:30 {12/80 seats, 15% full}".
+     * @param screening the screening to format
+     * @return the label of the screening
+     */
+    private static String formatScreeningLabel(Screening screening) {
+        return String.format(
+            "%s - %s @ %s {%d/%d seats, %d%% full} %s", 
+            screening.getShow().toString(), 
+            screening.getTheater().getName(), 
+            MainScreeningPages.formatShowtime(screening.getStartTime()),
+            screening.getReservedSeatCount(), 
+            screening.getSeatCapacity(), 
+            Math.round(screening.getFillRate() * 100), 
+            (screening == screening.getTheater().getCurrentScreening() 
+                ? "[Currently Screening]"
+                : "")
+        );
+    }
+
+    /**
+     * Formats a start or end time for display, e.g. "2025-10-17 19:30".
+     * @param time the time to format, may be null
+     * @return the formatted time, or "Unscheduled" if there is no time
+     */
+    private static String formatShowtime(Instant time) {
+        return time == null ? "Unscheduled" : Config.SHOWTIME_FORMAT.format(time);
+    }
+
+    /**
+     * Reads a start time for a screening until it is valid and the screening fits in the schedule of the theater,
+     * cleaning time included (see Cinema.checkSchedule). The start time is only set once it fits.
+     * @param page the PageBuilder to use for display and input
+     * @param screening the screening to set the start time of
+     * @param theater the theater the screening plays in
+     * @param show the show the screening plays
+     * @return the PageResult of the navigation option, or null if the start time was set
+     */
+    private PageResult inputStartTime(PageBuilder page, Screening screening, Theater theater, Show show) {
+        while (true) {
+            page.display();
+            PageResult.Str startInput = page.nextLine("Input Start Time (e.g. " + Config.SHOWTIME_FORMAT.format(Instant.now()) + ")");
+            if (startInput.getPageResult() != null) {
+                return startInput.getPageResult();
+            }
+            Instant startTime;
+            try {
+                startTime = ZonedDateTime.parse(startInput.getValue(), Config.SHOWTIME_FORMAT).toInstant();
+            } catch (DateTimeParseException e) {
+                page.setErrorMessage("Please enter a date and time such as " + Config.SHOWTIME_FORMAT.format(Instant.now()) + "!");
+                continue;
+            }
+            try {
+                this.cinema.checkSchedule(screening, theater, show, startTime);
+            } catch (ScheduleConflictException e) {
+                page.setErrorMessage(e.getMessage());
+                continue;
+            }
+            page.clearErrorMessage();
+            screening.setStartTime(startTime);
+            return null;
+        }
+    }
+
+    private static String SHOW_FILTER_HELP = "Type the start of a title, a year (e.g. 1999 or 1990-1999) or a type (e.g. Concert Film)";
+    private static Pattern yearRangePattern = Pattern.compile("(\\d{4})(?:\\s*-\\s*(\\d{4}))?");
+
+    /**
+     * Completes the filter typed into a show picker, using the indexes of the show repository and the title trie.
+     *   - A year such as "1999", or a range such as "1990-1999", matches the release year.
+     *   - A show type such as "Concert Film" matches the type.
+     *   - Anything else, including nothing, matches the start of the title, ignoring case.
+     * @param filter the filter typed by the user
+     * @return the first Config.PICKER_LIMIT matching shows
+     */
+    private List<Show> completeShows(String filter) {
+        Matcher yearRange = MainScreeningPages.yearRangePattern.matcher(filter);
+        List<Show> shows;
+        if (yearRange.matches()) {
+            int fromYear = Integer.parseInt(yearRange.group(1));
+            int toYear = yearRange.group(2) == null ? fromYear : Integer.parseInt(yearRange.group(2));
+            shows = this.cinema.getShows().findByReleaseYear(fromYear, toYear, Config.PICKER_LIMIT);
+        } else {
+            shows = filter.isEmpty() ? List.of() : this.cinema.getShows().findByShowType(filter, Config.PICKER_LIMIT);
+            if (shows.isEmpty()) {
+                return this.cinema.completeShowTitle(filter, Config.PICKER_LIMIT);
+            }
+        }
+        return shows;
+    }
+
+    private Picker<Theater> createTheaterPicker() {
+        return new Picker<>(
+            prefix -> this.cinema.completeTheaterName(prefix, Config.PICKER_LIMIT),
+            theater -> String.format("%s (%d rows, %d columns)", theater.getName(), theater.getRowLength(), theater.getColumnLength())
+        );
+    }
+
     /**
      * Returns a PageResult that represents the add screening page of the application.
      * This method generates a page that allows the user to select a theater and a show to
-     * create a new screening.
+     * create a new screening. Both are picked by typing the start of their name (see Picker),
+     * and shows can also be narrowed by year or type (see completeShows).
+     * The start time is asked last, and is only accepted if the theater is free from then until the show
+     * and the cleaning after it are over.
      * @return a PageResult that represents the add screening page of the application
      */
     public PageResult addScreeningPage() {
@@ -107,53 +238,24 @@ class MainScreeningPages {
         page.setTitle("Manage Screenings");
         page.setSubTitle("Add Screening");
 
-        if (this.cinema.getTheaters().isEmpty()) {
-            page.setErrorMessage("No theater found! Please create one first.");
-        }
-
-        for (int i = 0; i < this.cinema.getTheaters().size(); i++) {
-            Theater theater = this.cinema.getTheaters().get(i);
-            page.addDisplayOption(String.format("[%d] %s (%d rows, %d columns)", i + 1, theater.getName(), theater.getRowLength(), theater.getColumnLength()));
-        }
-
         page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
         page.addCustomOption(Config.NAVIGATE_TO_START);
 
-        Theater selectedTheater = null;
-        PageResult.Int theaterIntInput = page.nextIntResultInputLoop(
-            "Select Theater",
-            1,
-            this.cinema.getTheaters().size(),
-            "Please select a valid theater number!"
-        );
-        if (theaterIntInput.getPageResult() != null) {
-            return theaterIntInput.getPageResult();
-        } 
-        selectedTheater = this.cinema.getTheaters().get(theaterIntInput.getValue() - 1);
-        page.addPromptInput(theaterIntInput);
-
-        if (this.cinema.getShows().isEmpty()) {
-            page.setErrorMessage("No show found! Please create one first.");
+        Picker<Theater> theaterPicker = this.createTheaterPicker();
+        PageResult theaterResult = theaterPicker.pick(page, "Select Theater");
+        if (theaterResult != null) {
+            return theaterResult;
         }
+        Theater selectedTheater = theaterPicker.getSelection();
 
-        page.clearDisplayOption();
-        for (int i = 0; i < this.cinema.getShows().size(); i++) {
-            Show show = this.cinema.getShows().get(i);
-            page.addDisplayOption(String.format("[%d] %s", i + 1, show.getShortInfo()));
+        page.setBody(PageBuilder.formatAsBody(SHOW_FILTER_HELP));
+        Picker<Show> showPicker = new Picker<>(this::completeShows, Show::getShortInfo);
+        PageResult showResult = showPicker.pick(page, "Select Show");
+        if (showResult != null) {
+            return showResult;
         }
-
-        Show selectedShow = null;
-        PageResult.Int showIntInput = page.nextIntResultInputLoop(
-            "Select Show",
-            1,
-            this.cinema.getShows().size(),
-            "Please select a valid show number!"
-        );
-        if (showIntInput.getPageResult() != null) {
-            return showIntInput.getPageResult();
-        } 
-        selectedShow = this.cinema.getShows().get(showIntInput.getValue() - 1);
-        page.addPromptInput(showIntInput);
+        Show selectedShow = showPicker.getSelection();
+        page.setBody("");
 
         page.clearDisplayOption();
         page.addDisplayOption("[1] Standard 2D");
@@ -183,8 +285,25 @@ class MainScreeningPages {
                 break;
         }
         
-        if (selectedTheater != null && selectedShow != null && selectedExperienceType != null) {
-            this.cinema.getScreenings().add(new Screening(selectedTheater, selectedShow, selectedExperienceType));
+        page.clearDisplayOption();
+        page.setBody(PageBuilder.formatAsBody(String.format(
+            "%s runs for %d:%02d, and %s is cleaned for %d minutes afterwards.",
+            selectedShow.getTitle(),
+            selectedShow.getDuration().toHours(),
+            selectedShow.getDuration().toMinutesPart(),
+            selectedTheater.getName(),
+            Config.CLEANING_BUFFER_MINUTES
+        )));
+        Screening screening = new Screening(selectedTheater, selectedShow, selectedExperienceType, null, Duration.ofMinutes(Config.CLEANING_BUFFER_MINUTES));
+        PageResult startResult = this.inputStartTime(page, screening, selectedTheater, selectedShow);
+        if (startResult != null) {
+            return startResult;
+        }
+        try {
+            this.cinema.addScreening(screening);
+        } catch (ScheduleConflictException e) {
+            // The start time was checked when it was entered, and nothing else changes the schedule meanwhile
+            throw new IllegalStateException(e);
         }
 
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_MAIN);
@@ -205,20 +324,7 @@ class MainScreeningPages {
 
         page.setBody(PageBuilder.formatAsBody("    This will permanently delete the selected screening from the system!"));
 
-        for (int i = 0; i < this.cinema.getScreenings().size(); i++) {
-            Screening screening = this.cinema.getScreenings().get(i);
-            page.addDisplayOption(String.format(
-                "[%d] %s - %s {%d/%d seats} %s", 
-                i + 1, 
-                screening.getShow().toString(), 
-                screening.getTheater().getName(), 
-                screening.getReservedSeatIDs().size(), 
-                screening.getTheater().getRowLength() * screening.getTheater().getColumnLength(), 
-                (screening == screening.getTheater().getCurrentScreening() 
-                    ? "[Currently Screening]"
-                    : "")
-            ));
-        }
+        page.setListOptions(this.cinema.getScreenings().size(), i -> MainScreeningPages.formatScreeningLabel(this.cinema.getScreenings().get(i)));
 
         page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
         page.addCustomOption(Config.NAVIGATE_TO_START);
@@ -232,7 +338,7 @@ class MainScreeningPages {
         if (intInput.getPageResult() != null) {
             return intInput.getPageResult();
         } 
-        this.cinema.getScreenings().remove(intInput.getValue() - 1);
+        this.cinema.removeScreening(this.cinema.getScreenings().get(intInput.getValue() - 1));
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_MAIN);
     }
 
@@ -255,17 +361,24 @@ class MainScreeningPages {
         bodyLines.add("");
         bodyLines.add(PageBuilder.formatBodyToCenter("{Theater}"));
         bodyLines.add("Theater: " + this.workingScreening.getTheater().getName());
-        bodyLines.add("Reserved: " + this.workingScreening.getReservedSeatIDs().size() + "/" + (this.workingScreening.getTheater().getRowLength() * this.workingScreening.getTheater().getColumnLength()));
+        bodyLines.add("Reserved: " + this.workingScreening.getReservedSeatCount() + "/" + this.workingScreening.getSeatCapacity() + " (" + Math.round(this.workingScreening.getFillRate() * 100) + "% full, " + this.workingScreening.getHeldSeatCount() + " held)");
+        bodyLines.add("Available: " + this.workingScreening.getAvailableSeatCount());
+        bodyLines.add("Fullest Row: " + this.getFullestRowDescription(this.workingScreening));
+        bodyLines.add("Showtime: " + MainScreeningPages.formatShowtime(this.workingScreening.getStartTime()) + (this.workingScreening.getStartTime() == null ? "" : " until " + MainScreeningPages.formatShowtime(this.workingScreening.getEndTime())));
+        bodyLines.add("Theater Free From: " + MainScreeningPages.formatShowtime(this.workingScreening.getBlockedUntil()) + " (" + this.workingScreening.getCleaningBuffer().toMinutes() + " minutes of cleaning)");
         bodyLines.add("Currently Screening: " + (this.workingScreening == this.workingScreening.getTheater().getCurrentScreening() ? "Yes" : (this.workingScreening.getTheater().getCurrentScreening() == null ? "No" : "Theater is Busy")));
         bodyLines.add("");
 
         page.setBody(PageBuilder.formatAsBody(bodyLines));
         page.addOption(new Option(PageType.SHOW_SCREENING_SEAT_LAYOUT, "Show Seat Reservation Layout"));
         page.addOption(new Option(PageType.ADD_RESERVATION, "Add Seat Reservation"));
+        page.addOption(new Option(PageType.ADD_GROUP_RESERVATION, "Add Group Seat Reservation"));
+        page.addOption(new Option(PageType.HOLD_RESERVATION, "Hold Seat"));
         page.addOption(new Option(PageType.DELETE_RESERVATION, "Delete Seat Reservation"));
         page.addOption(new Option(PageType.EDIT_SCREENING_SHOW, "Edit Show"));
         page.addOption(new Option(PageType.EDIT_SCREENING_THEATER, "Edit Theater"));
         page.addOption(new Option(PageType.EDIT_SCREENING_EXPERIENCE_TYPE, "Edit Experience Type"));
+        page.addOption(new Option(PageType.EDIT_SCREENING_START_TIME, "Edit Start Time"));
         page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
         page.addCustomOption(Config.NAVIGATE_TO_START);
 
@@ -298,11 +411,12 @@ class MainScreeningPages {
         return page.nextOptionResultInputLoop("Input Option");
     }
 
-    private static Pattern columnRowPattern = Pattern.compile("([a-zA-Z])(\\d+)");
+    private static Pattern columnRowPattern = Pattern.compile("([a-zA-Z]{1,3})(\\d{1,5})");
     /**
      * Displays the seat layout of the current screening and allows the user to add a new seat reservation.
      * The user is prompted to enter the column and row of the seat they wish to reserve, e.g. A10.
      * The input is validated to check that the seat is not already reserved and that it is a valid seat in the theater.
+     * If the seat is held by the box office, the hold is confirmed as a reservation.
      * If the input is valid, the seat reservation is added and the user is returned to the previous page.
      * If the input is invalid, an error message is displayed and the user is prompted to enter the input again.
      * The user can navigate to the previous page, the main screening page, or the start page.
@@ -331,11 +445,152 @@ class MainScreeningPages {
 
             Matcher match = MainScreeningPages.columnRowPattern.matcher(columnRowInput.getValue());
             if (match.find()) {
+                int seatIndex = this.workingScreening.getTheater().getSeatIndex(Integer.parseInt(match.group(2)), match.group(1));
+                try {
+                    if (this.isHeldByBoxOffice(seatIndex)) {
+                        this.workingScreening.confirmSeatHold(seatIndex, Config.BOX_OFFICE_HOLD_OWNER);
+                    } else {
+                        this.workingScreening.createSeatReservation(seatIndex);
+                    }
+                    return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
+                } catch (SeatConflictException e1) {
+                    page.setErrorMessage("'" + match.group(1) + match.group(2) + (this.workingScreening.isSeatHeld(seatIndex) ? "' is held by another customer!" : "' is already reserved!"));
+                } catch (InvalidSeatException e2) {
+                    page.setErrorMessage("'" + match.group(1) + match.group(2) + "' is not a valid seat!");
+                }
+            } else {
+                page.setErrorMessage("Invalid column and row input!");
+            }
+        }
+    }
+
+
+    /**
+     * Displays the seat layout of the current screening and allows the user to reserve several seats at once.
+     * The user is prompted to enter a list of seats separated by spaces or commas, e.g. A1 A2 A3 B1.
+     * The seats are reserved all together, if any of them is already reserved or not a valid seat,
+     * none of them are reserved and the blocking seats are shown in an error message.
+     * The user can also enter a party size, e.g. 4, to reserve the best available contiguous seats.
+     * The user can navigate to the previous page, the main screening page, or the start page.
+     * @return the result of the page navigation loop
+     */
+    public PageResult addGroupSeatReservationPage() {
+        PageBuilder page = new PageBuilder();
+        page.setHud(Config.HUD_DISPLAY);
+        page.setHeader(Config.HEADER_DISPLAY);
+        page.setTitle("Screening Management");
+        page.setSubTitle("Add Group Seat Reservation: " + this.workingScreening.getShow().toString() + " | " + this.workingScreening.getTheater().getName());
+        page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
+        page.addCustomOption(Config.NAVIGATE_TO_MAIN_SCREENING);
+        page.addCustomOption(Config.NAVIGATE_TO_START);
+
+        page.setBody(getReservationLayout());
+
+        while (true) {
+            page.display();
+
+            PageResult.Str seatsInput = page.nextLine("Input Seats (e.g. A1 A2 A3 B1) or Party Size (e.g. 4)");
+
+            if (seatsInput.getPageResult() != null) {
+                return seatsInput.getPageResult();
+            }
+
+            if (seatsInput.getValue().matches("\\d{1,5}")) {
+                String error = this.reserveBestAvailable(Integer.parseInt(seatsInput.getValue()));
+                if (error == null) {
+                    return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
+                }
+                page.setErrorMessage(error);
+                continue;
+            }
+
+            String[] tokens = seatsInput.getValue().split("[\\s,]+");
+            int[] seatIndices = new int[tokens.length];
+            int nSeats = 0;
+            String invalidToken = null;
+            for (String token : tokens) {
+                if (token.isEmpty()) {
+                    continue;
+                }
+                Matcher match = MainScreeningPages.columnRowPattern.matcher(token);
+                int seatIndex = match.matches()
+                    ? this.workingScreening.getTheater().getSeatIndex(Integer.parseInt(match.group(2)), match.group(1))
+                    : Seat.INVALID_INDEX;
+                if (seatIndex == Seat.INVALID_INDEX) {
+                    invalidToken = token;
+                    break;
+                }
+                seatIndices[nSeats++] = seatIndex;
+            }
+
+            if (invalidToken != null) {
+                page.setErrorMessage("'" + invalidToken + "' is not a valid seat!");
+                continue;
+            }
+            if (nSeats == 0) {
+                page.setErrorMessage("Please enter at least one seat!");
+                continue;
+            }
+
+            GroupReservationResult result = this.workingScreening.createSeatReservations(Arrays.copyOf(seatIndices, nSeats));
+            if (result.isSuccessful()) {
+                return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
+            }
+            if (!result.getInvalidSeatIDs().isEmpty()) {
+                page.setErrorMessage("Not valid seats: " + String.join(", ", result.getInvalidSeatIDs()) + "!");
+            } else {
+                page.setErrorMessage("Already reserved: " + String.join(", ", result.getConflictingSeatIDs()) + "!");
+            }
+        }
+    }
+
+    /**
+     * Checks if the seat with the given packed index is currently held by the box office.
+     * @param seatIndex the packed seat index
+     * @return true if the seat is held by the box office, false otherwise
+     */
+    private boolean isHeldByBoxOffice(int seatIndex) {
+        SeatHold hold = this.workingScreening.getSeatHold(seatIndex);
+        return hold != null && hold.getOwnerToken().equals(Config.BOX_OFFICE_HOLD_OWNER);
+    }
+
+    /**
+     * Displays the seat layout of the current screening and allows the user to hold a seat.
+     * The user is prompted to enter the column and row of the seat they wish to hold, e.g. A10.
+     * The seat is held for the box office for a few minutes, until it is reserved through
+     * the add seat reservation page or the hold expires and the seat becomes available again.
+     * The user can navigate to the previous page, the main screening page, or the start page.
+     * @return the result of the page navigation loop
+     */
+    public PageResult holdSeatPage() {
+        PageBuilder page = new PageBuilder();
+        page.setHud(Config.HUD_DISPLAY);
+        page.setHeader(Config.HEADER_DISPLAY);
+        page.setTitle("Screening Management");
+        page.setSubTitle("Hold Seat (" + Config.SEAT_HOLD_MINUTES + " minutes): " + this.workingScreening.getShow().toString() + " | " + this.workingScreening.getTheater().getName());
+        page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
+        page.addCustomOption(Config.NAVIGATE_TO_MAIN_SCREENING);
+        page.addCustomOption(Config.NAVIGATE_TO_START);
+
+        page.setBody(getReservationLayout());
+
+        while (true) {
+            page.display();
+
+            PageResult.Str columnRowInput = page.nextLine("Input Column and Row (e.g. A10)");
+
+            if (columnRowInput.getPageResult() != null) {
+                return columnRowInput.getPageResult();
+            }
+
+            Matcher match = MainScreeningPages.columnRowPattern.matcher(columnRowInput.getValue());
+            if (match.find()) {
+                int seatIndex = this.workingScreening.getTheater().getSeatIndex(Integer.parseInt(match.group(2)), match.group(1));
                 try {
-                    this.workingScreening.createSeatReservation(Integer.parseInt(match.group(2)), Character.toUpperCase(match.group(1).charAt(0)));
+                    this.workingScreening.holdSeat(seatIndex, Config.BOX_OFFICE_HOLD_OWNER, Duration.ofMinutes(Config.SEAT_HOLD_MINUTES));
                     return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
                 } catch (SeatConflictException e1) {
-                    page.setErrorMessage("'" + match.group(1) + match.group(2) + "' is already reserved!");
+                    page.setErrorMessage("'" + match.group(1) + match.group(2) + "' is already reserved or held!");
                 } catch (InvalidSeatException e2) {
                     page.setErrorMessage("'" + match.group(1) + match.group(2) + "' is not a valid seat!");
                 }
@@ -345,6 +600,26 @@ class MainScreeningPages {
         }
     }
 
+    /**
+     * Reserves the best available block of contiguous seats for a party in the current screening.
+     * If another terminal takes one of the seats first, the next best block is tried.
+     * @param partySize the number of seats to reserve next to each other
+     * @return null if the seats were reserved, or an error message otherwise
+     */
+    private String reserveBestAvailable(int partySize) {
+        if (partySize < 1) {
+            return "Party size must be at least 1!";
+        }
+        for (SeatBlock block : BestAvailableFinder.findBest(this.workingScreening, partySize, 3)) {
+            if (this.workingScreening.createSeatReservations(block.getSeatIndices()).isSuccessful()) {
+                return null;
+            }
+        }
+        if (BestAvailableFinder.findBest(this.workingScreening, partySize) != null) {
+            return "Seats were taken while booking, please try again!";
+        }
+        return "No " + partySize + " seats next to each other are available!";
+    }
 
     /**
      * Displays the seat layout of the current screening and allows the user to delete a seat reservation.
@@ -378,8 +653,9 @@ class MainScreeningPages {
 
             Matcher match = MainScreeningPages.columnRowPattern.matcher(columnRowInput.getValue());
             if (match.find()) {
+                int seatIndex = this.workingScreening.getTheater().getSeatIndex(Integer.parseInt(match.group(2)), match.group(1));
                 try {
-                    this.workingScreening.deleteSeatReservation(Integer.parseInt(match.group(2)), Character.toUpperCase(match.group(1).charAt(0)));
+                    this.workingScreening.deleteSeatReservation(seatIndex);
                     return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
                 } catch (SeatConflictException e1) {
                     page.setErrorMessage("'" + match.group(1) + match.group(2) + "' is not reserved!");
@@ -394,8 +670,8 @@ class MainScreeningPages {
 
     /**
      * Allows the user to select a show to edit the current screening.
-     * The user is presented with a list of shows and is prompted to enter the number of the show they wish to edit.
-     * If the input is valid, the show of the current screening is updated and the user is returned to the previous page.
+     * The user narrows the list of shows by typing the start of a title, a year or a type (see completeShows), and enters the number of the show they wish to select.
+     * If the input is valid and the new show ends before the next screening of the theater, the show of the current screening is updated and the user is returned to the previous page.
      * If the input is invalid, an error message is displayed and the user is prompted to enter the input again.
      * The user can navigate to the previous page, the main screening page, or the start page.
      * @return the result of the page navigation loop
@@ -407,30 +683,36 @@ class MainScreeningPages {
         page.setTitle("Screening Management");
         page.setSubTitle("Edit Show: " + this.workingScreening.getShow().toString() + " | " + this.workingScreening.getTheater().getName());
 
-        for (Show show : this.cinema.getShows()) {
-            page.addDisplayOption(show.toString());
-        }
+        page.setBody(PageBuilder.formatAsBody(SHOW_FILTER_HELP));
         page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
         page.addCustomOption(Config.NAVIGATE_TO_MAIN_SCREENING);
         page.addCustomOption(Config.NAVIGATE_TO_START);
 
-        PageResult.Int showIntInput = page.nextIntResultInputLoop(
-            "Select Show",
-            1,
-            this.cinema.getShows().size(),
-            "Please select a valid show number!"
-        );
-        if (showIntInput.getPageResult() != null) {
-            return showIntInput.getPageResult();
-        } 
-        this.workingScreening.setShow(this.cinema.getShows().get(showIntInput.getValue() - 1));
-        return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
+        Picker<Show> showPicker = new Picker<>(this::completeShows, Show::toString);
+        while (true) {
+            PageResult showResult = showPicker.pick(page, "Select Show");
+            if (showResult != null) {
+                return showResult;
+            }
+            try {
+                this.cinema.checkSchedule(this.workingScreening, this.workingScreening.getTheater(), showPicker.getSelection(), this.workingScreening.getStartTime());
+            } catch (ScheduleConflictException e) {
+                page.clearPromptInputHistory();
+                page.setErrorMessage(e.getMessage());
+                continue;
+            }
+            this.workingScreening.setShow(showPicker.getSelection());
+            this.cinema.updateScreening(this.workingScreening);
+            return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
+        }
     }
 
     /**
      * Allows the user to select a theater to edit the current screening.
-     * The user is presented with a list of theaters and is prompted to enter the number of the theater they wish to edit.
-     * If the input is valid, the theater of the current screening is updated and the user is returned to the previous page.
+     * The user narrows the list of theaters by typing the start of a name (see Picker), and enters the number of the theater they wish to select.
+     * If the input is valid and the new theater is free at the time of the screening, the theater of the current screening is updated and the user is returned to the previous page.
+     * Reservations that do not fit in the new theater are listed first, the move is only made if the user confirms,
+     * and the seats that were released are shown afterwards.
      * If the input is invalid, an error message is displayed and the user is prompted to enter the input again.
      * The user can navigate to the previous page, the main screening page, or the start page.
      * @return the result of the page navigation loop
@@ -442,26 +724,59 @@ class MainScreeningPages {
         page.setTitle("Screening Management");
         page.setSubTitle("Edit Theater: " + this.workingScreening.getShow().toString() + " | " + this.workingScreening.getTheater().getName());
 
-        for (int i = 0; i < this.cinema.getTheaters().size(); i++) {
-            Theater theater = this.cinema.getTheaters().get(i);
-            page.addDisplayOption(String.format("[%d] %s (%d rows, %d columns)", i + 1, theater.getName(), theater.getRowLength(), theater.getColumnLength()));
-        }
         page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
         page.addCustomOption(Config.NAVIGATE_TO_MAIN_SCREENING);
         page.addCustomOption(Config.NAVIGATE_TO_START);
 
-        PageResult.Int theaterIntInput = page.nextIntResultInputLoop(
-            "Select Theater",
-            1,
-            this.cinema.getTheaters().size(),
-            "Please select a valid theater number!"
-        );
-        if (theaterIntInput.getPageResult() != null) {
-            return theaterIntInput.getPageResult();
-        } 
-        this.workingScreening.setTheater(this.cinema.getTheaters().get(theaterIntInput.getValue() - 1));;
+        Picker<Theater> theaterPicker = this.createTheaterPicker();
+        while (true) {
+            PageResult theaterResult = theaterPicker.pick(page, "Select Theater");
+            if (theaterResult != null) {
+                return theaterResult;
+            }
+            // Checked before the move, since moving drops the reserved seats that do not fit in the new theater
+            try {
+                this.cinema.checkSchedule(this.workingScreening, theaterPicker.getSelection(), this.workingScreening.getShow(), this.workingScreening.getStartTime());
+            } catch (ScheduleConflictException e) {
+                page.clearPromptInputHistory();
+                page.setErrorMessage(e.getMessage());
+                continue;
+            }
+            Theater theater = theaterPicker.getSelection();
+            SeatRemapResult preview = this.workingScreening.previewSeatLayoutRemap(theater.getRowLength(), theater.getColumnLength());
+            if (preview.hasDroppedSeats()) {
+                List<String> droppedLines = new ArrayList<>();
+                droppedLines.add("    These seats do not fit in " + theater.getName() + " (" + theater.getRowLength() + " rows x " + theater.getColumnLength() + " columns) and will be released:");
+                droppedLines.add(MainTheaterPages.describeDroppedSeats(this.workingScreening, preview));
+                droppedLines.add("");
+                page.setBody(PageBuilder.formatAsBody(droppedLines));
+                PageResult.Str confirmInput = page.nextLineResultInputLoop("Input Y to move anyway", "Please input Y to move, or select an option!");
+                if (confirmInput.getPageResult() != null) {
+                    return confirmInput.getPageResult();
+                }
+                if (!confirmInput.getValue().equalsIgnoreCase("Y")) {
+                    return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
+                }
+            }
 
-        return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
+            this.workingScreening.setTheater(theater);
+            SeatRemapResult released = this.workingScreening.remapSeatLayout();
+            this.cinema.updateScreening(this.workingScreening);
+
+            if (released.hasDroppedSeats()) {
+                List<String> releasedLines = new ArrayList<>();
+                releasedLines.add("    Released " + released.getDroppedSeatCount() + " seat(s) that do not fit in " + theater.getName() + ":");
+                releasedLines.add(MainTheaterPages.describeDroppedSeats(this.workingScreening, released));
+                releasedLines.add("");
+                page.clearErrorMessage();
+                page.clearPromptInputHistory();
+                page.setSubTitle("Screening Moved");
+                page.setBody(PageBuilder.formatAsBody(releasedLines));
+                page.setEnterOption(new Option(PageResult.Navigation.BACK_TO_PREVIOUS, "Continue"));
+                page.nextOptionResultInputLoop("Press Enter to Continue");
+            }
+            return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
+        }
     }
 
     /**
@@ -511,6 +826,34 @@ class MainScreeningPages {
         }
 
         this.workingScreening.setExperienceType(selectedExperienceType);
+        this.cinema.updateScreening(this.workingScreening);
+        return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
+    }
+
+    /**
+     * Allows the user to move the current screening to another start time.
+     * The new start time is only accepted if the theater is free from then until the show and the cleaning after it are over.
+     * If the input is valid, the start time of the current screening is updated and the user is returned to the previous page.
+     * The user can navigate to the previous page, the main screening page, or the start page.
+     * @return the result of the page navigation loop
+     */
+    public PageResult editScreeningStartTimePage() {
+        PageBuilder page = new PageBuilder();
+        page.setHud(Config.HUD_DISPLAY);
+        page.setHeader(Config.HEADER_DISPLAY);
+        page.setTitle("Screening Management");
+        page.setSubTitle("Edit Start Time: " + this.workingScreening.getShow().toString() + " | " + this.workingScreening.getTheater().getName());
+
+        page.setBody(PageBuilder.formatAsBody("Current Start Time: " + MainScreeningPages.formatShowtime(this.workingScreening.getStartTime())));
+        page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
+        page.addCustomOption(Config.NAVIGATE_TO_MAIN_SCREENING);
+        page.addCustomOption(Config.NAVIGATE_TO_START);
+
+        PageResult startResult = this.inputStartTime(page, this.workingScreening, this.workingScreening.getTheater(), this.workingScreening.getShow());
+        if (startResult != null) {
+            return startResult;
+        }
+        this.cinema.updateScreening(this.workingScreening);
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
 }
@@ -2,13 +2,15 @@ package cinema;
 
 import java.time.Duration;
 import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
 
 import cinema.utils.CustomOption;
 import cinema.utils.Option;
 import cinema.utils.PageBuilder;
 import cinema.utils.PageResult;
 import cinema.utils.PageType;
-import screening.Screening;
+import search.SearchHit;
 import show.Movie;
 import show.AnimatedMovie;
 import show.ConcertFilm;
@@ -133,7 +135,7 @@ class MainShowPages {
     /**
      * The main page of show management.
      * Displays a list of all shows in the cinema and allows the user to select one to manage.
-     * The user can also choose to add a show, delete a show, or return to the previous page.
+     * The user can also choose to add a show, delete a show, search the shows, or return to the previous page.
      * @return the PageResult corresponding with the user's selected option
      */
     public PageResult mainPage() {
@@ -142,12 +144,11 @@ class MainShowPages {
         page.setHeader(Config.HEADER_DISPLAY);
         page.setTitle("Show Management");
 
-        for (int i = 0; i < this.cinema.getShows().size(); i++) {
-            page.addDisplayOption(String.format("[%d] %s", i + 1, this.cinema.getShows().get(i).getShortInfo()));
-        }
+        page.setListOptions(this.cinema.getShows().size(), i -> this.cinema.getShows().get(i).getShortInfo());
 
         page.addCustomOption(new CustomOption(PageType.ADD_SHOW, "Add Show", "A"));
         page.addCustomOption(new CustomOption(PageType.DELETE_SHOW, "Delete Show", "D"));
+        page.addCustomOption(new CustomOption(PageType.SEARCH_SHOWS, "Search Shows", "S"));
         page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
 
         PageResult.Int intInput = page.nextIntResultInputLoop(
@@ -160,6 +161,63 @@ class MainShowPages {
             return intInput.getPageResult();
         } 
         this.workingShow = this.cinema.getShows().get(intInput.getValue() - 1);
+        return this.manageWorkingShowResult();
+    }
+
+    /**
+     * Searches the title, description and credit of every show, and allows the user to select a match to manage.
+     * Only shows containing every word of the query match; the best matches are listed first,
+     * up to Config.SEARCH_RESULT_LIMIT of them.
+     * @return the PageResult corresponding with the user's selected option
+     */
+    public PageResult searchShowsPage() {
+        PageBuilder page = new PageBuilder();
+        page.setHud(Config.HUD_DISPLAY);
+        page.setHeader(Config.HEADER_DISPLAY);
+        page.setTitle("Show Management");
+        page.setSubTitle("Search Shows by Title, Description, Actor, Studio or Artist");
+        page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
+        page.addCustomOption(Config.NAVIGATE_TO_START);
+
+        List<Show> matches = new ArrayList<>();
+        while (matches.isEmpty()) {
+            PageResult.Str queryInput = page.nextLineResultInputLoop("Input Search Words", "Search words cannot be empty!");
+            if (queryInput.getPageResult() != null) {
+                return queryInput.getPageResult();
+            }
+            for (SearchHit hit : this.cinema.getShowSearchIndex().search(queryInput.getValue(), Config.SEARCH_RESULT_LIMIT)) {
+                matches.add(this.cinema.getShows().findByID(hit.getShowID()));
+            }
+            if (matches.isEmpty()) {
+                page.setErrorMessage("No show matches '" + queryInput.getValue() + "'!");
+            } else {
+                page.clearErrorMessage();
+                page.setSubTitle("Search Results for '" + queryInput.getValue() + "'");
+            }
+        }
+
+        for (int i = 0; i < matches.size(); i++) {
+            page.addDisplayOption(String.format("[%d] %s", i + 1, matches.get(i).getShortInfo()));
+        }
+
+        PageResult.Int intInput = page.nextIntResultInputLoop(
+            "Input Option",
+            1,
+            matches.size(),
+            "Please select a valid show number!"
+        );
+        if (intInput.getPageResult() != null) {
+            return intInput.getPageResult();
+        }
+        this.workingShow = matches.get(intInput.getValue() - 1);
+        return this.manageWorkingShowResult();
+    }
+
+    /**
+     * Returns the PageResult leading to the manage page that matches the type of the working show.
+     * @return the PageResult of the manage page for the working show
+     */
+    private PageResult manageWorkingShowResult() {
         if (this.workingShow instanceof Movie) {
             return PageResult.createResultNextPage(PageType.MANAGE_SHOW_MOVIE);
         } else if (this.workingShow instanceof AnimatedMovie) {
@@ -254,7 +312,7 @@ class MainShowPages {
             leadActorInput.getValue(),
             Duration.ofMinutes(durationInput.getValue())
         );
-        this.cinema.getShows().add(newMovie);
+        this.cinema.addShow(newMovie);
 
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_MAIN);
     }
@@ -318,7 +376,7 @@ class MainShowPages {
             animationStudioInput.getValue(),
             Duration.ofMinutes(durationInput.getValue())
         );
-        this.cinema.getShows().add(newMovie);
+        this.cinema.addShow(newMovie);
 
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_MAIN);
     }
@@ -380,7 +438,7 @@ class MainShowPages {
             artistName.getValue(),
             Duration.ofMinutes(durationInput.getValue())
         );
-        this.cinema.getShows().add(newMovie);
+        this.cinema.addShow(newMovie);
 
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_MAIN);
     }
@@ -508,6 +566,7 @@ class MainShowPages {
         page.addPromptInput(titleInput);
 
         this.workingShow.setTitle(titleInput.getValue());
+        this.cinema.updateShow(this.workingShow);
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
 
@@ -538,6 +597,7 @@ class MainShowPages {
         page.addPromptInput(descriptionInput);
 
         this.workingShow.setDescription(descriptionInput.getValue());
+        this.cinema.updateShow(this.workingShow);
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
 
@@ -567,6 +627,7 @@ class MainShowPages {
         page.addPromptInput(yearInput);
 
         this.workingShow.setReleaseYear(yearInput.getValue());
+        this.cinema.updateShow(this.workingShow);
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
 
@@ -596,6 +657,7 @@ class MainShowPages {
         page.addPromptInput(durationInput);
 
         this.workingShow.setDuration(Duration.ofMinutes(durationInput.getValue()));
+        this.cinema.updateShow(this.workingShow);
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
 
@@ -632,6 +694,7 @@ class MainShowPages {
 
 
         movie.setLeadActor(leadActorInput.getValue());
+        this.cinema.updateShow(movie);
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
 
@@ -668,6 +731,7 @@ class MainShowPages {
 
 
         animatedMovie.setStudio(animationStudioInput.getValue());
+        this.cinema.updateShow(animatedMovie);
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
 
@@ -704,6 +768,7 @@ class MainShowPages {
 
 
         concertFilm.setArtist(artistName.getValue());
+        this.cinema.updateShow(concertFilm);
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
 
@@ -722,9 +787,7 @@ class MainShowPages {
         page.setTitle("Show Management");
         page.setSubTitle("Delete Show");
 
-        for (int i = 0; i < this.cinema.getShows().size(); i++) {
-            page.addDisplayOption(String.format("[%d] %s", i + 1, this.cinema.getShows().get(i).toString()));
-        }
+        page.setListOptions(this.cinema.getShows().size(), i -> this.cinema.getShows().get(i).toString());
 
         page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
         page.addCustomOption(Config.NAVIGATE_TO_START);
@@ -739,13 +802,7 @@ class MainShowPages {
             return intInput.getPageResult();
         } 
 
-        int indexToDelete = intInput.getValue() - 1;
-        for (Screening screening : this.cinema.getScreenings()) {
-            if (screening.getShow() == this.cinema.getShows().get(indexToDelete)) {
-                this.cinema.getScreenings().remove(screening);
-            }
-        }
-        this.cinema.getShows().remove(indexToDelete);
+        this.cinema.deleteShow(this.cinema.getShows().get(intInput.getValue() - 1));
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
 }
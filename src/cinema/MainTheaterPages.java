@@ -10,6 +10,7 @@ import cinema.utils.PageBuilder;
 import cinema.utils.PageResult;
 import cinema.utils.PageType;
 import screening.Screening;
+import screening.SeatRemapResult;
 import theater.Theater;
 
 class MainTheaterPages {
@@ -40,10 +41,19 @@ class MainTheaterPages {
         page.setHeader(Config.HEADER_DISPLAY);
         page.setTitle("Theater Management");
 
-        for (int i = 0; i < this.cinema.getTheaters().size(); i++) {
+        page.setListOptions(this.cinema.getTheaters().size(), i -> {
             Theater theater = this.cinema.getTheaters().get(i);
-            page.addDisplayOption(String.format("[%d] %s (%d rows, %d columns)", i + 1, theater.getName(), theater.getRowLength(), theater.getColumnLength()));
-        }
+            Screening screening = theater.getCurrentScreening();
+            return String.format(
+                "%s (%d rows, %d columns) %s",
+                theater.getName(),
+                theater.getRowLength(),
+                theater.getColumnLength(),
+                (screening != null
+                    ? "[Now Screening: " + Math.round(screening.getFillRate() * 100) + "% full]"
+                    : "")
+            );
+        });
 
         page.addCustomOption(new CustomOption(PageType.ADD_THEATER, "Add Theater", "A"));
         page.addCustomOption(new CustomOption(PageType.DELETE_THEATER, "Delete Theater", "D"));
@@ -111,7 +121,7 @@ class MainTheaterPages {
         }
         
         Theater newTheater = new Theater(strInput.getValue(), rowLength.getValue(), columnLength.getValue());
-        this.cinema.getTheaters().add(newTheater);
+        this.cinema.addTheater(newTheater);
 
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_MAIN);
     }
@@ -130,10 +140,10 @@ class MainTheaterPages {
         page.setSubTitle("Delete Theater");
         page.setBody(PageBuilder.formatAsBody("    This will permanently delete the selected theater from the system, including all associated screenings!"));;
 
-        for (int i = 0; i < this.cinema.getTheaters().size(); i++) {
+        page.setListOptions(this.cinema.getTheaters().size(), i -> {
             Theater theater = this.cinema.getTheaters().get(i);
-            page.addDisplayOption("[" + (i + 1) + "] Theater: " + theater.getName() + " | Seats: " + (theater.getRowLength() * theater.getColumnLength()));
-        }
+            return "Theater: " + theater.getName() + " | Seats: " + (theater.getRowLength() * theater.getColumnLength());
+        });
 
         page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
         page.addCustomOption(Config.NAVIGATE_TO_START);
@@ -148,13 +158,7 @@ class MainTheaterPages {
             return intInput.getPageResult();
         }
 
-        int indexToDelete = intInput.getValue() - 1;
-        for (Screening screening : this.cinema.getScreenings()) {
-            if (screening.getTheater() == this.cinema.getTheaters().get(indexToDelete)) {
-                this.cinema.getScreenings().remove(screening);
-            }
-        }
-        this.cinema.getTheaters().remove(indexToDelete);
+        this.cinema.deleteTheater(this.cinema.getTheaters().get(intInput.getValue() - 1));
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_MAIN);
     }
 
@@ -183,6 +187,7 @@ class MainTheaterPages {
             bodyLines.add(PageBuilder.formatBodyToCenter("{Currently Screening}"));
             bodyLines.addAll(screening.getShow().getLongInfo());
             bodyLines.add("Experience Type: " + screening.getExperienceType());
+            bodyLines.add("Occupancy: " + screening.getOccupiedSeatCount() + "/" + screening.getSeatCapacity() + " seats (" + Math.round(screening.getFillRate() * 100) + "% full)");
         } else {
             bodyLines.add("Currently Screening: None");
         }
@@ -234,7 +239,7 @@ class MainTheaterPages {
      * Returns a PageResult that represents the set current screening page of the application.
      * This method generates a page that allows the user to select a screening to set as the current
      * screening for the selected theater, and allows the user to navigate to the previous page, the main
-     * theater page, or the start page.
+     * theater page, or the start page. The screenings are narrowed by typing the start of the show title (see Picker).
      * If the selected theater is already currently screening a show, this method will end the current
      * screening and return the user to the previous page.
      * If there are no screenings available to select from, this method will display an error message to
@@ -244,7 +249,7 @@ class MainTheaterPages {
     public PageResult setCurrentScreeningPage() {
 
         if (this.workingTheater.getCurrentScreening() != null) {
-            this.workingTheater.endScreening();
+            this.cinema.endScreening(this.workingTheater);
             return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
         }
 
@@ -254,38 +259,30 @@ class MainTheaterPages {
         page.setTitle("Theater Management");
         page.setSubTitle("Set Current Screening for Theater: " + this.workingTheater.getName());
 
-        if (this.cinema.getScreenings().isEmpty()) {
-            page.setErrorMessage("No screening found! Please create one first.");
-        }
-
-        List<Screening> availableScreenings = new ArrayList<>();
-        for (Screening screening : this.cinema.getScreenings()) {
-            if (screening.getTheater() == this.workingTheater) {
-                availableScreenings.add(screening);
-            }
-        }
-
-        for (int i = 0; i < availableScreenings.size(); i++) {
-            Screening screening = availableScreenings.get(i);
-            page.addDisplayOption("[" + (i + 1) + "] " + screening.getShow().toString() + " | " + screening.getShow().getShowTypeAsString());
-        }
+        List<Screening> availableScreenings = this.cinema.getScreenings().findByTheater(this.workingTheater);
 
         page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
         page.addCustomOption(Config.NAVIGATE_TO_START);
 
-        PageResult.Int intInput = page.nextIntResultInputLoop(
-            "Input Option",
-            1,
-            availableScreenings.size(),
-            "Please select a valid screening number!"
+        // Only the theater's own screenings are candidates, so they are narrowed by title directly
+        Picker<Screening> screeningPicker = new Picker<>(
+            prefix -> {
+                List<Screening> matches = new ArrayList<>();
+                for (Screening screening : availableScreenings) {
+                    if (matches.size() < Config.PICKER_LIMIT && screening.getShow().getTitle().regionMatches(true, 0, prefix, 0, prefix.length())) {
+                        matches.add(screening);
+                    }
+                }
+                return matches;
+            },
+            screening -> screening.getShow().toString() + " | " + screening.getShow().getShowTypeAsString() + " | " + Math.round(screening.getFillRate() * 100) + "% full"
         );
-
-        if (intInput.getPageResult() != null) {
-            return intInput.getPageResult();
+        PageResult result = screeningPicker.pick(page, "Select Screening");
+        if (result != null) {
+            return result;
         }
 
-        int index = intInput.getValue() - 1;
-        this.workingTheater.startScreening(availableScreenings.get(index));
+        this.cinema.startScreening(this.workingTheater, screeningPicker.getSelection());
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
 
@@ -314,7 +311,8 @@ class MainTheaterPages {
         if (strInput.getPageResult() != null) {
             return strInput.getPageResult();
         }
-        this.workingTheater.setName(strInput.getValue()); 
+        this.workingTheater.setName(strInput.getValue());
+        this.cinema.updateTheater(this.workingTheater);
         
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
@@ -322,7 +320,9 @@ class MainTheaterPages {
     /**
      * Allows the user to edit the dimensions of the selected theater.
      * The user is prompted to enter the new row length and column length.
-     * If the input is valid, the theater dimensions are updated and all associated screenings are cleared.
+     * If the input is valid, the theater dimensions are updated and the reservations of all associated screenings
+     * are kept on the same seats. Reservations that do not fit in the new dimensions are listed first,
+     * and the resize is only made if the user confirms.
      * If the input is invalid, an error message is displayed and the user is prompted to enter the input again.
      * The user can navigate to the previous page, the main theater page, or the start page.
      * @return the result of the page navigation loop
@@ -357,14 +357,70 @@ class MainTheaterPages {
             return columnLength.getPageResult();
         }
 
-        for (Screening screening : this.cinema.getScreenings()) {
-            if (screening.getTheater() == this.workingTheater) {
-                screening.clearSeatReservations();
+        page.addPromptInput(columnLength);
+
+        List<Screening> theaterScreenings = this.cinema.getScreenings().findByTheater(this.workingTheater);
+        List<String> droppedLines = new ArrayList<>();
+        for (Screening screening : theaterScreenings) {
+            SeatRemapResult preview = screening.previewSeatLayoutRemap(rowLength.getValue(), columnLength.getValue());
+            if (preview.hasDroppedSeats()) {
+                droppedLines.add(MainTheaterPages.describeDroppedSeats(screening, preview));
+            }
+        }
+
+        if (!droppedLines.isEmpty()) {
+            droppedLines.add(0, "    These seats do not fit in " + rowLength.getValue() + " rows x " + columnLength.getValue() + " columns and will be released:");
+            droppedLines.add("");
+            page.setBody(PageBuilder.formatAsBody(droppedLines));
+            PageResult.Str confirmInput = page.nextLineResultInputLoop("Input Y to resize anyway", "Please input Y to resize, or select an option!");
+            if (confirmInput.getPageResult() != null) {
+                return confirmInput.getPageResult();
+            }
+            if (!confirmInput.getValue().equalsIgnoreCase("Y")) {
+                return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
             }
         }
+
+        // Screenings are remapped right after the resize, reservations inside the new layout keep their seat
         this.workingTheater.setSeatLayoutDimensions(rowLength.getValue(), columnLength.getValue());
+        List<String> releasedLines = new ArrayList<>();
+        int releasedSeatCount = 0;
+        for (Screening screening : theaterScreenings) {
+            SeatRemapResult released = screening.remapSeatLayout();
+            if (released.hasDroppedSeats()) {
+                releasedLines.add(MainTheaterPages.describeDroppedSeats(screening, released));
+                releasedSeatCount += released.getDroppedSeatCount();
+            }
+        }
+        this.cinema.updateTheater(this.workingTheater);
+
+        // The preview can miss seats reserved while the user was confirming, so the report uses the actual remap
+        if (!releasedLines.isEmpty()) {
+            releasedLines.add(0, "    Released " + releasedSeatCount + " seat(s) that do not fit in " + rowLength.getValue() + " rows x " + columnLength.getValue() + " columns:");
+            releasedLines.add("");
+            page.clearErrorMessage();
+            page.clearPromptInputHistory();
+            page.setSubTitle("Theater Resized");
+            page.setBody(PageBuilder.formatAsBody(releasedLines));
+            page.setEnterOption(new Option(PageResult.Navigation.BACK_TO_PREVIOUS, "Continue"));
+            page.nextOptionResultInputLoop("Press Enter to Continue");
+        }
 
         return PageResult.createResultJump(PageResult.Navigation.BACK_TO_PREVIOUS);
     }
 
+    /**
+     * Returns a line listing the seats of a screening that are released by a resize, e.g. "Show - 3 seat(s): A1, B1, C1 (held)".
+     * @param screening the screening of the seats
+     * @param result the seats dropped from the screening
+     * @return a line describing the dropped seats
+     */
+    static String describeDroppedSeats(Screening screening, SeatRemapResult result) {
+        List<String> seatIDs = new ArrayList<>(result.getDroppedReservedSeatIDs());
+        for (String seatID : result.getDroppedHeldSeatIDs()) {
+            seatIDs.add(seatID + " (held)");
+        }
+        return "    " + screening.getShow().toString() + " - " + result.getDroppedSeatCount() + " seat(s): " + String.join(", ", seatIDs);
+    }
+
 }
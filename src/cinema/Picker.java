@@ -0,0 +1,78 @@
+package cinema;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import cinema.utils.PageBuilder;
+import cinema.utils.PageResult;
+
+/**
+ * Lets the user pick an item by typing the start of its name until the list is short enough, then its number.
+ * Only the first Config.PICKER_LIMIT candidates of the current prefix are listed.
+ *
+ * @param <T> the type of the items to pick from
+ */
+class Picker<T> {
+    private static Pattern numberPattern = Pattern.compile("\\d{1,9}");
+
+    private final Function<String, List<T>> complete;
+    private final Function<T, String> describe;
+    private T selection;
+
+    /**
+     * Creates a picker.
+     * @param complete returns the first Config.PICKER_LIMIT items whose name starts with a prefix
+     * @param describe returns the line listing an item
+     */
+    Picker(Function<String, List<T>> complete, Function<T, String> describe) {
+        this.complete = complete;
+        this.describe = describe;
+    }
+
+    // Accessors
+
+    public T getSelection() { return this.selection; }
+
+    // Other Methods
+
+    /**
+     * Lists the candidates for the typed prefix and reads the next input, until the user enters the number of a listed
+     * candidate or selects a navigation option. Any other input becomes the new prefix, and an empty input lists the
+     * first candidates of all.
+     * @param page the PageBuilder to use for display and input, whose display options are replaced
+     * @param prompt the prompt to display to the user
+     * @return the PageResult of the navigation option, or null if a candidate was picked (see getSelection)
+     */
+    public PageResult pick(PageBuilder page, String prompt) {
+        String prefix = "";
+        while (true) {
+            List<T> candidates = this.complete.apply(prefix);
+            page.clearDisplayOption();
+            for (int i = 0; i < candidates.size(); i++) {
+                page.addDisplayOption(String.format("[%d] %s", i + 1, this.describe.apply(candidates.get(i))));
+            }
+            if (candidates.isEmpty()) {
+                page.setErrorMessage(prefix.isEmpty() ? "Nothing to select from!" : "Nothing starts with '" + prefix + "'!");
+            }
+
+            page.display();
+            PageResult.Str input = page.nextLine(prompt + " (type the start of a name to narrow the list)");
+            if (input.getPageResult() != null) {
+                return input.getPageResult();
+            }
+            String value = input.getValue();
+            if (Picker.numberPattern.matcher(value).matches()) {
+                int number = Integer.parseInt(value);
+                if (number >= 1 && number <= candidates.size()) {
+                    this.selection = candidates.get(number - 1);
+                    page.clearErrorMessage();
+                    page.addPromptInput(input);
+                    return null;
+                }
+            }
+            page.clearErrorMessage();
+            prefix = value;
+        }
+    }
+}
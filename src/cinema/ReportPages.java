@@ -0,0 +1,75 @@
+package cinema;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import archive.MonthlySales;
+import archive.ScreeningArchive;
+import cinema.utils.Option;
+import cinema.utils.PageBuilder;
+import cinema.utils.PageResult;
+
+class ReportPages {
+    private Cinema cinema;
+
+    ReportPages(Cinema cinema) {
+        this.cinema = cinema;
+    }
+
+    /**
+     * Displays the seats sold per show and month by the screenings that ended in the last months,
+     * read from the screening archive. The number of months is set by Config.SALES_REPORT_MONTHS.
+     * @return the PageResult corresponding with the user's selected option
+     */
+    public PageResult salesReportPage() {
+        PageBuilder page = new PageBuilder();
+        page.setHud(Config.HUD_DISPLAY);
+        page.setHeader(Config.HEADER_DISPLAY);
+        page.setTitle("Sales Report");
+        page.setSubTitle("Seats Sold per Show in the Last " + Config.SALES_REPORT_MONTHS + " Months");
+
+        List<String> bodyLines = new ArrayList<>();
+        ScreeningArchive archive = this.cinema.getArchive();
+        if (archive == null) {
+            bodyLines.add("The screening archive could not be opened.");
+        } else {
+            YearMonth to = YearMonth.now();
+            YearMonth from = to.minusMonths(Config.SALES_REPORT_MONTHS - 1);
+            try {
+                long start = System.nanoTime();
+                List<MonthlySales> sales = archive.getMonthlySalesByShow(from, to);
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+                YearMonth month = null;
+                for (MonthlySales monthlySales : sales) {
+                    if (!monthlySales.getMonth().equals(month)) {
+                        month = monthlySales.getMonth();
+                        bodyLines.add("");
+                        bodyLines.add(month.toString());
+                    }
+                    bodyLines.add(String.format(
+                        "  %-40.40s %4d screenings %7d seats",
+                        monthlySales.getShowName() == null ? "(No Show)" : monthlySales.getShowName(),
+                        monthlySales.getScreeningCount(),
+                        monthlySales.getSeatsSold()
+                    ));
+                }
+                if (sales.isEmpty()) {
+                    bodyLines.add("No screenings have ended since " + from + ".");
+                } else {
+                    bodyLines.add(0, "Scanned " + archive.getRowCount() + " archived screenings in " + elapsedMillis + " ms.");
+                }
+            } catch (IOException e) {
+                bodyLines.add("Could not read the screening archive: " + e.getMessage());
+            }
+        }
+
+        page.setBody(PageBuilder.formatAsBody(bodyLines));
+        page.setEnterOption(new Option(PageResult.Navigation.BACK_TO_START, "Continue"));
+        page.nextOptionResultInputLoop("Press Enter to Continue");
+
+        return PageResult.createResultJump(PageResult.Navigation.BACK_TO_START);
+    }
+}
@@ -0,0 +1,191 @@
+package cinema;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import archive.MonthlySales;
+import archive.ScreeningArchive;
+import cinema.utils.CustomOption;
+import cinema.utils.PageBuilder;
+import cinema.utils.PageResult;
+import scheduling.PackingRules;
+import scheduling.SchedulePacker;
+import scheduling.SchedulePlan;
+import screening.ExperienceType;
+import screening.ScheduleConflictException;
+import screening.Screening;
+import show.Show;
+import theater.Theater;
+
+class SchedulePages {
+    private Cinema cinema;
+
+    SchedulePages(Cinema cinema) {
+        this.cinema = cinema;
+    }
+
+    /**
+     * Returns the shows of the cinema, best first: by the seats they sold in the last Config.SALES_REPORT_MONTHS months
+     * according to the screening archive, then by title.
+     * @return the shows in the order the schedule packer should prefer them
+     */
+    private List<Show> rankShows() {
+        Map<Long, Long> seatsSold = new HashMap<>();
+        ScreeningArchive archive = this.cinema.getArchive();
+        if (archive != null) {
+            YearMonth to = YearMonth.now();
+            try {
+                for (MonthlySales sales : archive.getMonthlySalesByShow(to.minusMonths(Config.SALES_REPORT_MONTHS - 1), to)) {
+                    seatsSold.merge(sales.getShowID(), sales.getSeatsSold(), Long::sum);
+                }
+            } catch (IOException e) {
+                // Without past sales every show ranks the same, and the titles decide
+            }
+        }
+        List<Show> shows = new ArrayList<>(this.cinema.getShows().asList());
+        shows.sort(Comparator.comparingLong((Show show) -> -seatsSold.getOrDefault(show.getID(), 0L)).thenComparing(Show::getTitle));
+        return shows;
+    }
+
+    /**
+     * Plans the screenings of every theater for a number of days, filling the opening hours around the screenings
+     * already scheduled (see SchedulePacker), and adds them once the user accepts the plan.
+     * The user enters the first day, the number of days, and the theaters that only play IMAX screenings.
+     * Opening hours and cleaning time come from Config.
+     * @return the PageResult corresponding with the user's selected option
+     */
+    public PageResult planSchedulePage() {
+        PageBuilder page = new PageBuilder();
+        page.setHud(Config.HUD_DISPLAY);
+        page.setHeader(Config.HEADER_DISPLAY);
+        page.setTitle("Manage Screenings");
+        page.setSubTitle("Plan Schedule");
+        page.setBody(PageBuilder.formatAsBody(String.format(
+            "Theaters open from %s to %s and are cleaned for %d minutes after every screening. A show plays at most %d times a day in each theater.",
+            Config.OPENING_TIME,
+            Config.CLOSING_TIME,
+            Config.CLEANING_BUFFER_MINUTES,
+            Config.PLAN_MAX_SCREENINGS_PER_SHOW
+        )));
+        page.addCustomOption(Config.NAVIGATE_TO_PREVIOUS);
+        page.addCustomOption(Config.NAVIGATE_TO_START);
+
+        if (this.cinema.getTheaters().isEmpty() || this.cinema.getShows().isEmpty()) {
+            page.setErrorMessage("Add shows and theaters before planning a schedule!");
+            return page.nextOptionResultInputLoop("Input Option");
+        }
+
+        LocalDate firstDay = null;
+        PageResult.Str dayInput = null;
+        while (firstDay == null) {
+            dayInput = page.nextLineResultInputLoop("Input First Day (e.g. " + LocalDate.now().plusDays(1) + ")", "Please enter a day!");
+            if (dayInput.getPageResult() != null) {
+                return dayInput.getPageResult();
+            }
+            try {
+                firstDay = LocalDate.parse(dayInput.getValue());
+            } catch (DateTimeParseException e) {
+                page.setErrorMessage("Please enter a day such as " + LocalDate.now().plusDays(1) + "!");
+            }
+        }
+        page.clearErrorMessage();
+        page.addPromptInput(dayInput);
+
+        PageResult.Int daysInput = page.nextIntResultInputLoop(
+            "Input Number of Days",
+            1,
+            Config.PLAN_MAX_DAYS,
+            "Please plan between 1 and " + Config.PLAN_MAX_DAYS + " days!"
+        );
+        if (daysInput.getPageResult() != null) {
+            return daysInput.getPageResult();
+        }
+        page.addPromptInput(daysInput);
+
+        PackingRules rules = new PackingRules(Config.OPENING_TIME, Config.CLOSING_TIME, Duration.ofMinutes(Config.CLEANING_BUFFER_MINUTES), ZoneId.systemDefault());
+        rules.setMaxScreeningsPerShow(Config.PLAN_MAX_SCREENINGS_PER_SHOW);
+        while (true) {
+            page.display();
+            PageResult.Str imaxInput = page.nextLine("Input IMAX Theaters (names separated by commas, or nothing for none)");
+            if (imaxInput.getPageResult() != null) {
+                return imaxInput.getPageResult();
+            }
+            String unknownName = null;
+            for (String name : imaxInput.getValue().split(",")) {
+                Theater theater = this.findTheater(name.strip());
+                if (theater != null) {
+                    rules.setExperienceType(theater, ExperienceType.IMAX);
+                } else if (!name.isBlank()) {
+                    unknownName = name.strip();
+                }
+            }
+            if (unknownName == null) {
+                page.clearErrorMessage();
+                page.addPromptInput(imaxInput);
+                break;
+            }
+            page.setErrorMessage("There is no theater named '" + unknownName + "'!");
+        }
+
+        long start = System.nanoTime();
+        SchedulePlan plan = new SchedulePacker(this.cinema.getSchedule(), rules).pack(this.rankShows(), this.cinema.getTheaters().asList(), firstDay, daysInput.getValue());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        List<String> bodyLines = new ArrayList<>();
+        bodyLines.add(String.format("Planned %d screenings in %d ms, filling %d%% of the opening hours.", plan.getScreenings().size(), elapsedMillis, Math.round(plan.getUtilization() * 100)));
+        bodyLines.add("");
+        for (SchedulePlan.TheaterPlan theaterPlan : plan.getTheaterPlans()) {
+            bodyLines.add(String.format(
+                "  %-30.30s %4d screenings %3d%% filled %s",
+                theaterPlan.getTheater().getName(),
+                theaterPlan.getScreenings().size(),
+                Math.round(theaterPlan.getUtilization() * 100),
+                rules.getExperienceType(theaterPlan.getTheater()) == ExperienceType.IMAX ? "(IMAX)" : ""
+            ));
+        }
+        page.setBody(PageBuilder.formatAsBody(bodyLines));
+        page.clearPromptInputHistory();
+
+        CustomOption addOption = new CustomOption(PageResult.Navigation.BACK_TO_MAIN, "Add Planned Screenings", "A");
+        page.addCustomOption(addOption);
+        PageResult result = page.nextOptionResultInputLoop("Input Option");
+        if (result != addOption.getPageResult()) {
+            return result;
+        }
+
+        int nConflicts = 0;
+        for (Screening screening : plan.getScreenings()) {
+            try {
+                this.cinema.addScreening(screening);
+            } catch (ScheduleConflictException e) {
+                nConflicts++;
+            }
+        }
+        if (nConflicts > 0) {
+            // Only possible if the schedule changed while planning, the screenings that still fit were added
+            page.setErrorMessage(nConflicts + " planned screenings no longer fit and were left out!");
+            page.setBody("");
+            page.clearDisplayOption();
+            return page.nextOptionResultInputLoop("Input Option");
+        }
+        return result;
+    }
+
+    private Theater findTheater(String name) {
+        for (Theater theater : this.cinema.completeTheaterName(name, Config.PICKER_LIMIT)) {
+            if (theater.getName().equalsIgnoreCase(name)) {
+                return theater;
+            }
+        }
+        return null;
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.IntFunction;
 
 import cinema.Config;
 
@@ -33,6 +34,9 @@ public class PageBuilder {
     private List<CustomOption> customOptions = new ArrayList<>();
     private Option enterOption = null;
     private List<String> promptInputHistory = new ArrayList<>();
+    private int listSize = 0;
+    private IntFunction<String> listLabelOf = null;
+    private int listPage = 0;
 
     // Mutators
 
@@ -49,6 +53,20 @@ public class PageBuilder {
     public void addCustomOption(CustomOption customOption) { this.customOptions.add(customOption); }
     public void setEnterOption(Option enterOption) { this.enterOption = enterOption; }
     public void clearPromptInputHistory() { this.promptInputHistory.clear(); }
+
+    /**
+     * Sets a numbered list of items to display a page of Config.LIST_PAGE_SIZE items at a time.
+     * Only the labels of the items on the displayed page are asked for, so a redraw costs the same however long the list is.
+     * Items keep their number across pages, and the user turns pages with [<], [>] and [#n] at any prompt.
+     *
+     * @param size the number of items in the list
+     * @param labelOf returns the label of the item at a position, counted from 0
+     */
+    public void setListOptions(int size, IntFunction<String> labelOf) {
+        this.listSize = size;
+        this.listLabelOf = labelOf;
+        this.listPage = 0;
+    }
     
     /**
      * Adds a record of the user's input to the prompt input history.
@@ -328,6 +346,9 @@ public class PageBuilder {
      * The options are then printed, with each option on a new line.
      * The options are padded with spaces to align them with the center of the interface.
      * 
+     * If there is a list (see setListOptions), only the items of its current page are printed,
+     * followed by the page navigation if the list has more than one page.
+     * 
      * If there are custom options, they are printed after the normal options.
      * 
      * The enter option is then printed (if any).
@@ -378,7 +399,20 @@ public class PageBuilder {
             System.out.println(padLeft + displayOption);
         }
 
-        if ((!this.options.isEmpty() || !this.displayOptions.isEmpty()) && !this.customOptions.isEmpty()) {
+        if (this.listSize > 0) {
+            int first = this.listPage * Config.LIST_PAGE_SIZE;
+            int last = Math.min(first + Config.LIST_PAGE_SIZE, this.listSize);
+            for (int i = first; i < last; i++) {
+                System.out.println(String.format("%s[%d] %s", padLeft, i + 1, this.listLabelOf.apply(i)));
+            }
+            int pageCount = this.getListPageCount();
+            if (pageCount > 1) {
+                System.out.println();
+                System.out.println(String.format("%s[<] Previous  [>] Next  [#n] Go to Page n  (Page %d of %d)", padLeft, this.listPage + 1, pageCount));
+            }
+        }
+
+        if ((!this.options.isEmpty() || !this.displayOptions.isEmpty() || this.listSize > 0) && !this.customOptions.isEmpty()) {
             System.out.println();
         }
 
@@ -529,8 +563,7 @@ public class PageBuilder {
      * @throws InputMismatchException if the user inputs an invalid option
      */
     public PageResult nextOptionResult(String prompt) throws InputMismatchException {
-        System.out.print(String.format("  >> %s: ", prompt));
-        String input = PageBuilder.scanner.nextLine().strip();
+        String input = this.readInput(prompt).strip();
 
         PageResult pageResult = this.processOptionResult(input);
 
@@ -553,8 +586,7 @@ public class PageBuilder {
     public PageResult.Str nextLine(String prompt) {
         PageResult.Str result;
 
-        System.out.print(String.format("  >> %s: ", prompt));
-        String input = PageBuilder.scanner.nextLine().trim();
+        String input = this.readInput(prompt).trim();
 
         PageResult pageResult = this.processOptionResult(input);
 
@@ -579,8 +611,7 @@ public class PageBuilder {
     public PageResult.Int nextInt(String prompt) throws InputMismatchException {
         PageResult.Int result;
 
-        System.out.print(String.format("  >> %s: ", prompt));
-        String input = PageBuilder.scanner.nextLine().trim();
+        String input = this.readInput(prompt).trim();
 
         PageResult pageResult = this.processOptionResult(input);
 
@@ -597,4 +628,68 @@ public class PageBuilder {
         return result;
     }
 
+    /**
+     * Prints the prompt and reads a line of input from the user.
+     * Inputs that turn the page of the list are handled here, redisplaying the page and
+     * prompting again, so the caller only receives the input that answers the prompt.
+     * 
+     * @param prompt the prompt to display to the user
+     * @return the line entered by the user
+     */
+    private String readInput(String prompt) {
+        while (true) {
+            System.out.print(String.format("  >> %s: ", prompt));
+            String input = PageBuilder.scanner.nextLine();
+            if (!this.turnListPage(input.strip())) {
+                return input;
+            }
+            this.display();
+        }
+    }
+
+    /**
+     * Turns the page of the list if the input is [<] (previous page), [>] (next page) or [#n] (page n).
+     * Custom options keep their tokens, and a list that fits on one page has no navigation.
+     * 
+     * @param input the stripped input entered by the user
+     * @return true if the input was page navigation, false if it should be processed as usual
+     */
+    private boolean turnListPage(String input) {
+        int pageCount = this.getListPageCount();
+        if (pageCount <= 1) {
+            return false;
+        }
+        for (CustomOption customOption : this.customOptions) {
+            if (input.equalsIgnoreCase(customOption.getToken())) {
+                return false;
+            }
+        }
+
+        if (input.equals("<")) {
+            this.listPage = Math.max(this.listPage - 1, 0);
+        } else if (input.equals(">")) {
+            this.listPage = Math.min(this.listPage + 1, pageCount - 1);
+        } else if (input.startsWith("#")) {
+            int page;
+            try {
+                page = Integer.parseInt(input.substring(1).strip());
+            } catch (NumberFormatException e) {
+                page = 0;
+            }
+            if (page < 1 || page > pageCount) {
+                this.setErrorMessage("Please select a page between 1 and " + pageCount + "!");
+                return true;
+            }
+            this.listPage = page - 1;
+        } else {
+            return false;
+        }
+        this.clearErrorMessage();
+        return true;
+    }
+
+    private int getListPageCount() {
+        return (this.listSize + Config.LIST_PAGE_SIZE - 1) / Config.LIST_PAGE_SIZE;
+    }
+
 }
@@ -5,12 +5,17 @@ public enum PageType {
         MANAGE_SCREENING,
             SHOW_SCREENING_SEAT_LAYOUT,
             ADD_RESERVATION,
+            ADD_GROUP_RESERVATION,
+            HOLD_RESERVATION,
             DELETE_RESERVATION,
             EDIT_SCREENING_THEATER,
             EDIT_SCREENING_SHOW,
             EDIT_SCREENING_EXPERIENCE_TYPE,
+            EDIT_SCREENING_START_TIME,
         ADD_SCREENING,
         DELETE_SCREENING,
+        EXPORT_MANIFESTS,
+        PLAN_SCHEDULE,
     MAIN_THEATER_EDITOR,
         MANAGE_THEATER,
             SHOW_THEATER_SEAT_LAYOUT,
@@ -36,5 +41,8 @@ public enum PageType {
             ADD_SHOW_ANIMATED_MOVIE,
             ADD_SHOW_CONCERT_FILM,
         DELETE_SHOW,
+        SEARCH_SHOWS,
+    IMPORT_CATALOG,
+    SALES_REPORT,
     LOAD_DEMO_DATA;
 }
@@ -0,0 +1,119 @@
+package cinema.utils;
+
+import screening.Screening;
+import screening.SeatReservationEngine;
+import theater.Theater;
+
+/**
+ * Renders the centered seat map of a single screening and keeps the rendered rows between frames.
+ *
+ * For every row the renderer remembers the reservation and hold words it was drawn from.
+ * On the next render only rows whose words changed since then are drawn again, so a
+ * redisplay after a single booking rebuilds one row instead of the whole theater.
+ * The whole cache is dropped when the theater's dimensions or seat icons change,
+ * or when the screening's reservations are replaced (e.g. cleared or resized).
+ */
+public class SeatMapRenderer {
+    private final Screening screening;
+
+    private SeatReservationEngine renderedEngine;
+    private int nRows, nColumns;
+    private String seatAvailableIcon, seatUnavailableIcon, seatHeldIcon;
+
+    private String header;
+    private String[] rows;
+    private long[] renderedWords, renderedHeldWords;
+    private String display;
+
+    public SeatMapRenderer(Screening screening) {
+        this.screening = screening;
+    }
+
+    // Accessors
+
+    public Screening getScreening() { return this.screening; }
+
+    // Other Methods
+
+    /**
+     * Returns the centered seat map of the screening, one line per row below a line of column labels.
+     * Only the rows that changed since the previous call are rendered again.
+     *
+     * @return the centered seat map of the screening
+     */
+    public synchronized String render() {
+        Theater theater = this.screening.getTheater();
+        SeatReservationEngine engine = this.screening.getReservationEngine();
+        if (this.isStale(theater, engine)) {
+            this.reset(theater, engine);
+        }
+
+        int wordsPerRow = engine.getWordsPerRow();
+        boolean changed = this.display == null;
+        for (int iRow = 0; iRow < this.nRows; iRow++) {
+            int firstWord = iRow * wordsPerRow;
+            boolean rowChanged = this.rows[iRow] == null;
+            // The words are read before the row is drawn, so a booking that lands in between
+            // is at worst drawn early and picked up again on the next frame, never lost
+            for (int k = firstWord; k < firstWord + wordsPerRow; k++) {
+                long word = engine.getWord(k);
+                long heldWord = engine.getHeldWord(k);
+                if (word != this.renderedWords[k] || heldWord != this.renderedHeldWords[k]) {
+                    this.renderedWords[k] = word;
+                    this.renderedHeldWords[k] = heldWord;
+                    rowChanged = true;
+                }
+            }
+            if (rowChanged) {
+                this.rows[iRow] = PageBuilder.formatStringToCenter(theater.generateSeatLayoutRow(this.screening, iRow));
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            StringBuilder result = new StringBuilder(this.header);
+            for (String row : this.rows) {
+                result.append('\n').append(row);
+            }
+            this.display = result.toString();
+        }
+        return this.display;
+    }
+
+    /**
+     * Checks if the cached rows can no longer be reused because the layout, the icons or the reservations were replaced.
+     *
+     * @param theater the theater of the screening
+     * @param engine the current reservations of the screening
+     * @return true if the whole seat map must be drawn again, false otherwise
+     */
+    private boolean isStale(Theater theater, SeatReservationEngine engine) {
+        return engine != this.renderedEngine
+            || theater.getRowLength() != this.nRows
+            || theater.getColumnLength() != this.nColumns
+            || !theater.getSeatAvailableIcon().equals(this.seatAvailableIcon)
+            || !theater.getSeatUnavailableIcon().equals(this.seatUnavailableIcon)
+            || !theater.getSeatHeldIcon().equals(this.seatHeldIcon);
+    }
+
+    /**
+     * Empties the cache for the current layout, icons and reservations of the screening.
+     *
+     * @param theater the theater of the screening
+     * @param engine the current reservations of the screening
+     */
+    private void reset(Theater theater, SeatReservationEngine engine) {
+        this.renderedEngine = engine;
+        this.nRows = theater.getRowLength();
+        this.nColumns = theater.getColumnLength();
+        this.seatAvailableIcon = theater.getSeatAvailableIcon();
+        this.seatUnavailableIcon = theater.getSeatUnavailableIcon();
+        this.seatHeldIcon = theater.getSeatHeldIcon();
+
+        this.header = PageBuilder.formatStringToCenter(theater.generateSeatLayoutHeader());
+        this.rows = new String[this.nRows];
+        this.renderedWords = new long[engine.getWordCount()];
+        this.renderedHeldWords = new long[engine.getWordCount()];
+        this.display = null;
+    }
+}
@@ -0,0 +1,29 @@
+package exchange;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * The file formats the catalog can be imported from and exported to, one record per line.
+ */
+public enum CatalogFormat {
+    CSV,
+    JSON_LINES;
+
+    /**
+     * Picks the format from the extension of a file name: ".csv" for CSV, ".jsonl" or ".ndjson" for JSON lines.
+     *
+     * @param path the file
+     * @return the format of the file, or null if the extension is not recognized
+     */
+    public static CatalogFormat fromPath(Path path) {
+        String name = path.getFileName() == null ? "" : path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSON_LINES;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,206 @@
+package exchange;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import show.Show;
+import theater.Theater;
+
+/**
+ * Imports shows and theaters from a CSV or JSON lines file (see {@link CatalogRecords} for the record layout).
+ *
+ * The file is read as a stream of lines on the calling thread and cut into batches, which are parsed and validated
+ * on a pool of worker threads. Only a few batches are in flight at once, so memory stays constant however large
+ * the file is. Parsed batches are handed to the sinks in file order, on the calling thread, so the sinks need not
+ * be thread safe. A line that cannot be imported is reported with its line number and skipped.
+ */
+public class CatalogImporter {
+    public static final int BATCH_SIZE = 4096;
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private final CatalogRecords records;
+    private final int nThreads;
+
+    /**
+     * Creates an importer that validates theater dimensions against the given limits.
+     *
+     * @param maxRows the largest number of rows a theater may have
+     * @param maxColumns the largest number of columns a theater may have
+     */
+    public CatalogImporter(int maxRows, int maxColumns) {
+        this.records = new CatalogRecords(maxRows, maxColumns);
+        this.nThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Imports every valid record of the given file.
+     *
+     * @param path the file to import
+     * @param format the format of the file
+     * @param showSink receives the imported shows, one batch at a time
+     * @param theaterSink receives the imported theaters, one batch at a time
+     * @return the number of imported shows and theaters and the errors of the rejected lines
+     * @throws IOException if the file cannot be read
+     */
+    public ImportResult importFile(Path path, CatalogFormat format, Consumer<List<Show>> showSink, Consumer<List<Theater>> theaterSink) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(this.nThreads, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<ParsedBatch>> inFlight = new ArrayDeque<>();
+        Tally tally = new Tally(showSink, theaterSink);
+        long lineNumber = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), 1 << 16)) {
+            List<String> lines = new ArrayList<>(BATCH_SIZE);
+            long firstLineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1) {
+                    line = CatalogImporter.stripHeader(line, format);
+                }
+                lines.add(line);
+                if (lines.size() == BATCH_SIZE) {
+                    inFlight.add(this.submit(workers, format, lines, firstLineNumber));
+                    lines = new ArrayList<>(BATCH_SIZE);
+                    firstLineNumber = lineNumber + 1;
+                    if (inFlight.size() >= 2 * this.nThreads) {
+                        tally.add(CatalogImporter.await(inFlight.remove()));
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                inFlight.add(this.submit(workers, format, lines, firstLineNumber));
+            }
+            while (!inFlight.isEmpty()) {
+                tally.add(CatalogImporter.await(inFlight.remove()));
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        return new ImportResult(lineNumber, tally.nShows, tally.nTheaters, tally.nErrors, tally.errors, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private Future<ParsedBatch> submit(ExecutorService workers, CatalogFormat format, List<String> lines, long firstLineNumber) {
+        return workers.submit(() -> this.parse(format, lines, firstLineNumber));
+    }
+
+    /**
+     * Runs on a worker thread: parses and validates every line of a batch.
+     */
+    private ParsedBatch parse(CatalogFormat format, List<String> lines, long firstLineNumber) {
+        ParsedBatch batch = new ParsedBatch();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line == null || line.isBlank()) {
+                continue;
+            }
+            Object record;
+            try {
+                record = format == CatalogFormat.CSV
+                    ? this.records.fromCsv(CsvFields.split(line))
+                    : this.records.fromJson(JsonFields.parse(line));
+            } catch (IllegalArgumentException e) {
+                batch.nErrors++;
+                if (batch.errors.size() < MAX_REPORTED_ERRORS) {
+                    batch.errors.add("Line " + (firstLineNumber + i) + ": " + e.getMessage());
+                }
+                continue;
+            }
+            if (record instanceof Theater) {
+                batch.theaters.add((Theater) record);
+            } else {
+                batch.shows.add((Show) record);
+            }
+        }
+        return batch;
+    }
+
+    private static ParsedBatch await(Future<ParsedBatch> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    /**
+     * Removes a byte order mark from the first line, and drops the line if it is the CSV header.
+     *
+     * @return the line to parse, or null to skip it
+     */
+    private static String stripHeader(String line, CatalogFormat format) {
+        if (!line.isEmpty() && line.charAt(0) == '\uFEFF') {
+            line = line.substring(1);
+        }
+        if (format == CatalogFormat.CSV && line.regionMatches(true, 0, "type,", 0, 5)) {
+            return null;
+        }
+        return line;
+    }
+
+    /**
+     * The shows, theaters and errors of one batch of lines.
+     */
+    private static class ParsedBatch {
+        private final List<Show> shows = new ArrayList<>();
+        private final List<Theater> theaters = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int nErrors;
+    }
+
+    /**
+     * Hands parsed batches to the sinks and adds up the counts, on the calling thread.
+     */
+    private static class Tally {
+        private final Consumer<List<Show>> showSink;
+        private final Consumer<List<Theater>> theaterSink;
+        private final List<String> errors = new ArrayList<>();
+        private int nShows, nTheaters;
+        private long nErrors;
+
+        private Tally(Consumer<List<Show>> showSink, Consumer<List<Theater>> theaterSink) {
+            this.showSink = showSink;
+            this.theaterSink = theaterSink;
+        }
+
+        private void add(ParsedBatch batch) {
+            if (!batch.shows.isEmpty()) {
+                this.showSink.accept(batch.shows);
+                this.nShows += batch.shows.size();
+            }
+            if (!batch.theaters.isEmpty()) {
+                this.theaterSink.accept(batch.theaters);
+                this.nTheaters += batch.theaters.size();
+            }
+            this.nErrors += batch.nErrors;
+            for (String error : batch.errors) {
+                if (this.errors.size() >= MAX_REPORTED_ERRORS) {
+                    break;
+                }
+                this.errors.add(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package exchange;
+
+import java.time.Duration;
+import java.time.Year;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import show.AnimatedMovie;
+import show.ConcertFilm;
+import show.Movie;
+import show.Show;
+import theater.Theater;
+
+/**
+ * Maps shows and theaters to and from the records of catalog files.
+ *
+ * Every record has a type: "movie", "animated_movie", "concert_film" or "theater".
+ * CSV records have the columns type, title, description, releaseYear, durationMinutes, credit, rows, columns,
+ * where credit is the lead actor, studio or artist of a show, and a theater keeps its name in the title column.
+ * JSON lines records name their fields: type, title, description, releaseYear, durationMinutes and leadActor,
+ * studio or artist for shows; type, name, rows and columns for theaters.
+ * Shows and theaters are validated with the same limits as the pages that add them.
+ */
+class CatalogRecords {
+    static final String TYPE_MOVIE = "movie";
+    static final String TYPE_ANIMATED_MOVIE = "animated_movie";
+    static final String TYPE_CONCERT_FILM = "concert_film";
+    static final String TYPE_THEATER = "theater";
+
+    static final String CSV_HEADER = "type,title,description,releaseYear,durationMinutes,credit,rows,columns";
+
+    static final int MIN_RELEASE_YEAR = 1500;
+    static final int MAX_DURATION_MINUTES = 600;
+
+    private final int maxRows;
+    private final int maxColumns;
+    private final int maxReleaseYear;
+
+    CatalogRecords(int maxRows, int maxColumns) {
+        this.maxRows = maxRows;
+        this.maxColumns = maxColumns;
+        this.maxReleaseYear = Year.now().getValue();
+    }
+
+    // Decoding
+
+    /**
+     * Reads a show or theater from the fields of a CSV record.
+     *
+     * @param fields the fields of the record
+     * @return the Show or Theater of the record
+     * @throws IllegalArgumentException if the record is not a valid show or theater
+     */
+    Object fromCsv(List<String> fields) {
+        String type = CatalogRecords.field(fields, 0);
+        if (TYPE_THEATER.equalsIgnoreCase(type)) {
+            return this.toTheater(CatalogRecords.field(fields, 1), CatalogRecords.field(fields, 6), CatalogRecords.field(fields, 7));
+        }
+        return this.toShow(type, CatalogRecords.field(fields, 1), CatalogRecords.field(fields, 2),
+            CatalogRecords.field(fields, 3), CatalogRecords.field(fields, 4), CatalogRecords.field(fields, 5));
+    }
+
+    /**
+     * Reads a show or theater from the fields of a JSON lines record.
+     *
+     * @param fields the fields of the record by name
+     * @return the Show or Theater of the record
+     * @throws IllegalArgumentException if the record is not a valid show or theater
+     */
+    Object fromJson(Map<String, String> fields) {
+        String type = fields.get("type");
+        if (TYPE_THEATER.equalsIgnoreCase(type)) {
+            return this.toTheater(fields.get("name"), fields.get("rows"), fields.get("columns"));
+        }
+        String credit = null;
+        if (type != null) {
+            switch (type.toLowerCase(Locale.ROOT)) {
+                case TYPE_MOVIE: credit = fields.get("leadActor"); break;
+                case TYPE_ANIMATED_MOVIE: credit = fields.get("studio"); break;
+                case TYPE_CONCERT_FILM: credit = fields.get("artist"); break;
+            }
+        }
+        return this.toShow(type, fields.get("title"), fields.get("description"),
+            fields.get("releaseYear"), fields.get("durationMinutes"), credit);
+    }
+
+    private Show toShow(String type, String title, String description, String releaseYear, String durationMinutes, String credit) {
+        if (type == null || type.isEmpty()) {
+            throw new IllegalArgumentException("Record type is missing.");
+        }
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("Title cannot be empty.");
+        }
+        int year = CatalogRecords.parseInt("releaseYear", releaseYear, MIN_RELEASE_YEAR, this.maxReleaseYear);
+        Duration duration = Duration.ofMinutes(CatalogRecords.parseInt("durationMinutes", durationMinutes, 1, MAX_DURATION_MINUTES));
+        if (description == null) {
+            description = "";
+        }
+
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case TYPE_MOVIE:
+                return new Movie(title, description, year, CatalogRecords.requireCredit("Lead actor", credit), duration);
+            case TYPE_ANIMATED_MOVIE:
+                return new AnimatedMovie(title, description, year, CatalogRecords.requireCredit("Animation studio", credit), duration);
+            case TYPE_CONCERT_FILM:
+                return new ConcertFilm(title, description, year, CatalogRecords.requireCredit("Artist", credit), duration);
+            default:
+                throw new IllegalArgumentException("Unknown record type '" + type + "'.");
+        }
+    }
+
+    private Theater toTheater(String name, String rows, String columns) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Theater name cannot be empty.");
+        }
+        return new Theater(
+            name,
+            CatalogRecords.parseInt("rows", rows, 1, this.maxRows),
+            CatalogRecords.parseInt("columns", columns, 1, this.maxColumns)
+        );
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static String requireCredit(String label, String credit) {
+        if (credit == null || credit.isBlank()) {
+            throw new IllegalArgumentException(label + " cannot be empty.");
+        }
+        return credit;
+    }
+
+    private static int parseInt(String name, String value, int min, int max) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is missing.");
+        }
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " '" + value + "' is not a whole number.");
+        }
+        if (parsed < min || parsed > max) {
+            throw new IllegalArgumentException(name + " must be between " + min + " and " + max + ".");
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,92 @@
+package exchange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits and escapes the fields of a single CSV line.
+ * Fields may be quoted with double quotes, and a doubled quote inside a quoted field stands for one quote.
+ * Since records are read line by line, a quoted field cannot span several lines.
+ */
+class CsvFields {
+
+    /**
+     * Splits a CSV line into its fields.
+     *
+     * @param line the line, without its line break
+     * @return the fields of the line
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            field.setLength(0);
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    int quote = line.indexOf('"', i);
+                    if (quote < 0) {
+                        throw new IllegalArgumentException("Quoted field is not closed.");
+                    }
+                    field.append(line, i, quote);
+                    i = quote + 1;
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Unexpected character after quoted field at column " + (i + 1) + ".");
+                }
+            } else {
+                int comma = line.indexOf(',', i);
+                int end = comma < 0 ? line.length() : comma;
+                field.append(line, i, end);
+                i = end;
+            }
+            fields.add(field.toString());
+            if (i >= line.length()) {
+                return fields;
+            }
+            i++; // Skip the comma
+        }
+    }
+
+    /**
+     * Appends a value as a CSV field, quoting it if it contains a comma, a quote or a line break.
+     *
+     * @param out the line to append to
+     * @param value the value of the field, null is written as an empty field
+     */
+    static void append(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append("\"\"");
+            } else if (c == '\n' || c == '\r') {
+                // Records are one line each, so line breaks inside a value become spaces
+                out.append(' ');
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
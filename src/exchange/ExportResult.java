@@ -0,0 +1,27 @@
+package exchange;
+
+import java.time.Duration;
+
+/**
+ * The outcome of exporting seat manifests: how many screenings and seats were written, and how large the file is.
+ */
+public class ExportResult {
+    private final int screeningCount;
+    private final long seatCount;
+    private final long byteCount;
+    private final Duration elapsed;
+
+    ExportResult(int screeningCount, long seatCount, long byteCount, Duration elapsed) {
+        this.screeningCount = screeningCount;
+        this.seatCount = seatCount;
+        this.byteCount = byteCount;
+        this.elapsed = elapsed;
+    }
+
+    // Accessors
+
+    public int getScreeningCount() { return this.screeningCount; }
+    public long getSeatCount() { return this.seatCount; }
+    public long getByteCount() { return this.byteCount; }
+    public Duration getElapsed() { return this.elapsed; }
+}
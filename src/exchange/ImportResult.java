@@ -0,0 +1,41 @@
+package exchange;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The outcome of importing a catalog file: how many shows and theaters were added, and which lines were rejected.
+ */
+public class ImportResult {
+    private final long lineCount;
+    private final int showCount;
+    private final int theaterCount;
+    private final long errorCount;
+    private final List<String> errors;
+    private final Duration elapsed;
+
+    ImportResult(long lineCount, int showCount, int theaterCount, long errorCount, List<String> errors, Duration elapsed) {
+        this.lineCount = lineCount;
+        this.showCount = showCount;
+        this.theaterCount = theaterCount;
+        this.errorCount = errorCount;
+        this.errors = errors;
+        this.elapsed = elapsed;
+    }
+
+    // Accessors
+
+    public long getLineCount() { return this.lineCount; }
+    public int getShowCount() { return this.showCount; }
+    public int getTheaterCount() { return this.theaterCount; }
+    public long getErrorCount() { return this.errorCount; }
+    public Duration getElapsed() { return this.elapsed; }
+
+    /**
+     * Returns the errors of the first rejected lines, in line order, each starting with its line number.
+     * At most {@link CatalogImporter#MAX_REPORTED_ERRORS} errors are kept, see {@link #getErrorCount()} for the total.
+     *
+     * @return the reported errors
+     */
+    public List<String> getErrors() { return this.errors; }
+}
@@ -0,0 +1,186 @@
+package exchange;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes a flat JSON object on a single line, as used by JSON lines files.
+ * Values may be strings, numbers, booleans or null; nested objects and arrays are not supported.
+ * Every value is read back as a string, or null for JSON null.
+ */
+class JsonFields {
+
+    /**
+     * Parses a line holding one flat JSON object.
+     *
+     * @param line the line
+     * @return the fields of the object by name
+     * @throws IllegalArgumentException if the line is not a flat JSON object
+     */
+    static Map<String, String> parse(String line) {
+        return new JsonFields(line).parseObject();
+    }
+
+    /**
+     * Appends a value as a JSON string, or null.
+     *
+     * @param out the line to append to
+     * @param value the value to write
+     */
+    static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    private final String line;
+    private int position;
+
+    private JsonFields(String line) {
+        this.line = line;
+        this.position = 0;
+    }
+
+    private Map<String, String> parseObject() {
+        Map<String, String> fields = new HashMap<>();
+        this.expect('{');
+        if (this.peek() == '}') {
+            this.position++;
+        } else {
+            while (true) {
+                this.skipWhitespace();
+                String name = this.parseString();
+                this.expect(':');
+                fields.put(name, this.parseValue());
+                char next = this.next();
+                if (next == '}') {
+                    break;
+                }
+                if (next != ',') {
+                    throw this.error("Expected ',' or '}'");
+                }
+            }
+        }
+        if (this.peek() != 0) {
+            throw this.error("Unexpected text after the object");
+        }
+        return fields;
+    }
+
+    private String parseValue() {
+        char c = this.peek();
+        if (c == '"') {
+            return this.parseString();
+        }
+        if (c == '{' || c == '[') {
+            throw this.error("Nested values are not supported");
+        }
+        int start = this.position;
+        while (this.position < this.line.length() && ",}".indexOf(this.line.charAt(this.position)) < 0
+                && !Character.isWhitespace(this.line.charAt(this.position))) {
+            this.position++;
+        }
+        String literal = this.line.substring(start, this.position);
+        if (literal.isEmpty()) {
+            throw this.error("Expected a value");
+        }
+        return literal.equals("null") ? null : literal;
+    }
+
+    private String parseString() {
+        if (this.position >= this.line.length() || this.line.charAt(this.position) != '"') {
+            throw this.error("Expected a string");
+        }
+        this.position++;
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            if (this.position >= this.line.length()) {
+                throw this.error("String is not closed");
+            }
+            char c = this.line.charAt(this.position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (this.position >= this.line.length()) {
+                throw this.error("String is not closed");
+            }
+            char escaped = this.line.charAt(this.position++);
+            switch (escaped) {
+                case '"': case '\\': case '/': value.append(escaped); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'n': value.append('\n'); break;
+                case 'r': value.append('\r'); break;
+                case 't': value.append('\t'); break;
+                case 'u':
+                    if (this.position + 4 > this.line.length()) {
+                        throw this.error("Incomplete unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(this.line.substring(this.position, this.position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw this.error("Invalid unicode escape");
+                    }
+                    this.position += 4;
+                    break;
+                default:
+                    throw this.error("Invalid escape '\\" + escaped + "'");
+            }
+        }
+    }
+
+    private void expect(char expected) {
+        if (this.next() != expected) {
+            throw this.error("Expected '" + expected + "'");
+        }
+    }
+
+    /**
+     * Skips whitespace and returns the next character without consuming it, or 0 at the end of the line.
+     */
+    private char peek() {
+        this.skipWhitespace();
+        return this.position < this.line.length() ? this.line.charAt(this.position) : 0;
+    }
+
+    private char next() {
+        char c = this.peek();
+        if (c != 0) {
+            this.position++;
+        }
+        return c;
+    }
+
+    private void skipWhitespace() {
+        while (this.position < this.line.length() && Character.isWhitespace(this.line.charAt(this.position))) {
+            this.position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at column " + (this.position + 1) + ".");
+    }
+}
@@ -0,0 +1,187 @@
+package exchange;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import screening.Screening;
+import screening.SeatReservationEngine;
+import seat.Seat;
+
+/**
+ * Writes the seat manifests of screenings, one line per occupied seat, as CSV or JSON lines.
+ *
+ * Every line names the screening, its show, theater and experience type, and the seat with its ID, row, column
+ * label and status ("reserved", or "held" for a seat held by a customer who has not confirmed yet).
+ * CSV files start with the header {@value #CSV_HEADER}.
+ *
+ * Seats are read straight from the reservation bitset, word by word, and each line is encoded into a fixed
+ * buffer that is written to the file channel whenever it fills up, so the export never holds more than one
+ * buffer of output in memory, however many screenings are exported.
+ */
+public class ManifestExporter {
+    public static final String CSV_HEADER = "screeningID,show,theater,experienceType,seat,row,column,status";
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    private final CatalogFormat format;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer buffer;
+    private final StringBuilder line;
+    private FileChannel channel;
+    private long byteCount;
+
+    /**
+     * Creates an exporter that writes manifests in the given format.
+     *
+     * @param format the format of the manifest file
+     */
+    public ManifestExporter(CatalogFormat format) {
+        this.format = format;
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.line = new StringBuilder(256);
+    }
+
+    /**
+     * Writes the manifests of the given screenings to a file, in a single pass over their seats.
+     * An existing file is replaced.
+     *
+     * @param path the file to write
+     * @param screenings the screenings to export, in the order they are written
+     * @return the number of screenings and seats written
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized ExportResult export(Path path, List<Screening> screenings) throws IOException {
+        long start = System.nanoTime();
+        long nSeats = 0;
+        this.byteCount = 0;
+        this.buffer.clear();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            this.channel = channel;
+            if (this.format == CatalogFormat.CSV) {
+                this.line.setLength(0);
+                this.line.append(CSV_HEADER).append('\n');
+                this.writeLine();
+            }
+            for (Screening screening : screenings) {
+                nSeats += this.writeScreening(screening);
+            }
+            this.flushBuffer();
+        } finally {
+            this.channel = null;
+        }
+        return new ExportResult(screenings.size(), nSeats, this.byteCount, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Writes a line for every occupied seat of a screening, in row and column order.
+     *
+     * @return the number of seats written
+     */
+    private long writeScreening(Screening screening) throws IOException {
+        SeatReservationEngine engine = screening.getReservationEngine();
+        String prefix = this.formatScreeningPrefix(screening);
+        int wordsPerRow = engine.getWordsPerRow();
+        String[] columnLabels = new String[engine.getColumnLength()];
+        long nSeats = 0;
+
+        for (int iWord = 0; iWord < engine.getWordCount(); iWord++) {
+            long occupied = engine.getWord(iWord);
+            if (occupied == 0) {
+                continue;
+            }
+            long held = engine.getHeldWord(iWord);
+            int iRow = iWord / wordsPerRow;
+            int firstColumn = (iWord % wordsPerRow) << 6;
+            while (occupied != 0) {
+                int bit = Long.numberOfTrailingZeros(occupied);
+                occupied &= occupied - 1;
+                int iColumn = firstColumn + bit;
+                if (columnLabels[iColumn] == null) {
+                    columnLabels[iColumn] = Seat.formatColumnLabel(iColumn);
+                }
+                this.formatSeat(prefix, columnLabels[iColumn], iRow + 1, (held & (1L << bit)) != 0 ? "held" : "reserved");
+                this.writeLine();
+                nSeats++;
+            }
+        }
+        return nSeats;
+    }
+
+    /**
+     * Formats the fields shared by every seat of a screening, so they are escaped only once per screening.
+     */
+    private String formatScreeningPrefix(Screening screening) {
+        StringBuilder prefix = new StringBuilder();
+        String show = screening.getShow() == null ? null : screening.getShow().toString();
+        String theater = screening.getTheater().getName();
+        String experienceType = screening.getExperienceType().name();
+        if (this.format == CatalogFormat.CSV) {
+            prefix.append(screening.getID()).append(',');
+            CsvFields.append(prefix, show);
+            prefix.append(',');
+            CsvFields.append(prefix, theater);
+            prefix.append(',').append(experienceType).append(',');
+        } else {
+            prefix.append("{\"screeningID\":").append(screening.getID()).append(",\"show\":");
+            JsonFields.appendString(prefix, show);
+            prefix.append(",\"theater\":");
+            JsonFields.appendString(prefix, theater);
+            prefix.append(",\"experienceType\":\"").append(experienceType).append("\",");
+        }
+        return prefix.toString();
+    }
+
+    private void formatSeat(String prefix, String columnLabel, int row, String status) {
+        this.line.setLength(0);
+        this.line.append(prefix);
+        if (this.format == CatalogFormat.CSV) {
+            this.line.append(columnLabel).append(row).append(',')
+                .append(row).append(',')
+                .append(columnLabel).append(',')
+                .append(status).append('\n');
+        } else {
+            this.line.append("\"seat\":\"").append(columnLabel).append(row)
+                .append("\",\"row\":").append(row)
+                .append(",\"column\":\"").append(columnLabel)
+                .append("\",\"status\":\"").append(status).append("\"}\n");
+        }
+    }
+
+    /**
+     * Encodes the current line into the buffer, writing the buffer to the file whenever it fills up.
+     */
+    private void writeLine() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(this.line);
+        this.encoder.reset();
+        while (true) {
+            CoderResult result = this.encoder.encode(chars, this.buffer, true);
+            if (result.isOverflow()) {
+                this.flushBuffer();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.byteCount += this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+}
@@ -0,0 +1,129 @@
+package persistence;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+import show.AnimatedMovie;
+import show.ConcertFilm;
+import show.Movie;
+import show.Show;
+
+/**
+ * Encodes the values shared by the snapshot and the journal.
+ * Values are written through a DataOutput and read back from a ByteBuffer, big-endian.
+ */
+class BinaryCodec {
+    static final byte SHOW_MOVIE = 1;
+    static final byte SHOW_ANIMATED_MOVIE = 2;
+    static final byte SHOW_CONCERT_FILM = 3;
+
+    /**
+     * Writes a string as its UTF-8 length followed by its bytes, or -1 for null.
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) throws CorruptSnapshotException {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new CorruptSnapshotException("String runs past the end of the record.");
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes an instant as its epoch milliseconds, or Long.MIN_VALUE for null.
+     */
+    static void writeInstant(DataOutput out, Instant value) throws IOException {
+        out.writeLong(value == null ? Long.MIN_VALUE : value.toEpochMilli());
+    }
+
+    static Instant readInstant(ByteBuffer in) {
+        long epochMilli = in.getLong();
+        return epochMilli == Long.MIN_VALUE ? null : Instant.ofEpochMilli(epochMilli);
+    }
+
+    /**
+     * Reads a count of elements that follow in the buffer, which can never be more than the remaining bytes.
+     */
+    static int readCount(ByteBuffer in) throws CorruptSnapshotException {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new CorruptSnapshotException("Invalid element count " + count + ".");
+        }
+        return count;
+    }
+
+    /**
+     * Writes a show as a type tag, the common show fields and the field of the show's subclass.
+     * The ID of the show is not written.
+     */
+    static void writeShow(DataOutput out, Show show) throws IOException {
+        String subclassField;
+        if (show instanceof Movie) {
+            out.writeByte(SHOW_MOVIE);
+            subclassField = ((Movie) show).getLeadActor();
+        } else if (show instanceof AnimatedMovie) {
+            out.writeByte(SHOW_ANIMATED_MOVIE);
+            subclassField = ((AnimatedMovie) show).getStudio();
+        } else if (show instanceof ConcertFilm) {
+            out.writeByte(SHOW_CONCERT_FILM);
+            subclassField = ((ConcertFilm) show).getArtist();
+        } else {
+            throw new IOException("Cannot save show of type " + show.getClass().getName() + ".");
+        }
+        BinaryCodec.writeString(out, show.getTitle());
+        BinaryCodec.writeString(out, show.getDescription());
+        out.writeInt(show.getReleaseYear());
+        out.writeLong(show.getDuration().getSeconds());
+        BinaryCodec.writeString(out, subclassField);
+    }
+
+    /**
+     * Writes an empty movie in place of a show that can no longer be read, keeping the positions of the shows after it.
+     * Readers decode it as an ordinary show.
+     */
+    static void writeEmptyShow(DataOutput out) throws IOException {
+        out.writeByte(SHOW_MOVIE);
+        BinaryCodec.writeString(out, "");
+        BinaryCodec.writeString(out, "");
+        out.writeInt(0);
+        out.writeLong(0);
+        BinaryCodec.writeString(out, "");
+    }
+
+    static Show readShow(ByteBuffer in) throws CorruptSnapshotException {
+        byte type = in.get();
+        String title = BinaryCodec.readString(in);
+        String description = BinaryCodec.readString(in);
+        int releaseYear = in.getInt();
+        Duration duration = Duration.ofSeconds(in.getLong());
+        String subclassField = BinaryCodec.readString(in);
+        switch (type) {
+            case SHOW_MOVIE:
+                return new Movie(title, description, releaseYear, subclassField, duration);
+            case SHOW_ANIMATED_MOVIE:
+                return new AnimatedMovie(title, description, releaseYear, subclassField, duration);
+            case SHOW_CONCERT_FILM:
+                return new ConcertFilm(title, description, releaseYear, subclassField, duration);
+            default:
+                throw new CorruptSnapshotException("Unknown show type " + type + ".");
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import repository.ShowRepository;
+import screening.ExperienceType;
+import screening.Screening;
+import screening.SeatReservationEngine;
+import show.Show;
+import theater.Theater;
+
+/**
+ * A saved copy of the shows, theaters and screenings of the cinema, including the reserved seats of every screening.
+ *
+ * The snapshot is a single binary file, big-endian, laid out as:
+ *   - a header: the magic number "CINE", the format version and the sequence number
+ *     of the last journal record included in the snapshot (see {@link Journal}),
+ *   - the shows: ID, a type tag, the common show fields and the field of the show's subclass,
+ *   - the theaters: ID, name, dimensions and seat icons,
+ *   - the screenings: ID, the theater and show by position in their lists, the experience type,
+ *     the start time and cleaning buffer in milliseconds, and the non-empty words of the reservation bitset,
+ *   - the screening currently playing in each theater, by position,
+ *   - a CRC32 of everything before it.
+ *
+ * Reserved seats are stored as bitset words, so a full screening costs 8 bytes per 64 seats.
+ * Holds are short-lived and are not saved. Snapshots are read through a memory-mapped file,
+ * so loading does not copy the file through a stream before decoding it.
+ * Version 1 snapshots, which have no IDs or journal sequence, and version 2 snapshots, whose screenings have no
+ * start time, can still be read.
+ */
+public class CinemaSnapshot {
+    public static final int MAGIC = 0x43494E45; // "CINE"
+    public static final short VERSION = 3;
+
+    private final List<Show> shows;
+    private final List<Theater> theaters;
+    private final List<Screening> screenings;
+    private final long journalSequence;
+
+    // The show IDs, theaters and screenings copied by capture, or null to read them when encoding
+    private final ShowRepository showSource;
+    private final long[] capturedShowIDs;
+    private final List<TheaterFields> capturedTheaters;
+    private final List<ScreeningFields> capturedScreenings;
+
+    public CinemaSnapshot(List<Show> shows, List<Theater> theaters, List<Screening> screenings) {
+        this(shows, theaters, screenings, 0);
+    }
+
+    public CinemaSnapshot(List<Show> shows, List<Theater> theaters, List<Screening> screenings, long journalSequence) {
+        this(shows, theaters, screenings, journalSequence, null, null, null, null);
+    }
+
+    private CinemaSnapshot(List<Show> shows, List<Theater> theaters, List<Screening> screenings, long journalSequence,
+            ShowRepository showSource, long[] capturedShowIDs, List<TheaterFields> capturedTheaters, List<ScreeningFields> capturedScreenings) {
+        this.shows = shows;
+        this.theaters = theaters;
+        this.screenings = screenings;
+        this.journalSequence = journalSequence;
+        this.showSource = showSource;
+        this.capturedShowIDs = capturedShowIDs;
+        this.capturedTheaters = capturedTheaters;
+        this.capturedScreenings = capturedScreenings;
+    }
+
+    /**
+     * Captures the state so that it can be encoded on another thread while it keeps changing.
+     * Only the order of the show IDs and the fields of the theaters and screenings are copied, which keeps every
+     * reference between them and every theater's dimensions as they are now. Shows and reserved seats, which make up
+     * most of a snapshot, are read when encoding: the shows one at a time by ID, so a file-backed store never has to
+     * bring its whole catalog onto the heap, and the seats through the reservation engines captured here.
+     * They may then include changes made after the given journal sequence. Replaying those records again
+     * leaves the same state, since each one puts, removes, reserves or releases its target whatever it was before.
+     * A show removed in the meantime is written as an empty stand-in, which its removal record removes again.
+     *
+     * @param shows the show store of the cinema, read again when encoding
+     * @param theaters the theaters of the cinema
+     * @param screenings the screenings of the cinema
+     * @param journalSequence the sequence number of the last journal record whose change is included
+     * @return the captured snapshot
+     */
+    public static CinemaSnapshot capture(ShowRepository shows, List<Theater> theaters, List<Screening> screenings, long journalSequence) {
+        return new CinemaSnapshot(
+            shows.asList(),
+            new ArrayList<>(theaters),
+            new ArrayList<>(screenings),
+            journalSequence,
+            shows,
+            shows.getIDs(),
+            CinemaSnapshot.captureTheaters(theaters),
+            CinemaSnapshot.captureScreenings(screenings)
+        );
+    }
+
+    // Accessors
+
+    public List<Show> getShows() { return this.shows; }
+    public List<Theater> getTheaters() { return this.theaters; }
+    public List<Screening> getScreenings() { return this.screenings; }
+
+    /**
+     * Returns the sequence number of the last journal record whose change is included in this snapshot.
+     * Replaying the journal on top of the snapshot skips every record up to this number.
+     *
+     * @return the sequence number of the last included journal record, or 0 if none
+     */
+    public long getJournalSequence() { return this.journalSequence; }
+
+    // Other Methods
+
+    /**
+     * Writes this snapshot to the given file.
+     * The snapshot is first written and synced to a temporary file next to it, which then replaces the file,
+     * so a crash while saving leaves the previous snapshot intact.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(Path path) throws IOException {
+        CinemaSnapshot.replaceFile(path, this::writeFramed);
+    }
+
+    private static void replaceFile(Path path, ImageWriter writer) throws IOException {
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporaryPath.toFile())) {
+            BufferedOutputStream buffered = new BufferedOutputStream(file, 1 << 16);
+            writer.write(buffered);
+            buffered.flush();
+            file.getChannel().force(true);
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the body of this snapshot followed by its CRC32.
+     */
+    private void writeFramed(OutputStream stream) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(stream, new CRC32());
+        DataOutputStream out = new DataOutputStream(checked);
+        this.writeBody(out);
+        out.flush();
+
+        DataOutputStream trailer = new DataOutputStream(stream);
+        trailer.writeLong(checked.getChecksum().getValue());
+        trailer.flush();
+    }
+
+    /**
+     * Reads a snapshot from the given file through a memory-mapped buffer.
+     * The theaters are restored with the screenings they were playing.
+     *
+     * @param path the file to read
+     * @return the snapshot stored in the file
+     * @throws CorruptSnapshotException if the file is not a snapshot, has an unsupported version, or is damaged
+     * @throws IOException if the file cannot be read
+     */
+    public static CinemaSnapshot readFrom(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new CorruptSnapshotException("Snapshot is too large: " + size + " bytes.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return CinemaSnapshot.read(buffer);
+        }
+    }
+
+    /**
+     * Reads a snapshot from the given buffer, which must hold a whole snapshot from its current position to its limit.
+     *
+     * @param buffer the buffer holding the snapshot
+     * @return the snapshot stored in the buffer
+     * @throws CorruptSnapshotException if the buffer does not hold a valid snapshot
+     */
+    public static CinemaSnapshot read(ByteBuffer buffer) throws CorruptSnapshotException {
+        if (buffer.remaining() < 14) {
+            throw new CorruptSnapshotException("Snapshot is too short.");
+        }
+        int start = buffer.position();
+        int end = buffer.limit() - 8;
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(start, end - start));
+        if (checksum.getValue() != buffer.getLong(end)) {
+            throw new CorruptSnapshotException("Snapshot checksum does not match, the file is damaged.");
+        }
+
+        ByteBuffer body = buffer.slice(start, end - start);
+        try {
+            return CinemaSnapshot.readBody(body);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new CorruptSnapshotException("Snapshot is damaged: " + e.getMessage());
+        }
+    }
+
+    private void writeBody(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(this.journalSequence);
+
+        // Shows are found by ID rather than by object, so none of them is kept on the heap while the rest are written
+        Map<Long, Integer> showPositions = new HashMap<>();
+        if (this.capturedShowIDs != null) {
+            out.writeInt(this.capturedShowIDs.length);
+            for (long id : this.capturedShowIDs) {
+                showPositions.put(id, showPositions.size());
+                out.writeLong(id);
+                Show show = this.showSource.findByID(id);
+                if (show == null) {
+                    BinaryCodec.writeEmptyShow(out);
+                } else {
+                    BinaryCodec.writeShow(out, show);
+                }
+            }
+        } else {
+            out.writeInt(this.shows.size());
+            for (Show show : this.shows) {
+                showPositions.put(show.getID(), showPositions.size());
+                out.writeLong(show.getID());
+                BinaryCodec.writeShow(out, show);
+            }
+        }
+
+        List<TheaterFields> theaters = this.capturedTheaters != null ? this.capturedTheaters : CinemaSnapshot.captureTheaters(this.theaters);
+        Map<Theater, Integer> theaterPositions = new IdentityHashMap<>();
+        out.writeInt(theaters.size());
+        for (TheaterFields theater : theaters) {
+            theaterPositions.put(theater.theater, theaterPositions.size());
+            out.writeLong(theater.id);
+            BinaryCodec.writeString(out, theater.name);
+            out.writeInt(theater.nRows);
+            out.writeInt(theater.nColumns);
+            BinaryCodec.writeString(out, theater.seatAvailableIcon);
+            BinaryCodec.writeString(out, theater.seatUnavailableIcon);
+            BinaryCodec.writeString(out, theater.seatHeldIcon);
+        }
+
+        List<ScreeningFields> screenings = this.capturedScreenings != null ? this.capturedScreenings : CinemaSnapshot.captureScreenings(this.screenings);
+        Map<Screening, Integer> screeningPositions = new IdentityHashMap<>();
+        out.writeInt(screenings.size());
+        for (ScreeningFields screening : screenings) {
+            screeningPositions.put(screening.screening, screeningPositions.size());
+            out.writeLong(screening.id);
+            out.writeInt(theaterPositions.getOrDefault(screening.theater, -1));
+            out.writeInt(screening.show == null ? -1 : showPositions.getOrDefault(screening.show.getID(), -1));
+            out.writeByte(screening.experienceType.ordinal());
+            BinaryCodec.writeInstant(out, screening.startTime);
+            out.writeLong(screening.cleaningBuffer.toMillis());
+            CinemaSnapshot.writeReservedWords(out, screening.reservations);
+        }
+
+        for (TheaterFields theater : theaters) {
+            out.writeInt(screeningPositions.getOrDefault(theater.currentScreening, -1));
+        }
+    }
+
+    private static CinemaSnapshot readBody(ByteBuffer in) throws CorruptSnapshotException {
+        if (in.getInt() != MAGIC) {
+            throw new CorruptSnapshotException("File is not a cinema snapshot.");
+        }
+        short version = in.getShort();
+        if (version < 1 || version > VERSION) {
+            throw new CorruptSnapshotException("Unsupported snapshot version " + version + ", expected " + VERSION + " or lower.");
+        }
+        boolean hasIDs = version >= 2;
+        boolean hasStartTimes = version >= 3;
+        long journalSequence = hasIDs ? in.getLong() : 0;
+
+        int nShows = BinaryCodec.readCount(in);
+        List<Show> shows = new ArrayList<>(nShows);
+        for (int i = 0; i < nShows; i++) {
+            long id = hasIDs ? in.getLong() : 0;
+            Show show = BinaryCodec.readShow(in);
+            if (hasIDs) {
+                show.setID(id);
+            }
+            shows.add(show);
+        }
+
+        int nTheaters = BinaryCodec.readCount(in);
+        List<Theater> theaters = new ArrayList<>(nTheaters);
+        for (int i = 0; i < nTheaters; i++) {
+            long id = hasIDs ? in.getLong() : 0;
+            String name = BinaryCodec.readString(in);
+            int nRows = in.getInt();
+            int nColumns = in.getInt();
+            Theater theater = new Theater(name, nRows, nColumns, BinaryCodec.readString(in), BinaryCodec.readString(in));
+            theater.setSeatHeldIcon(BinaryCodec.readString(in));
+            if (hasIDs) {
+                theater.setID(id);
+            }
+            theaters.add(theater);
+        }
+
+        int nScreenings = BinaryCodec.readCount(in);
+        List<Screening> screenings = new ArrayList<>(nScreenings);
+        ExperienceType[] experienceTypes = ExperienceType.values();
+        for (int i = 0; i < nScreenings; i++) {
+            long id = hasIDs ? in.getLong() : 0;
+            Theater theater = theaters.get(in.getInt());
+            int showPosition = in.getInt();
+            Show show = showPosition < 0 ? null : shows.get(showPosition);
+            ExperienceType experienceType = experienceTypes[in.get()];
+            Instant startTime = hasStartTimes ? BinaryCodec.readInstant(in) : null;
+            Duration cleaningBuffer = hasStartTimes ? Duration.ofMillis(in.getLong()) : Duration.ZERO;
+            Screening screening = new Screening(theater, show, experienceType, startTime, cleaningBuffer);
+            if (hasIDs) {
+                screening.setID(id);
+            }
+            CinemaSnapshot.readReservedWords(in, screening.getReservationEngine());
+            screenings.add(screening);
+        }
+
+        for (Theater theater : theaters) {
+            int screeningPosition = in.getInt();
+            if (screeningPosition >= 0) {
+                theater.startScreening(screenings.get(screeningPosition));
+            }
+        }
+
+        return new CinemaSnapshot(shows, theaters, screenings, journalSequence);
+    }
+
+    /**
+     * Writes the reserved seats of an engine as the number of non-empty words followed by each word and its position.
+     * Held seats are left out. The words are copied once, so the count always matches the words written.
+     */
+    private static void writeReservedWords(DataOutputStream out, SeatReservationEngine engine) throws IOException {
+        long[] words = engine.copyReservedWords();
+        int nWords = 0;
+        for (long word : words) {
+            if (word != 0) {
+                nWords++;
+            }
+        }
+        out.writeInt(nWords);
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != 0) {
+                out.writeInt(i);
+                out.writeLong(words[i]);
+            }
+        }
+    }
+
+    private static void readReservedWords(ByteBuffer in, SeatReservationEngine engine) throws CorruptSnapshotException {
+        int nWords = BinaryCodec.readCount(in);
+        for (int i = 0; i < nWords; i++) {
+            int wordIndex = in.getInt();
+            long word = in.getLong();
+            if (wordIndex < 0 || wordIndex >= engine.getWordCount()) {
+                throw new CorruptSnapshotException("Reserved seats lie outside of the theater's seat layout.");
+            }
+            engine.tryReserveWord(wordIndex, word);
+        }
+    }
+
+    private static List<TheaterFields> captureTheaters(List<Theater> theaters) {
+        List<TheaterFields> fields = new ArrayList<>(theaters.size());
+        for (Theater theater : theaters) {
+            fields.add(new TheaterFields(theater));
+        }
+        return fields;
+    }
+
+    private static List<ScreeningFields> captureScreenings(List<Screening> screenings) {
+        List<ScreeningFields> fields = new ArrayList<>(screenings.size());
+        for (Screening screening : screenings) {
+            fields.add(new ScreeningFields(screening));
+        }
+        return fields;
+    }
+
+    /**
+     * The fields of a theater as they are written to the snapshot.
+     */
+    private static class TheaterFields {
+        private final Theater theater;
+        private final long id;
+        private final String name;
+        private final int nRows, nColumns;
+        private final String seatAvailableIcon, seatUnavailableIcon, seatHeldIcon;
+        private final Screening currentScreening;
+
+        private TheaterFields(Theater theater) {
+            this.theater = theater;
+            this.id = theater.getID();
+            this.name = theater.getName();
+            this.nRows = theater.getRowLength();
+            this.nColumns = theater.getColumnLength();
+            this.seatAvailableIcon = theater.getSeatAvailableIcon();
+            this.seatUnavailableIcon = theater.getSeatUnavailableIcon();
+            this.seatHeldIcon = theater.getSeatHeldIcon();
+            this.currentScreening = theater.getCurrentScreening();
+        }
+    }
+
+    /**
+     * The fields of a screening as they are written to the snapshot. The reservation engine matches the
+     * dimensions of the theater at capture time; if the theater is resized later, the engine still reads its seats
+     * at their old positions (see {@link SeatReservationEngine#resize}).
+     */
+    private static class ScreeningFields {
+        private final Screening screening;
+        private final long id;
+        private final Theater theater;
+        private final Show show;
+        private final ExperienceType experienceType;
+        private final Instant startTime;
+        private final Duration cleaningBuffer;
+        private final SeatReservationEngine reservations;
+
+        private ScreeningFields(Screening screening) {
+            this.screening = screening;
+            this.id = screening.getID();
+            this.theater = screening.getTheater();
+            this.show = screening.getShow();
+            this.experienceType = screening.getExperienceType();
+            this.startTime = screening.getStartTime();
+            this.cleaningBuffer = screening.getCleaningBuffer();
+            this.reservations = screening.getReservationEngine();
+        }
+    }
+
+    /**
+     * Writes an encoded snapshot to a stream.
+     */
+    @FunctionalInterface
+    private interface ImageWriter {
+        void write(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,19 @@
+package persistence;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a saved file of the cinema cannot be read because it is not in the expected format,
+ * was written by an unsupported version, or was cut short or damaged.
+ */
+public class CorruptSnapshotException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public CorruptSnapshotException() {
+        super();
+    }
+
+    public CorruptSnapshotException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,409 @@
+package persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import repository.ShowIndex;
+import repository.ShowRepository;
+import show.Show;
+
+/**
+ * Keeps shows in a file instead of on the heap, with a small cache of recently used shows in memory.
+ *
+ * The heap only holds the order of the shows, the file offset of each show's latest record and the index keys
+ * of each show, a few bytes per show plus its lowercase title.
+ * Reading a show that is not cached decodes its record from the file. The same show is always returned as the same
+ * object while anything still refers to it, such as a screening or a page, so identity comparisons keep working.
+ *
+ * Changes are written behind: adding or updating a show only queues it, and a writer thread appends its record to
+ * the end of the file. Until the record is written, the queued show is kept in memory and served from there.
+ * Records replaced by an update stay in the file as garbage; the file is a working store that is recreated on every
+ * start from the snapshot and journal, which remain the durable copy of the shows.
+ */
+public class FileShowRepository implements ShowRepository, Closeable {
+    private static final int RECORD_HEADER_SIZE = 4;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Map<Long, Show> cache;
+    private final Map<Long, ShowReference> canonical;
+    private final ReferenceQueue<Show> collected;
+    private final Map<Long, Show> pending;
+    private final Map<Long, Long> pendingVersions;
+    private final Map<Long, Long> offsets;
+    private final ShowIndex index;
+    private final Thread writer;
+
+    private long[] order;
+    private int nShows;
+    private long nextVersion;
+    private long endOfFile;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Creates an empty store in the given file, replacing the file if it exists.
+     *
+     * @param path the file to keep the shows in
+     * @param cacheSize the number of recently used shows to keep in memory
+     * @throws IOException if the file cannot be created
+     */
+    public FileShowRepository(Path path, int cacheSize) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Show> eldest) {
+                return this.size() > cacheSize;
+            }
+        };
+        this.canonical = new HashMap<>();
+        this.collected = new ReferenceQueue<>();
+        this.pending = new LinkedHashMap<>();
+        this.pendingVersions = new HashMap<>();
+        this.offsets = new HashMap<>();
+        this.index = new ShowIndex();
+        this.order = new long[16];
+        this.writer = new Thread(this::writeLoop, "show-store-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Accessors
+
+    @Override
+    public synchronized int size() { return this.nShows; }
+
+    @Override
+    public synchronized long[] getIDs() { return Arrays.copyOf(this.order, this.nShows); }
+
+    @Override
+    public Show get(int position) {
+        long id;
+        synchronized (this) {
+            if (position < 0 || position >= this.nShows) {
+                throw new IndexOutOfBoundsException("Position " + position + " out of bounds for " + this.nShows + " shows.");
+            }
+            id = this.order[position];
+        }
+        return this.findByID(id);
+    }
+
+    @Override
+    public Show findByID(long id) {
+        long offset;
+        synchronized (this) {
+            Show show = this.findInMemory(id);
+            if (show != null) {
+                return show;
+            }
+            Long storedOffset = this.offsets.get(id);
+            if (storedOffset == null) {
+                return null;
+            }
+            offset = storedOffset;
+        }
+
+        Show show;
+        try {
+            show = this.readRecord(offset);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read show " + id + " from " + this.path + ": " + e.getMessage(), e);
+        }
+        synchronized (this) {
+            // Another thread may have loaded or replaced the show while the record was read
+            Show current = this.findInMemory(id);
+            if (current != null) {
+                return current;
+            }
+            if (!this.offsets.containsKey(id)) {
+                return null;
+            }
+            this.remember(show);
+            return show;
+        }
+    }
+
+    @Override
+    public List<Show> findByShowType(String showType, int limit) {
+        List<Long> ids;
+        synchronized (this) {
+            ids = this.index.findByShowType(showType, limit);
+        }
+        return this.findAll(ids);
+    }
+
+    @Override
+    public List<Show> findByReleaseYear(int fromYear, int toYear, int limit) {
+        List<Long> ids;
+        synchronized (this) {
+            ids = this.index.findByReleaseYear(fromYear, toYear, limit);
+        }
+        return this.findAll(ids);
+    }
+
+    @Override
+    public List<Show> findByTitlePrefix(String prefix, int limit) {
+        List<Long> ids;
+        synchronized (this) {
+            ids = this.index.findByTitlePrefix(prefix, limit);
+        }
+        return this.findAll(ids);
+    }
+
+    // Mutators
+
+    @Override
+    public synchronized void add(Show show) {
+        if (this.order.length == this.nShows) {
+            this.order = Arrays.copyOf(this.order, this.nShows * 2);
+        }
+        this.order[this.nShows++] = show.getID();
+        this.offsets.put(show.getID(), -1L);
+        this.index.put(show);
+        this.remember(show);
+        this.queue(show);
+    }
+
+    @Override
+    public synchronized void update(Show show) {
+        if (this.offsets.containsKey(show.getID())) {
+            this.index.put(show);
+            this.remember(show);
+            this.queue(show);
+        }
+    }
+
+    @Override
+    public synchronized boolean remove(Show show) {
+        long id = show.getID();
+        if (this.offsets.remove(id) == null) {
+            return false;
+        }
+        for (int i = 0; i < this.nShows; i++) {
+            if (this.order[i] == id) {
+                System.arraycopy(this.order, i + 1, this.order, i, this.nShows - i - 1);
+                this.nShows--;
+                break;
+            }
+        }
+        this.index.remove(id);
+        this.cache.remove(id);
+        this.canonical.remove(id);
+        this.pending.remove(id);
+        this.pendingVersions.remove(id);
+        return true;
+    }
+
+    // Other Methods
+
+    /**
+     * Waits until every queued show is written to the file.
+     *
+     * @throws IOException if the file could not be written
+     */
+    public synchronized void flush() throws IOException {
+        while (!this.pending.isEmpty() && this.failure == null) {
+            try {
+                this.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for shows to be written.", e);
+            }
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    /**
+     * Stops the writer thread, then closes and deletes the file.
+     *
+     * @throws IOException if the file cannot be closed or deleted
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            this.closed = true;
+            this.notifyAll();
+        }
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.channel.close();
+        Files.deleteIfExists(this.path);
+    }
+
+    /**
+     * Reads the shows with the given IDs, skipping any that were removed in the meantime.
+     */
+    private List<Show> findAll(List<Long> ids) {
+        List<Show> shows = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            Show show = this.findByID(id);
+            if (show != null) {
+                shows.add(show);
+            }
+        }
+        return shows;
+    }
+
+    /**
+     * Returns the show if it is queued, cached or still referenced elsewhere. Must hold the lock.
+     */
+    private Show findInMemory(long id) {
+        Show show = this.pending.get(id);
+        if (show == null) {
+            show = this.cache.get(id);
+        }
+        if (show == null) {
+            ShowReference reference = this.canonical.get(id);
+            show = reference == null ? null : reference.get();
+            if (show != null) {
+                this.cache.put(id, show);
+            }
+        }
+        return show;
+    }
+
+    /**
+     * Caches a show and makes it the canonical object for its ID. Must hold the lock.
+     */
+    private void remember(Show show) {
+        this.cache.put(show.getID(), show);
+        this.canonical.put(show.getID(), new ShowReference(show, this.collected));
+
+        // Forget the IDs of shows that were collected since nothing referred to them anymore
+        ShowReference reference;
+        while ((reference = (ShowReference) this.collected.poll()) != null) {
+            this.canonical.remove(reference.id, reference);
+        }
+    }
+
+    /**
+     * Queues a show for the writer thread. Must hold the lock.
+     */
+    private void queue(Show show) {
+        this.pending.put(show.getID(), show);
+        this.pendingVersions.put(show.getID(), this.nextVersion++);
+        this.notifyAll();
+    }
+
+    private Show readRecord(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        FileShowRepository.readFully(this.channel, header, offset);
+        ByteBuffer record = ByteBuffer.allocate(header.flip().getInt());
+        FileShowRepository.readFully(this.channel, record, offset + RECORD_HEADER_SIZE);
+        record.flip();
+        long id = record.getLong();
+        Show show = BinaryCodec.readShow(record);
+        show.setID(id);
+        return show;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                throw new CorruptSnapshotException("Show record runs past the end of the file.");
+            }
+        }
+    }
+
+    /**
+     * Runs on the writer thread: takes every queued show, appends their records in one write,
+     * then points their IDs at the new records.
+     */
+    private void writeLoop() {
+        while (true) {
+            Map<Long, Show> batch;
+            Map<Long, Long> versions;
+            synchronized (this) {
+                while (this.pending.isEmpty() && !this.closed) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        // Keep waiting until closed
+                    }
+                }
+                if (this.pending.isEmpty() || this.failure != null) {
+                    this.notifyAll();
+                    return;
+                }
+                batch = new LinkedHashMap<>(this.pending);
+                versions = new HashMap<>(this.pendingVersions);
+            }
+
+            Map<Long, Long> written = new HashMap<>();
+            try {
+                ByteArrayOutputStream records = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(records);
+                for (Show show : batch.values()) {
+                    written.put(show.getID(), this.endOfFile + records.size());
+                    ByteArrayOutputStream record = new ByteArrayOutputStream(128);
+                    DataOutputStream recordOut = new DataOutputStream(record);
+                    recordOut.writeLong(show.getID());
+                    BinaryCodec.writeShow(recordOut, show);
+                    out.writeInt(record.size());
+                    record.writeTo(out);
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(records.toByteArray());
+                while (buffer.hasRemaining()) {
+                    this.channel.write(buffer, this.endOfFile + buffer.position());
+                }
+                this.endOfFile += buffer.capacity();
+            } catch (IOException e) {
+                synchronized (this) {
+                    this.failure = e;
+                    this.notifyAll();
+                }
+                return;
+            }
+
+            synchronized (this) {
+                for (Map.Entry<Long, Long> entry : written.entrySet()) {
+                    long id = entry.getKey();
+                    if (this.offsets.containsKey(id)) {
+                        this.offsets.put(id, entry.getValue());
+                    }
+                    // A show updated again while it was written stays queued for the next batch
+                    if (versions.get(id).equals(this.pendingVersions.get(id))) {
+                        this.pending.remove(id);
+                        this.pendingVersions.remove(id);
+                    }
+                }
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * A weak reference to a show that remembers the show's ID after the show is collected.
+     */
+    private static class ShowReference extends WeakReference<Show> {
+        private final long id;
+
+        private ShowReference(Show show, ReferenceQueue<Show> queue) {
+            super(show, queue);
+            this.id = show.getID();
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+import screening.ReservationListener;
+import screening.Screening;
+import show.Show;
+import theater.Theater;
+
+/**
+ * Append-only log of the changes made to the cinema since the last snapshot.
+ *
+ * Every change is encoded as a record on the calling thread and queued, so appending never waits for the disk.
+ * A single writer thread takes every record queued so far, writes them in one go and syncs the file once
+ * for the whole batch (group commit): a burst of bookings made while the previous batch was syncing shares one sync.
+ *
+ * Each record is framed as its length, the CRC32 of its payload, and the payload, which starts with the
+ * record's sequence number and type. Records refer to shows, theaters and screenings by their IDs.
+ * The journal also listens to reservation changes of screenings (see {@link Screening#setReservationListener}).
+ *
+ * To keep the journal from growing without bound, it can be rotated: the records written so far are moved to a
+ * second file (see {@link #getRotatedPath}) and new records start a fresh file. Once a snapshot holding every
+ * rotated record is saved, the rotated file can be deleted (see {@link JournalCompactor}).
+ */
+public class Journal implements ReservationListener, Closeable {
+    static final byte SHOW_PUT = 1;
+    static final byte SHOW_REMOVED = 2;
+    static final byte THEATER_PUT = 3;
+    static final byte THEATER_REMOVED = 4;
+    static final byte SCREENING_PUT = 5;
+    static final byte SCREENING_REMOVED = 6;
+    static final byte SCREENING_STARTED = 7;
+    static final byte SCREENING_ENDED = 8;
+    static final byte SEAT_RESERVED = 9;
+    static final byte SEAT_RELEASED = 10;
+    static final byte SEATS_CLEARED = 11;
+
+    /**
+     * The size of the length and checksum in front of every record.
+     */
+    static final int FRAME_HEADER_SIZE = 8;
+
+    private static final byte[] CLOSE_MARKER = new byte[0];
+    private static final byte[] ROTATE_MARKER = new byte[0];
+
+    private final Path path;
+    private FileChannel channel;
+    private final BlockingQueue<byte[]> pendingRecords;
+    private final Thread writer;
+    private final Object durableLock;
+    private final BlockingQueue<CompletableFuture<Void>> pendingRotations;
+
+    private long nextSequence;
+    private long appendedCount, durableCount;
+    private long appendedLength;
+    private volatile IOException failure;
+    private boolean closed;
+
+    private Journal(Path path, FileChannel channel, long length, long nextSequence) {
+        this.path = path;
+        this.channel = channel;
+        this.pendingRecords = new LinkedBlockingQueue<>();
+        this.durableLock = new Object();
+        this.pendingRotations = new LinkedBlockingQueue<>();
+        this.nextSequence = nextSequence;
+        this.appendedLength = length;
+        this.writer = new Thread(this::writeLoop, "journal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal at the given path for appending, creating it if needed.
+     * Anything after the given length, such as a record cut short by a crash, is cut off first.
+     *
+     * @param path the journal file
+     * @param validLength the length of the valid records at the start of the file (see {@link JournalReader})
+     * @param nextSequence the sequence number of the next record
+     * @return the opened journal
+     * @throws IOException if the file cannot be opened
+     */
+    public static Journal open(Path path, long validLength, long nextSequence) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > validLength) {
+            channel.truncate(validLength);
+            channel.force(true);
+        }
+        channel.position(validLength);
+        Journal journal = new Journal(path, channel, validLength, nextSequence);
+        journal.writer.start();
+        return journal;
+    }
+
+    // Accessors
+
+    /**
+     * Returns the sequence number of the last record appended to this journal.
+     *
+     * @return the sequence number of the last appended record
+     */
+    public synchronized long getLastSequence() { return this.nextSequence - 1; }
+
+    /**
+     * Returns the length the journal file will have once every appended record is written.
+     * This only counts the records appended since the last rotation.
+     *
+     * @return the length of the current journal file in bytes
+     */
+    public synchronized long getLength() { return this.appendedLength; }
+
+    /**
+     * Returns the error that stopped the writer thread. Once set, no more records are written to the file,
+     * so the changes made since then are only kept by the next snapshot.
+     *
+     * @return the write error, or null if every record so far could be written
+     */
+    public IOException getFailure() { return this.failure; }
+
+    /**
+     * Returns the path the records of the journal at the given path are moved to when it is rotated.
+     *
+     * @param path the journal file
+     * @return the path of the rotated journal file
+     */
+    public static Path getRotatedPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".rotated");
+    }
+
+    // Appending Records
+
+    public void appendShowPut(Show show) {
+        this.append(SHOW_PUT, out -> {
+            out.writeLong(show.getID());
+            BinaryCodec.writeShow(out, show);
+        });
+    }
+
+    public void appendShowRemoved(Show show) {
+        this.append(SHOW_REMOVED, out -> out.writeLong(show.getID()));
+    }
+
+    public void appendTheaterPut(Theater theater) {
+        this.append(THEATER_PUT, out -> {
+            out.writeLong(theater.getID());
+            BinaryCodec.writeString(out, theater.getName());
+            out.writeInt(theater.getRowLength());
+            out.writeInt(theater.getColumnLength());
+            BinaryCodec.writeString(out, theater.getSeatAvailableIcon());
+            BinaryCodec.writeString(out, theater.getSeatUnavailableIcon());
+            BinaryCodec.writeString(out, theater.getSeatHeldIcon());
+        });
+    }
+
+    public void appendTheaterRemoved(Theater theater) {
+        this.append(THEATER_REMOVED, out -> out.writeLong(theater.getID()));
+    }
+
+    public void appendScreeningPut(Screening screening) {
+        this.append(SCREENING_PUT, out -> {
+            out.writeLong(screening.getID());
+            out.writeLong(screening.getTheater().getID());
+            out.writeLong(screening.getShow() == null ? 0 : screening.getShow().getID());
+            out.writeByte(screening.getExperienceType().ordinal());
+            BinaryCodec.writeInstant(out, screening.getStartTime());
+            out.writeLong(screening.getCleaningBuffer().toMillis());
+        });
+    }
+
+    public void appendScreeningRemoved(Screening screening) {
+        this.append(SCREENING_REMOVED, out -> out.writeLong(screening.getID()));
+    }
+
+    public void appendScreeningStarted(Theater theater, Screening screening) {
+        this.append(SCREENING_STARTED, out -> {
+            out.writeLong(theater.getID());
+            out.writeLong(screening.getID());
+        });
+    }
+
+    public void appendScreeningEnded(Theater theater) {
+        this.append(SCREENING_ENDED, out -> out.writeLong(theater.getID()));
+    }
+
+    @Override
+    public void seatReserved(Screening screening, int seatIndex) {
+        this.append(SEAT_RESERVED, out -> {
+            out.writeLong(screening.getID());
+            out.writeInt(seatIndex);
+        });
+    }
+
+    @Override
+    public void seatReleased(Screening screening, int seatIndex) {
+        this.append(SEAT_RELEASED, out -> {
+            out.writeLong(screening.getID());
+            out.writeInt(seatIndex);
+        });
+    }
+
+    @Override
+    public void reservationsCleared(Screening screening) {
+        this.append(SEATS_CLEARED, out -> out.writeLong(screening.getID()));
+    }
+
+    // Other Methods
+
+    /**
+     * Moves every record appended so far to the rotated file and starts a fresh journal file for the records after them.
+     * The move happens on the writer thread, after the records before it are written and synced, so this returns at once.
+     * The rotated file must not exist yet: a previous rotated file has to be deleted first.
+     *
+     * @return a future that completes once the rotated file holds every record appended before this call
+     */
+    public CompletableFuture<Void> rotate() {
+        CompletableFuture<Void> rotated = new CompletableFuture<>();
+        synchronized (this) {
+            if (this.closed) {
+                rotated.completeExceptionally(new IOException("The journal is closed."));
+                return rotated;
+            }
+            this.appendedLength = 0;
+            this.pendingRotations.add(rotated);
+            this.pendingRecords.add(ROTATE_MARKER);
+        }
+        return rotated;
+    }
+
+    /**
+     * Waits until every record appended so far is written and synced to the disk.
+     *
+     * @throws IOException if the journal could not be written
+     */
+    public void flush() throws IOException {
+        long target;
+        synchronized (this) {
+            target = this.appendedCount;
+        }
+        synchronized (this.durableLock) {
+            while (this.durableCount < target && this.failure == null) {
+                try {
+                    this.durableLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the journal to be written.", e);
+                }
+            }
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    /**
+     * Writes and syncs every appended record, then stops the writer thread and closes the file.
+     * Records appended after closing are dropped.
+     *
+     * @throws IOException if the journal could not be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.pendingRecords.add(CLOSE_MARKER);
+        }
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.channel.close();
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    /**
+     * Encodes a record and queues it for the writer thread.
+     * Sequence numbers are given out in the same order records are queued, so the file is always in sequence order.
+     *
+     * @param type the type of the record
+     * @param fields writes the fields of the record after its sequence number and type
+     */
+    private void append(byte type, RecordFields fields) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(payload);
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            try {
+                out.writeLong(this.nextSequence);
+                out.writeByte(type);
+                fields.write(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.nextSequence++;
+            this.appendedCount++;
+            byte[] record = Journal.frame(payload.toByteArray());
+            this.appendedLength += record.length;
+            this.pendingRecords.add(record);
+        }
+    }
+
+    /**
+     * Prefixes a payload with its length and CRC32.
+     *
+     * @param payload the encoded record
+     * @return the framed record
+     */
+    private static byte[] frame(byte[] payload) {
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        ByteBuffer framed = ByteBuffer.allocate(FRAME_HEADER_SIZE + payload.length);
+        framed.putInt(payload.length);
+        framed.putInt((int) checksum.getValue());
+        framed.put(payload);
+        return framed.array();
+    }
+
+    /**
+     * Runs on the writer thread: waits for records, then writes and syncs everything queued as one batch.
+     * A rotation in the middle of a batch splits it, so records only end up in the file they were appended to.
+     */
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>();
+        List<ByteBuffer> buffers = new ArrayList<>();
+        boolean closing = false;
+        while (!closing) {
+            batch.clear();
+            try {
+                batch.add(this.pendingRecords.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            this.pendingRecords.drainTo(batch);
+
+            buffers.clear();
+            for (byte[] record : batch) {
+                if (record == CLOSE_MARKER) {
+                    closing = true;
+                } else if (record == ROTATE_MARKER) {
+                    this.writeRecords(buffers);
+                    buffers.clear();
+                    this.rotateFile(this.pendingRotations.remove());
+                } else {
+                    buffers.add(ByteBuffer.wrap(record));
+                }
+            }
+            this.writeRecords(buffers);
+        }
+    }
+
+    /**
+     * Writes the given records with one gathering write and syncs them with one force.
+     * After a failure nothing more is written, since a gap in the sequence numbers would break replaying.
+     *
+     * @param records the framed records to write
+     */
+    private void writeRecords(List<ByteBuffer> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            if (this.failure == null) {
+                ByteBuffer[] buffers = records.toArray(new ByteBuffer[0]);
+                long remaining = 0;
+                for (ByteBuffer buffer : buffers) {
+                    remaining += buffer.remaining();
+                }
+                while (remaining > 0) {
+                    remaining -= this.channel.write(buffers);
+                }
+                this.channel.force(false);
+            }
+        } catch (IOException e) {
+            this.failure = e;
+        }
+
+        synchronized (this.durableLock) {
+            this.durableCount += records.size();
+            this.durableLock.notifyAll();
+        }
+    }
+
+    /**
+     * Closes the journal file, moves it to the rotated path, and opens a fresh file at the journal's path.
+     *
+     * @param rotated the future to complete once the file is moved
+     */
+    private void rotateFile(CompletableFuture<Void> rotated) {
+        if (this.failure != null) {
+            rotated.completeExceptionally(this.failure);
+            return;
+        }
+        try {
+            this.channel.close();
+            Files.move(this.path, Journal.getRotatedPath(this.path), StandardCopyOption.ATOMIC_MOVE);
+            this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            rotated.complete(null);
+        } catch (IOException e) {
+            this.failure = e;
+            rotated.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Writes the fields of a record.
+     */
+    @FunctionalInterface
+    private interface RecordFields {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,155 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import repository.ShowRepository;
+import screening.Screening;
+import theater.Theater;
+
+/**
+ * Folds the journal into a fresh snapshot once it grows past a threshold, so that starting the application
+ * only replays the changes made since the last compaction instead of the whole history.
+ *
+ * A compaction has two parts. At a safe point, on the thread that makes the changes, the state is captured
+ * together with the sequence of the last journal record (see {@link CinemaSnapshot#capture}), and the journal is
+ * rotated so that new records go to a fresh file. Then, on a background thread, the snapshot is encoded, written
+ * and synced, and the rotated journal file is deleted. A crash at any point leaves either the old snapshot with both journal files, or the new
+ * snapshot whose sequence makes replaying skip the rotated records, so nothing is lost.
+ */
+public class JournalCompactor implements Closeable {
+    private final Journal journal;
+    private final Path snapshotPath;
+    private final Path rotatedPath;
+    private final long thresholdLength;
+    private final ExecutorService executor;
+
+    private Future<?> running;
+    private int compactionCount;
+    private volatile String lastFailure;
+
+    /**
+     * Creates a compactor for the given journal.
+     *
+     * @param journal the journal to compact
+     * @param journalPath the file of the journal
+     * @param snapshotPath the file to write the snapshots to
+     * @param thresholdLength the length in bytes the journal file has to reach before it is compacted
+     */
+    public JournalCompactor(Journal journal, Path journalPath, Path snapshotPath, long thresholdLength) {
+        this.journal = journal;
+        this.snapshotPath = snapshotPath;
+        this.rotatedPath = Journal.getRotatedPath(journalPath);
+        this.thresholdLength = thresholdLength;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Accessors
+
+    public synchronized int getCompactionCount() { return this.compactionCount; }
+
+    /**
+     * Returns why the last compaction failed, if it did.
+     * After a failure the rotated journal file is kept, and no compaction starts until it is gone.
+     *
+     * @return a description of the failure, or null if the last compaction succeeded
+     */
+    public String getLastFailure() { return this.lastFailure; }
+
+    /**
+     * Checks if a compaction is being written in the background.
+     *
+     * @return true if a compaction is running, false otherwise
+     */
+    public synchronized boolean isRunning() { return this.running != null && !this.running.isDone(); }
+
+    // Other Methods
+
+    /**
+     * Starts a compaction if the journal has grown past the threshold and no compaction is running.
+     * This must be called on the thread that makes the changes, between two changes, since it captures the state.
+     * Only the capture and the journal rotation are done on the calling thread; the snapshot is encoded and
+     * written in the background. A failure is reported by {@link #getLastFailure()}.
+     *
+     * @param shows the show store of the cinema
+     * @param theaters the theaters of the cinema
+     * @param screenings the screenings of the cinema
+     * @return true if a compaction was started, false otherwise
+     */
+    public synchronized boolean compactIfDue(ShowRepository shows, List<Theater> theaters, List<Screening> screenings) {
+        if (this.isRunning() || this.journal.getLength() < this.thresholdLength || Files.exists(this.rotatedPath)) {
+            return false;
+        }
+        CinemaSnapshot snapshot = CinemaSnapshot.capture(shows, theaters, screenings, this.journal.getLastSequence());
+        CompletableFuture<Void> rotated = this.journal.rotate();
+        this.running = this.executor.submit(() -> this.compact(rotated, snapshot));
+        return true;
+    }
+
+    /**
+     * Waits for the running compaction, if any, to finish.
+     */
+    public void awaitCompaction() {
+        Future<?> compaction;
+        synchronized (this) {
+            compaction = this.running;
+        }
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            this.lastFailure = String.valueOf(e.getCause());
+        }
+    }
+
+    /**
+     * Waits for the running compaction, if any, and stops the background thread.
+     * The journal itself is left open.
+     */
+    @Override
+    public void close() {
+        this.awaitCompaction();
+        this.executor.shutdown();
+    }
+
+    /**
+     * Runs on the background thread: waits for the journal to be rotated, encodes and saves the snapshot,
+     * and deletes the rotated file.
+     *
+     * @param rotated completes once the rotated file holds every record included in the snapshot
+     * @param snapshot the captured snapshot
+     */
+    private void compact(CompletableFuture<Void> rotated, CinemaSnapshot snapshot) {
+        try {
+            rotated.get();
+            snapshot.writeTo(this.snapshotPath);
+            Files.deleteIfExists(this.rotatedPath);
+            synchronized (this) {
+                this.compactionCount++;
+            }
+            this.lastFailure = null;
+        } catch (IOException | RuntimeException e) {
+            this.lastFailure = e.toString();
+        } catch (ExecutionException e) {
+            this.lastFailure = String.valueOf(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import screening.ExperienceType;
+import screening.Screening;
+import screening.SeatReservationEngine;
+import show.AnimatedMovie;
+import show.ConcertFilm;
+import show.Movie;
+import show.Show;
+import theater.Theater;
+
+/**
+ * Replays the records of a journal on top of a snapshot.
+ *
+ * Records up to the snapshot's journal sequence are skipped, since their changes are already in the snapshot.
+ * Reading stops at the first record that is cut short or fails its checksum, which is what a crash in the
+ * middle of an append leaves behind; everything before it is applied.
+ */
+public class JournalReader {
+
+    /**
+     * Applies every valid record of the journal at the given path to the lists of the snapshot.
+     *
+     * @param path the journal file, which may not exist
+     * @param state the snapshot to apply the records to, its lists are changed in place
+     * @return the outcome of the replay, including the length of the valid records
+     * @throws IOException if the file cannot be read
+     */
+    public static JournalReplayResult replay(Path path, CinemaSnapshot state) throws IOException {
+        if (!Files.exists(path)) {
+            return new JournalReplayResult(state.getJournalSequence(), 0, 0, 0, false);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new CorruptSnapshotException("Journal is too large: " + size + " bytes.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new JournalReader(state).replay(buffer);
+        }
+    }
+
+    private final CinemaSnapshot state;
+    private final Map<Long, Show> shows;
+    private final Map<Long, Theater> theaters;
+    private final Map<Long, Screening> screenings;
+
+    private JournalReader(CinemaSnapshot state) {
+        this.state = state;
+        this.shows = new HashMap<>();
+        this.theaters = new HashMap<>();
+        this.screenings = new HashMap<>();
+        for (Show show : state.getShows()) {
+            this.shows.put(show.getID(), show);
+        }
+        for (Theater theater : state.getTheaters()) {
+            this.theaters.put(theater.getID(), theater);
+        }
+        for (Screening screening : state.getScreenings()) {
+            this.screenings.put(screening.getID(), screening);
+        }
+    }
+
+    private JournalReplayResult replay(ByteBuffer buffer) {
+        long lastSequence = this.state.getJournalSequence();
+        int nApplied = 0, nSkipped = 0;
+        boolean tornTail = false;
+        CRC32 checksum = new CRC32();
+
+        while (buffer.hasRemaining()) {
+            int recordStart = buffer.position();
+            if (buffer.remaining() < Journal.FRAME_HEADER_SIZE) {
+                tornTail = true;
+                break;
+            }
+            int length = buffer.getInt();
+            int expectedChecksum = buffer.getInt();
+            if (length < 9 || length > buffer.remaining()) {
+                buffer.position(recordStart);
+                tornTail = true;
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            checksum.reset();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != expectedChecksum) {
+                buffer.position(recordStart);
+                tornTail = true;
+                break;
+            }
+            buffer.position(buffer.position() + length);
+
+            long sequence = payload.getLong();
+            if (sequence <= lastSequence) {
+                nSkipped++;
+                continue;
+            }
+            lastSequence = sequence;
+            try {
+                if (this.apply(payload.get(), payload)) {
+                    nApplied++;
+                } else {
+                    nSkipped++;
+                }
+            } catch (CorruptSnapshotException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                // The record passed its checksum, so it was written like this: skip it and keep going
+                nSkipped++;
+            }
+        }
+
+        return new JournalReplayResult(lastSequence, buffer.position(), nApplied, nSkipped, tornTail);
+    }
+
+    /**
+     * Applies one record to the state.
+     *
+     * @param type the type of the record
+     * @param in the fields of the record
+     * @return true if the record was applied, false if it refers to something that no longer exists
+     */
+    private boolean apply(byte type, ByteBuffer in) throws CorruptSnapshotException {
+        switch (type) {
+            case Journal.SHOW_PUT: {
+                long id = in.getLong();
+                Show show = BinaryCodec.readShow(in);
+                show.setID(id);
+                this.putShow(show);
+                return true;
+            }
+            case Journal.SHOW_REMOVED: {
+                Show show = this.shows.remove(in.getLong());
+                return show != null && this.state.getShows().remove(show);
+            }
+            case Journal.THEATER_PUT: {
+                long id = in.getLong();
+                String name = BinaryCodec.readString(in);
+                int nRows = in.getInt();
+                int nColumns = in.getInt();
+                String seatAvailableIcon = BinaryCodec.readString(in);
+                String seatUnavailableIcon = BinaryCodec.readString(in);
+                String seatHeldIcon = BinaryCodec.readString(in);
+                Theater theater = this.theaters.get(id);
+                if (theater == null) {
+                    theater = new Theater(name, nRows, nColumns, seatAvailableIcon, seatUnavailableIcon);
+                    theater.setID(id);
+                    this.theaters.put(id, theater);
+                    this.state.getTheaters().add(theater);
+                } else {
+                    theater.setName(name);
+                    theater.setSeatAvailabilityIcons(seatAvailableIcon, seatUnavailableIcon);
+                    if (theater.getRowLength() != nRows || theater.getColumnLength() != nColumns) {
+                        theater.setSeatLayoutDimensions(nRows, nColumns);
+                        for (Screening screening : this.state.getScreenings()) {
+                            if (screening.getTheater() == theater) {
+                                screening.remapSeatLayout();
+                            }
+                        }
+                    }
+                }
+                theater.setSeatHeldIcon(seatHeldIcon);
+                return true;
+            }
+            case Journal.THEATER_REMOVED: {
+                Theater theater = this.theaters.remove(in.getLong());
+                return theater != null && this.state.getTheaters().remove(theater);
+            }
+            case Journal.SCREENING_PUT: {
+                long id = in.getLong();
+                Theater theater = this.theaters.get(in.getLong());
+                Show show = this.shows.get(in.getLong());
+                ExperienceType experienceType = ExperienceType.values()[in.get()];
+                // Records written before screenings had start times end here
+                Instant startTime = in.hasRemaining() ? BinaryCodec.readInstant(in) : null;
+                Duration cleaningBuffer = in.hasRemaining() ? Duration.ofMillis(in.getLong()) : Duration.ZERO;
+                if (theater == null) {
+                    return false;
+                }
+                Screening screening = this.screenings.get(id);
+                if (screening == null) {
+                    screening = new Screening(theater, show, experienceType, startTime, cleaningBuffer);
+                    screening.setID(id);
+                    this.screenings.put(id, screening);
+                    this.state.getScreenings().add(screening);
+                } else {
+                    if (screening.getTheater() != theater) {
+                        screening.setTheater(theater);
+                        screening.remapSeatLayout();
+                    }
+                    screening.setShow(show);
+                    screening.setExperienceType(experienceType);
+                    screening.setStartTime(startTime);
+                    screening.setCleaningBuffer(cleaningBuffer);
+                }
+                return true;
+            }
+            case Journal.SCREENING_REMOVED: {
+                Screening screening = this.screenings.remove(in.getLong());
+                return screening != null && this.state.getScreenings().remove(screening);
+            }
+            case Journal.SCREENING_STARTED: {
+                Theater theater = this.theaters.get(in.getLong());
+                Screening screening = this.screenings.get(in.getLong());
+                if (theater == null || screening == null) {
+                    return false;
+                }
+                theater.startScreening(screening);
+                return true;
+            }
+            case Journal.SCREENING_ENDED: {
+                Theater theater = this.theaters.get(in.getLong());
+                if (theater == null || theater.getCurrentScreening() == null) {
+                    return false;
+                }
+                theater.endScreening();
+                return true;
+            }
+            case Journal.SEAT_RESERVED:
+            case Journal.SEAT_RELEASED: {
+                Screening screening = this.screenings.get(in.getLong());
+                int seatIndex = in.getInt();
+                if (screening == null) {
+                    return false;
+                }
+                SeatReservationEngine engine = screening.getReservationEngine();
+                if (!engine.contains(seatIndex)) {
+                    return false;
+                }
+                return type == Journal.SEAT_RESERVED ? engine.tryReserve(seatIndex) : engine.tryRelease(seatIndex);
+            }
+            case Journal.SEATS_CLEARED: {
+                Screening screening = this.screenings.get(in.getLong());
+                if (screening == null) {
+                    return false;
+                }
+                screening.clearSeatReservations();
+                return true;
+            }
+            default:
+                throw new CorruptSnapshotException("Unknown journal record type " + type + ".");
+        }
+    }
+
+    /**
+     * Adds a show, or copies its fields onto the show with the same ID.
+     *
+     * @param show the show read from the journal
+     */
+    private void putShow(Show show) {
+        Show existing = this.shows.get(show.getID());
+        if (existing == null || existing.getClass() != show.getClass()) {
+            this.shows.put(show.getID(), show);
+            List<Show> list = this.state.getShows();
+            int position = existing == null ? -1 : list.indexOf(existing);
+            if (position < 0) {
+                list.add(show);
+            } else {
+                list.set(position, show);
+                for (Screening screening : this.state.getScreenings()) {
+                    if (screening.getShow() == existing) {
+                        screening.setShow(show);
+                    }
+                }
+            }
+            return;
+        }
+
+        existing.setTitle(show.getTitle());
+        existing.setDescription(show.getDescription());
+        existing.setReleaseYear(show.getReleaseYear());
+        existing.setDuration(show.getDuration());
+        if (existing instanceof Movie) {
+            ((Movie) existing).setLeadActor(((Movie) show).getLeadActor());
+        } else if (existing instanceof AnimatedMovie) {
+            ((AnimatedMovie) existing).setStudio(((AnimatedMovie) show).getStudio());
+        } else if (existing instanceof ConcertFilm) {
+            ((ConcertFilm) existing).setArtist(((ConcertFilm) show).getArtist());
+        }
+    }
+}
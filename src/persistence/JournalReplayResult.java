@@ -0,0 +1,47 @@
+package persistence;
+
+/**
+ * The outcome of replaying a journal on top of a snapshot.
+ */
+public class JournalReplayResult {
+    private final long lastSequence;
+    private final long validLength;
+    private final int appliedCount;
+    private final int skippedCount;
+    private final boolean tornTail;
+
+    JournalReplayResult(long lastSequence, long validLength, int appliedCount, int skippedCount, boolean tornTail) {
+        this.lastSequence = lastSequence;
+        this.validLength = validLength;
+        this.appliedCount = appliedCount;
+        this.skippedCount = skippedCount;
+        this.tornTail = tornTail;
+    }
+
+    // Accessors
+
+    /**
+     * Returns the sequence number of the last record that was read, or the snapshot's journal sequence if none was newer.
+     *
+     * @return the sequence number of the last record
+     */
+    public long getLastSequence() { return this.lastSequence; }
+
+    /**
+     * Returns the length of the records at the start of the journal that are whole and pass their checksum.
+     * New records should be appended from here.
+     *
+     * @return the length of the valid part of the journal in bytes
+     */
+    public long getValidLength() { return this.validLength; }
+
+    public int getAppliedCount() { return this.appliedCount; }
+    public int getSkippedCount() { return this.skippedCount; }
+
+    /**
+     * Checks if the journal ended with a record that was cut short or damaged, e.g. by a crash while appending.
+     *
+     * @return true if a damaged record was found at the end of the journal, false otherwise
+     */
+    public boolean hasTornTail() { return this.tornTail; }
+}
@@ -0,0 +1,106 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps every item in memory, in a list for positions and a map for IDs.
+ *
+ * @param <T> the type of the stored items
+ */
+public class InMemoryRepository<T> implements Repository<T> {
+    private final List<T> items;
+    private final Map<Long, T> itemsByID;
+    private final ToLongFunction<T> idOf;
+
+    /**
+     * Creates an empty repository.
+     *
+     * @param idOf returns the ID of an item
+     */
+    protected InMemoryRepository(ToLongFunction<T> idOf) {
+        this.items = new ArrayList<>();
+        this.itemsByID = new HashMap<>();
+        this.idOf = idOf;
+    }
+
+    // Accessors
+
+    @Override
+    public int size() { return this.items.size(); }
+
+    @Override
+    public T get(int position) { return this.items.get(position); }
+
+    @Override
+    public T findByID(long id) { return this.itemsByID.get(id); }
+
+    // Mutators
+
+    @Override
+    public void add(T item) {
+        this.items.add(item);
+        this.itemsByID.put(this.idOf.applyAsLong(item), item);
+    }
+
+    @Override
+    public void addAll(List<T> items) {
+        this.items.addAll(items);
+        for (T item : items) {
+            this.itemsByID.put(this.idOf.applyAsLong(item), item);
+        }
+    }
+
+    /**
+     * Does nothing, since the stored item is the edited object itself.
+     *
+     * @param item the edited item
+     */
+    @Override
+    public void update(T item) {
+    }
+
+    @Override
+    public boolean remove(T item) {
+        if (!this.items.remove(item)) {
+            return false;
+        }
+        this.itemsByID.remove(this.idOf.applyAsLong(item));
+        return true;
+    }
+
+    /**
+     * Removes the items in one pass over the backing list.
+     *
+     * @param items the items to remove
+     * @return the number of items that were stored and are now removed
+     */
+    @Override
+    public int removeAll(Collection<T> items) {
+        Set<T> toRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+        toRemove.addAll(items);
+        int sizeBefore = this.items.size();
+        this.items.removeIf(toRemove::contains);
+        for (T item : toRemove) {
+            this.itemsByID.remove(this.idOf.applyAsLong(item), item);
+        }
+        return sizeBefore - this.items.size();
+    }
+
+    /**
+     * Returns a read-only view of the backing list.
+     *
+     * @return a read-only view of the items
+     */
+    @Override
+    public List<T> asList() {
+        return Collections.unmodifiableList(this.items);
+    }
+}
@@ -0,0 +1,138 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import screening.Screening;
+import show.Show;
+import theater.Theater;
+
+/**
+ * Keeps every screening in memory, with reverse indexes from theater and show IDs to their screenings.
+ *
+ * The theater and show a screening was indexed under are remembered, so after either is changed
+ * the screening can be moved to its new keys by {@link #update(Screening)}.
+ */
+public class InMemoryScreeningRepository extends InMemoryRepository<Screening> implements ScreeningRepository {
+    private final Map<Long, Set<Screening>> screeningsByTheater;
+    private final Map<Long, Set<Screening>> screeningsByShow;
+    private final Map<Screening, IndexedFields> fieldsByScreening;
+
+    public InMemoryScreeningRepository() {
+        super(Screening::getID);
+        this.screeningsByTheater = new HashMap<>();
+        this.screeningsByShow = new HashMap<>();
+        this.fieldsByScreening = new HashMap<>();
+    }
+
+    // Accessors
+
+    @Override
+    public List<Screening> findByTheater(Theater theater) {
+        return InMemoryScreeningRepository.copy(theater == null ? null : this.screeningsByTheater.get(theater.getID()));
+    }
+
+    @Override
+    public List<Screening> findByShow(Show show) {
+        return InMemoryScreeningRepository.copy(show == null ? null : this.screeningsByShow.get(show.getID()));
+    }
+
+    // Mutators
+
+    @Override
+    public void add(Screening screening) {
+        super.add(screening);
+        this.index(screening);
+    }
+
+    @Override
+    public void addAll(List<Screening> screenings) {
+        super.addAll(screenings);
+        for (Screening screening : screenings) {
+            this.index(screening);
+        }
+    }
+
+    /**
+     * Moves an edited screening to the index keys of its current theater and show.
+     *
+     * @param screening the edited screening
+     */
+    @Override
+    public void update(Screening screening) {
+        if (this.fieldsByScreening.containsKey(screening)) {
+            this.unindex(screening);
+            this.index(screening);
+        }
+    }
+
+    @Override
+    public boolean remove(Screening screening) {
+        if (!super.remove(screening)) {
+            return false;
+        }
+        this.unindex(screening);
+        return true;
+    }
+
+    @Override
+    public int removeAll(Collection<Screening> screenings) {
+        int nRemoved = super.removeAll(screenings);
+        for (Screening screening : screenings) {
+            this.unindex(screening);
+        }
+        return nRemoved;
+    }
+
+    private void index(Screening screening) {
+        IndexedFields fields = new IndexedFields(screening);
+        this.fieldsByScreening.put(screening, fields);
+        if (fields.theaterID != null) {
+            this.screeningsByTheater.computeIfAbsent(fields.theaterID, id -> new LinkedHashSet<>()).add(screening);
+        }
+        if (fields.showID != null) {
+            this.screeningsByShow.computeIfAbsent(fields.showID, id -> new LinkedHashSet<>()).add(screening);
+        }
+    }
+
+    private void unindex(Screening screening) {
+        IndexedFields fields = this.fieldsByScreening.remove(screening);
+        if (fields == null) {
+            return;
+        }
+        InMemoryScreeningRepository.removeFrom(this.screeningsByTheater, fields.theaterID, screening);
+        InMemoryScreeningRepository.removeFrom(this.screeningsByShow, fields.showID, screening);
+    }
+
+    private static void removeFrom(Map<Long, Set<Screening>> index, Long key, Screening screening) {
+        if (key == null) {
+            return;
+        }
+        Set<Screening> screenings = index.get(key);
+        if (screenings != null && screenings.remove(screening) && screenings.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static List<Screening> copy(Set<Screening> screenings) {
+        return screenings == null ? new ArrayList<>() : new ArrayList<>(screenings);
+    }
+
+    /**
+     * The IDs of the theater and show a screening was indexed under.
+     */
+    private static class IndexedFields {
+        private final Long theaterID;
+        private final Long showID;
+
+        private IndexedFields(Screening screening) {
+            this.theaterID = screening.getTheater() == null ? null : screening.getTheater().getID();
+            this.showID = screening.getShow() == null ? null : screening.getShow().getID();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import show.Show;
+
+/**
+ * Keeps every show in memory.
+ */
+public class InMemoryShowRepository extends InMemoryRepository<Show> implements ShowRepository {
+    private final ShowIndex index;
+
+    public InMemoryShowRepository() {
+        super(Show::getID);
+        this.index = new ShowIndex();
+    }
+
+    // Accessors
+
+    @Override
+    public long[] getIDs() {
+        long[] ids = new long[this.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = this.get(i).getID();
+        }
+        return ids;
+    }
+
+    @Override
+    public List<Show> findByShowType(String showType, int limit) { return this.findAll(this.index.findByShowType(showType, limit)); }
+
+    @Override
+    public List<Show> findByReleaseYear(int fromYear, int toYear, int limit) { return this.findAll(this.index.findByReleaseYear(fromYear, toYear, limit)); }
+
+    @Override
+    public List<Show> findByTitlePrefix(String prefix, int limit) { return this.findAll(this.index.findByTitlePrefix(prefix, limit)); }
+
+    // Mutators
+
+    @Override
+    public void add(Show show) {
+        super.add(show);
+        this.index.put(show);
+    }
+
+    @Override
+    public void addAll(List<Show> shows) {
+        super.addAll(shows);
+        for (Show show : shows) {
+            this.index.put(show);
+        }
+    }
+
+    /**
+     * Moves an edited show to the index keys of its new title, type and release year.
+     *
+     * @param show the edited show
+     */
+    @Override
+    public void update(Show show) {
+        if (this.findByID(show.getID()) == show) {
+            this.index.put(show);
+        }
+    }
+
+    @Override
+    public boolean remove(Show show) {
+        if (!super.remove(show)) {
+            return false;
+        }
+        this.index.remove(show.getID());
+        return true;
+    }
+
+    private List<Show> findAll(List<Long> ids) {
+        List<Show> shows = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            shows.add(this.findByID(id));
+        }
+        return shows;
+    }
+}
@@ -0,0 +1,13 @@
+package repository;
+
+import theater.Theater;
+
+/**
+ * Keeps every theater in memory.
+ */
+public class InMemoryTheaterRepository extends InMemoryRepository<Theater> implements TheaterRepository {
+
+    public InMemoryTheaterRepository() {
+        super(Theater::getID);
+    }
+}
@@ -0,0 +1,110 @@
+package repository;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An ordered store of items with stable IDs, such as shows, theaters or screenings.
+ *
+ * Items keep the order they were added in, and pages refer to them by their position in that order.
+ * Implementations decide where the items live; callers must not assume that every item is kept in memory.
+ *
+ * @param <T> the type of the stored items
+ */
+public interface Repository<T> extends Iterable<T> {
+
+    /**
+     * Returns the number of stored items.
+     *
+     * @return the number of items
+     */
+    int size();
+
+    /**
+     * Returns the item at the given position.
+     *
+     * @param position the position of the item (0-indexed)
+     * @return the item at the position
+     * @throws IndexOutOfBoundsException if the position is not between 0 and size() - 1
+     */
+    T get(int position);
+
+    /**
+     * Returns the item with the given ID.
+     *
+     * @param id the ID of the item
+     * @return the item, or null if no item has the ID
+     */
+    T findByID(long id);
+
+    /**
+     * Adds an item after all other items.
+     *
+     * @param item the item to add
+     */
+    void add(T item);
+
+    /**
+     * Stores the current fields of an item after it was edited.
+     *
+     * @param item the edited item
+     */
+    void update(T item);
+
+    /**
+     * Removes an item.
+     *
+     * @param item the item to remove
+     * @return true if the item was stored, false otherwise
+     */
+    boolean remove(T item);
+
+    default boolean isEmpty() { return this.size() == 0; }
+
+    /**
+     * Removes several items at once.
+     * Implementations that keep items in a list should do this in one pass instead of one removal per item.
+     *
+     * @param items the items to remove
+     * @return the number of items that were stored and are now removed
+     */
+    default int removeAll(Collection<T> items) {
+        int nRemoved = 0;
+        for (T item : items) {
+            if (this.remove(item)) {
+                nRemoved++;
+            }
+        }
+        return nRemoved;
+    }
+
+    default void addAll(List<T> items) {
+        for (T item : items) {
+            this.add(item);
+        }
+    }
+
+    /**
+     * Returns a read-only list view of the items, for code that works on lists such as snapshots and exports.
+     * The view reads through to the repository, so it reflects later changes.
+     *
+     * @return a read-only view of the items
+     */
+    default List<T> asList() {
+        Repository<T> repository = this;
+        return new AbstractList<T>() {
+            @Override
+            public T get(int index) { return repository.get(index); }
+
+            @Override
+            public int size() { return repository.size(); }
+        };
+    }
+
+    @Override
+    default Iterator<T> iterator() {
+        return this.asList().iterator();
+    }
+}
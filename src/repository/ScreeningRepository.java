@@ -0,0 +1,29 @@
+package repository;
+
+import java.util.List;
+
+import screening.Screening;
+import show.Show;
+import theater.Theater;
+
+/**
+ * Stores the screenings of the cinema, indexed by theater and by show.
+ */
+public interface ScreeningRepository extends Repository<Screening> {
+
+    /**
+     * Returns the screenings that play in the given theater.
+     *
+     * @param theater the theater
+     * @return a new list of the matching screenings, in the order they were added
+     */
+    List<Screening> findByTheater(Theater theater);
+
+    /**
+     * Returns the screenings of the given show.
+     *
+     * @param show the show
+     * @return a new list of the matching screenings, in the order they were added
+     */
+    List<Screening> findByShow(Show show);
+}
@@ -0,0 +1,157 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import show.Show;
+
+/**
+ * Secondary indexes over the IDs of shows: by show type, by release year and by lowercase title.
+ *
+ * Each index is a sorted map from a key to the IDs of the shows with that key, so a lookup costs
+ * O(log n) plus the number of IDs returned: ranges (years, title prefixes) are walked in key order
+ * and the walk stops as soon as the limit is reached.
+ * Only IDs are kept, so the index stays small even when the shows themselves are not kept in memory.
+ * The indexed fields of every show are remembered, so a show can be moved to its new keys after it was edited.
+ */
+public class ShowIndex {
+    private final Map<Long, IndexedFields> fieldsByID;
+    private final NavigableMap<String, NavigableSet<Long>> idsByType;
+    private final NavigableMap<Integer, NavigableSet<Long>> idsByYear;
+    private final NavigableMap<String, NavigableSet<Long>> idsByTitle;
+
+    public ShowIndex() {
+        this.fieldsByID = new HashMap<>();
+        this.idsByType = new TreeMap<>();
+        this.idsByYear = new TreeMap<>();
+        this.idsByTitle = new TreeMap<>();
+    }
+
+    // Accessors
+
+    /**
+     * Returns the IDs of the shows of the given type.
+     *
+     * @param showType the type as returned by {@link Show#getShowTypeAsString()}, in any case
+     * @param limit the largest number of IDs to return
+     * @return the IDs of the first matching shows, in ascending order
+     */
+    public List<Long> findByShowType(String showType, int limit) {
+        return ShowIndex.collect(this.idsByType.get(showType.toLowerCase(Locale.ROOT)), new ArrayList<>(), limit);
+    }
+
+    /**
+     * Returns the IDs of the shows released within the given years.
+     *
+     * @param fromYear the first release year to include
+     * @param toYear the last release year to include
+     * @param limit the largest number of IDs to return
+     * @return the IDs of the first matching shows, ordered by release year
+     */
+    public List<Long> findByReleaseYear(int fromYear, int toYear, int limit) {
+        List<Long> ids = new ArrayList<>();
+        if (fromYear > toYear) {
+            return ids;
+        }
+        for (NavigableSet<Long> yearIDs : this.idsByYear.subMap(fromYear, true, toYear, true).values()) {
+            if (ShowIndex.collect(yearIDs, ids, limit).size() >= limit) {
+                break;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the IDs of the shows whose title starts with the given prefix, ignoring case.
+     *
+     * @param prefix the start of the title
+     * @param limit the largest number of IDs to return
+     * @return the IDs of the first matching shows, ordered by title
+     */
+    public List<Long> findByTitlePrefix(String prefix, int limit) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        List<Long> ids = new ArrayList<>();
+        for (NavigableSet<Long> titleIDs : this.idsByTitle.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            if (ShowIndex.collect(titleIDs, ids, limit).size() >= limit) {
+                break;
+            }
+        }
+        return ids;
+    }
+
+    // Mutators
+
+    /**
+     * Indexes a show under its current fields, removing it from the keys of its previous fields first.
+     *
+     * @param show the added or edited show
+     */
+    public void put(Show show) {
+        this.remove(show.getID());
+        IndexedFields fields = new IndexedFields(show);
+        this.fieldsByID.put(show.getID(), fields);
+        this.idsByType.computeIfAbsent(fields.showType, key -> new TreeSet<>()).add(show.getID());
+        this.idsByYear.computeIfAbsent(fields.releaseYear, key -> new TreeSet<>()).add(show.getID());
+        this.idsByTitle.computeIfAbsent(fields.title, key -> new TreeSet<>()).add(show.getID());
+    }
+
+    /**
+     * Removes a show from every index.
+     *
+     * @param id the ID of the show
+     */
+    public void remove(long id) {
+        IndexedFields fields = this.fieldsByID.remove(id);
+        if (fields == null) {
+            return;
+        }
+        ShowIndex.removeID(this.idsByType, fields.showType, id);
+        ShowIndex.removeID(this.idsByYear, fields.releaseYear, id);
+        ShowIndex.removeID(this.idsByTitle, fields.title, id);
+    }
+
+    private static <K> void removeID(NavigableMap<K, NavigableSet<Long>> index, K key, long id) {
+        NavigableSet<Long> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Adds IDs from the source until the list holds the given number of IDs, without copying the rest of the source.
+     */
+    private static List<Long> collect(Collection<Long> source, List<Long> ids, int limit) {
+        if (source == null) {
+            return ids;
+        }
+        Iterator<Long> iterator = source.iterator();
+        while (ids.size() < limit && iterator.hasNext()) {
+            ids.add(iterator.next());
+        }
+        return ids;
+    }
+
+    /**
+     * The keys a show was indexed under.
+     */
+    private static class IndexedFields {
+        private final String showType;
+        private final int releaseYear;
+        private final String title;
+
+        private IndexedFields(Show show) {
+            this.showType = show.getShowTypeAsString().toLowerCase(Locale.ROOT);
+            this.releaseYear = show.getReleaseYear();
+            this.title = show.getTitle().toLowerCase(Locale.ROOT);
+        }
+    }
+}
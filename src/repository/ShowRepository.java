@@ -0,0 +1,48 @@
+package repository;
+
+import java.util.List;
+
+import show.Show;
+
+/**
+ * Stores the shows of the cinema, indexed by show type, release year and title for the show pickers.
+ */
+public interface ShowRepository extends Repository<Show> {
+
+    /**
+     * Returns the IDs of the shows in their order, without reading the shows themselves.
+     *
+     * @return the IDs of every show, in the same order as {@link #get(int)}
+     */
+    long[] getIDs();
+
+    /**
+     * Returns the shows of the given type.
+     *
+     * Only the returned shows are looked up, so a common type costs no more than a rare one.
+     *
+     * @param showType the type as returned by {@link Show#getShowTypeAsString()}, in any case
+     * @param limit the largest number of shows to return
+     * @return the first matching shows
+     */
+    List<Show> findByShowType(String showType, int limit);
+
+    /**
+     * Returns the shows released within the given years.
+     *
+     * @param fromYear the first release year to include
+     * @param toYear the last release year to include
+     * @param limit the largest number of shows to return
+     * @return the first matching shows, ordered by release year
+     */
+    List<Show> findByReleaseYear(int fromYear, int toYear, int limit);
+
+    /**
+     * Returns the shows whose title starts with the given prefix, ignoring case.
+     *
+     * @param prefix the start of the title
+     * @param limit the largest number of shows to return
+     * @return the first matching shows, ordered by title
+     */
+    List<Show> findByTitlePrefix(String prefix, int limit);
+}
@@ -0,0 +1,9 @@
+package repository;
+
+import theater.Theater;
+
+/**
+ * Stores the theaters of the cinema.
+ */
+public interface TheaterRepository extends Repository<Theater> {
+}
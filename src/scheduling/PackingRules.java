@@ -0,0 +1,85 @@
+package scheduling;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+import screening.ExperienceType;
+import theater.Theater;
+
+/**
+ * The constraints the schedule packer plans screenings under.
+ *
+ * Every theater is open every day from the opening time to the closing time, which may fall after midnight.
+ * Screenings start on multiples of the start time step after the opening time, or after the end of an existing
+ * screening, and the theater is cleaned for the turnover time after each of them. The cleaning after the last
+ * screening of the day may run past the closing time. A show plays at most a given number of times per day in
+ * each theater, so a day is not filled with the one show that fits best. Theaters play every screening in their
+ * own experience type, e.g. IMAX rooms only play IMAX screenings.
+ */
+public class PackingRules {
+    private final LocalTime openingTime;
+    private final LocalTime closingTime;
+    private final Duration turnover;
+    private final ZoneId zone;
+    private Duration startTimeStep;
+    private int maxScreeningsPerShow;
+    private final Map<Long, ExperienceType> experienceTypesByTheater;
+
+    public PackingRules(LocalTime openingTime, LocalTime closingTime, Duration turnover, ZoneId zone) {
+        this.openingTime = openingTime;
+        this.closingTime = closingTime;
+        this.turnover = turnover;
+        this.zone = zone;
+        this.startTimeStep = Duration.ofMinutes(5);
+        this.maxScreeningsPerShow = 2;
+        this.experienceTypesByTheater = new HashMap<>();
+    }
+
+    // Accessors
+
+    public LocalTime getOpeningTime() { return this.openingTime; }
+    public LocalTime getClosingTime() { return this.closingTime; }
+    public Duration getTurnover() { return this.turnover; }
+    public ZoneId getZone() { return this.zone; }
+    public Duration getStartTimeStep() { return this.startTimeStep; }
+    public int getMaxScreeningsPerShow() { return this.maxScreeningsPerShow; }
+
+    /**
+     * Returns the experience type every screening of the theater is planned in.
+     *
+     * @param theater the theater
+     * @return the experience type of the theater, Standard 2D unless set otherwise
+     */
+    public ExperienceType getExperienceType(Theater theater) {
+        return this.experienceTypesByTheater.getOrDefault(theater.getID(), ExperienceType.STANDARD_2D);
+    }
+
+    // Mutators
+
+    /**
+     * Sets the interval start times are rounded up to, e.g. 5 minutes for start times such as 19:05.
+     *
+     * @param startTimeStep the interval between possible start times, at least a minute
+     */
+    public void setStartTimeStep(Duration startTimeStep) { this.startTimeStep = startTimeStep; }
+
+    /**
+     * Sets how many times a show can play in the same theater on the same day.
+     *
+     * @param maxScreeningsPerShow the largest number of screenings of a show per theater and day
+     */
+    public void setMaxScreeningsPerShow(int maxScreeningsPerShow) { this.maxScreeningsPerShow = maxScreeningsPerShow; }
+
+    /**
+     * Restricts a theater to one experience type, e.g. IMAX for an IMAX room.
+     *
+     * @param theater the theater
+     * @param experienceType the experience type of every screening planned in the theater
+     */
+    public void setExperienceType(Theater theater, ExperienceType experienceType) {
+        this.experienceTypesByTheater.put(theater.getID(), experienceType);
+    }
+}
@@ -0,0 +1,238 @@
+package scheduling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import screening.ExperienceType;
+import screening.Screening;
+import screening.ScreeningSchedule;
+import show.Show;
+import theater.Theater;
+
+/**
+ * Plans screenings that fill the free time of theaters as fully as possible.
+ *
+ * The opening hours of every theater and day are cut into gaps around the screenings already scheduled there.
+ * Time is counted in start time steps (see {@link PackingRules#getStartTimeStep()}), and every show takes the
+ * steps of its duration plus the turnover. Filling a gap is then a bounded knapsack: the shows are grouped by the
+ * number of steps they take, each group can be used as often as its shows may still play that day, and dynamic
+ * programming over the length of the gap picks the groups that leave the least time without a show.
+ * A gap of W steps costs O(W * groups * log(repeats)), independent of the number of shows in the catalog.
+ *
+ * Shows are then taken from the picked groups in the order they were given, so the best-ranked shows play first,
+ * and larger theaters get the first pick. Theaters do not depend on each other, so each is planned as its own task
+ * in parallel, reading the existing schedule only. The schedule must not change until the plan is finished.
+ */
+public class SchedulePacker {
+    private final ScreeningSchedule schedule;
+    private final PackingRules rules;
+
+    public SchedulePacker(ScreeningSchedule schedule, PackingRules rules) {
+        this.schedule = schedule;
+        this.rules = rules;
+    }
+
+    // Other Methods
+
+    /**
+     * Plans the screenings of the given theaters over the given days.
+     *
+     * @param shows the shows to choose from, best first (e.g. by past sales)
+     * @param theaters the theaters to plan
+     * @param firstDay the first day to plan
+     * @param nDays the number of days to plan
+     * @return the planned screenings, which are not added to the cinema
+     */
+    public SchedulePlan pack(List<Show> shows, List<Theater> theaters, LocalDate firstDay, int nDays) {
+        ShowGroups groups = new ShowGroups(shows, this.rules);
+
+        // Larger theaters start their pick at the best show of each group, smaller ones further down
+        List<Theater> bySize = new ArrayList<>(theaters);
+        bySize.sort(Comparator.comparingInt((Theater theater) -> theater.getRowLength() * theater.getColumnLength()).reversed());
+
+        List<CompletableFuture<SchedulePlan.TheaterPlan>> tasks = new ArrayList<>();
+        for (Theater theater : theaters) {
+            int rank = bySize.indexOf(theater);
+            tasks.add(CompletableFuture.supplyAsync(() -> this.packTheater(theater, rank, groups, firstDay, nDays)));
+        }
+        List<SchedulePlan.TheaterPlan> theaterPlans = new ArrayList<>();
+        for (CompletableFuture<SchedulePlan.TheaterPlan> task : tasks) {
+            theaterPlans.add(task.join());
+        }
+        return new SchedulePlan(theaterPlans);
+    }
+
+    private SchedulePlan.TheaterPlan packTheater(Theater theater, int rank, ShowGroups groups, LocalDate firstDay, int nDays) {
+        List<Screening> planned = new ArrayList<>();
+        long stepMillis = Math.max(60_000, this.rules.getStartTimeStep().toMillis());
+        long openMinutes = 0, screenMinutes = 0;
+
+        for (int day = 0; day < nDays; day++) {
+            LocalDate date = firstDay.plusDays(day);
+            Instant open = date.atTime(this.rules.getOpeningTime()).atZone(this.rules.getZone()).toInstant();
+            LocalDate closingDate = this.rules.getClosingTime().isAfter(this.rules.getOpeningTime()) ? date : date.plusDays(1);
+            Instant close = closingDate.atTime(this.rules.getClosingTime()).atZone(this.rules.getZone()).toInstant();
+            Instant dayEnd = close.plus(this.rules.getTurnover());
+            openMinutes += Duration.between(open, close).toMinutes();
+
+            int[][] remaining = groups.newRemainingRepeats(this.rules.getMaxScreeningsPerShow());
+            int[][] copies = groups.newRemainingRepeats(0);
+            long cursor = open.toEpochMilli();
+            for (Screening booked : this.schedule.findBetween(theater, open, dayEnd)) {
+                long bookedStart = booked.getStartTime().toEpochMilli();
+                if (bookedStart > cursor) {
+                    screenMinutes += this.fillGap(theater, rank, groups, remaining, copies, open.toEpochMilli(), stepMillis, cursor, bookedStart, planned);
+                }
+                cursor = Math.max(cursor, booked.getBlockedUntil().toEpochMilli());
+                long playedFrom = Math.max(bookedStart, open.toEpochMilli());
+                long playedUntil = Math.min(booked.getEndTime().toEpochMilli(), close.toEpochMilli());
+                screenMinutes += Math.max(0, playedUntil - playedFrom) / 60_000;
+            }
+            if (cursor < dayEnd.toEpochMilli()) {
+                screenMinutes += this.fillGap(theater, rank, groups, remaining, copies, open.toEpochMilli(), stepMillis, cursor, dayEnd.toEpochMilli(), planned);
+            }
+        }
+        return new SchedulePlan.TheaterPlan(theater, planned, openMinutes, screenMinutes);
+    }
+
+    /**
+     * Fills the gap between two times with the screenings that leave the least time without a show.
+     *
+     * @return the minutes of shows playing in the planned screenings
+     */
+    private long fillGap(Theater theater, int rank, ShowGroups groups, int[][] remaining, int[][] copies, long open, long stepMillis, long from, long to, List<Screening> planned) {
+        // Start on the first step after the opening time that is not before the gap
+        long firstStart = open + Math.floorDiv(from - open + stepMillis - 1, stepMillis) * stepMillis;
+        int capacity = (int) Math.max(0, (to - firstStart) / stepMillis);
+        if (capacity == 0) {
+            return 0;
+        }
+
+        // Split the repeats of every group into bundles of 1, 2, 4... screenings, each of which is used once or not at all
+        List<int[]> bundles = new ArrayList<>();
+        for (int g = 0; g < groups.steps.length && groups.steps[g] <= capacity; g++) {
+            int available = 0;
+            for (int repeats : remaining[g]) {
+                available += repeats;
+            }
+            available = Math.min(available, capacity / groups.steps[g]);
+            for (int size = 1; available > 0; size <<= 1) {
+                int count = Math.min(size, available);
+                bundles.add(new int[] { g, count });
+                available -= count;
+            }
+        }
+
+        // best[c] is the most show time that fits in c steps, taken[i][c] whether bundle i is used for it
+        long[] best = new long[capacity + 1];
+        boolean[][] taken = new boolean[bundles.size()][];
+        for (int i = 0; i < bundles.size(); i++) {
+            int g = bundles.get(i)[0], count = bundles.get(i)[1];
+            int weight = groups.steps[g] * count;
+            long value = groups.minutes[g] * count;
+            taken[i] = new boolean[capacity + 1];
+            for (int c = capacity; c >= weight; c--) {
+                if (best[c - weight] + value > best[c]) {
+                    best[c] = best[c - weight] + value;
+                    taken[i][c] = true;
+                }
+            }
+        }
+        int[] counts = new int[groups.steps.length];
+        for (int i = bundles.size() - 1, c = capacity; i >= 0; i--) {
+            if (taken[i][c]) {
+                counts[bundles.get(i)[0]] += bundles.get(i)[1];
+                c -= groups.steps[bundles.get(i)[0]] * bundles.get(i)[1];
+            }
+        }
+
+        // Take the shows of every picked group in turn, starting further down the group for smaller theaters
+        List<int[]> picks = new ArrayList<>();
+        for (int g = 0; g < counts.length; g++) {
+            int size = groups.shows[g].length;
+            for (int k = rank % size; counts[g] > 0; k = (k + 1) % size) {
+                if (remaining[g][k] > 0) {
+                    remaining[g][k]--;
+                    picks.add(new int[] { g, k, copies[g][k]++ });
+                    counts[g]--;
+                }
+            }
+        }
+        // Play every show once before repeating one, best-ranked first
+        picks.sort(Comparator.comparingInt((int[] pick) -> pick[2]).thenComparingInt(pick -> groups.ranks[pick[0]][pick[1]]));
+
+        ExperienceType experienceType = this.rules.getExperienceType(theater);
+        long start = firstStart;
+        long showMinutes = 0;
+        for (int[] pick : picks) {
+            Show show = groups.shows[pick[0]][pick[1]];
+            planned.add(new Screening(theater, show, experienceType, Instant.ofEpochMilli(start), this.rules.getTurnover()));
+            start += groups.steps[pick[0]] * stepMillis;
+            showMinutes += show.getDuration().toMinutes();
+        }
+        return showMinutes;
+    }
+
+    /**
+     * The shows grouped by the number of start time steps they take, turnover included, in ascending order of steps.
+     * Within a group, shows keep the order they were given in. Shows without a duration are left out.
+     */
+    private static class ShowGroups {
+        private final int[] steps;
+        private final long[] minutes;
+        private final Show[][] shows;
+        private final int[][] ranks;
+
+        private ShowGroups(List<Show> shows, PackingRules rules) {
+            long stepMillis = Math.max(60_000, rules.getStartTimeStep().toMillis());
+            TreeMap<Integer, List<Integer>> ranksBySteps = new TreeMap<>();
+            for (int rank = 0; rank < shows.size(); rank++) {
+                Duration duration = shows.get(rank).getDuration();
+                if (duration == null || duration.isZero() || duration.isNegative()) {
+                    continue;
+                }
+                long blockedMillis = duration.plus(rules.getTurnover()).toMillis();
+                int nSteps = (int) ((blockedMillis + stepMillis - 1) / stepMillis);
+                ranksBySteps.computeIfAbsent(nSteps, key -> new ArrayList<>()).add(rank);
+            }
+
+            this.steps = new int[ranksBySteps.size()];
+            this.minutes = new long[ranksBySteps.size()];
+            this.shows = new Show[ranksBySteps.size()][];
+            this.ranks = new int[ranksBySteps.size()][];
+            int g = 0;
+            for (Map.Entry<Integer, List<Integer>> entry : ranksBySteps.entrySet()) {
+                this.steps[g] = entry.getKey();
+                // Shows of a group differ by less than a step, so the group counts as its time without the turnover
+                this.minutes[g] = Math.max(1, entry.getKey() * stepMillis / 60_000 - rules.getTurnover().toMinutes());
+                this.shows[g] = new Show[entry.getValue().size()];
+                this.ranks[g] = new int[entry.getValue().size()];
+                for (int k = 0; k < entry.getValue().size(); k++) {
+                    this.ranks[g][k] = entry.getValue().get(k);
+                    this.shows[g][k] = shows.get(this.ranks[g][k]);
+                }
+                g++;
+            }
+        }
+
+        /**
+         * Returns a count per show of every group, all set to the given value.
+         */
+        private int[][] newRemainingRepeats(int repeats) {
+            int[][] remaining = new int[this.shows.length][];
+            for (int g = 0; g < this.shows.length; g++) {
+                remaining[g] = new int[this.shows[g].length];
+                Arrays.fill(remaining[g], repeats);
+            }
+            return remaining;
+        }
+    }
+}
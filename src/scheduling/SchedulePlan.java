@@ -0,0 +1,84 @@
+package scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import screening.Screening;
+import theater.Theater;
+
+/**
+ * The screenings planned by the schedule packer, theater by theater, with how much of the opening hours they fill.
+ * The screenings are not added to the cinema yet.
+ */
+public class SchedulePlan {
+    private final List<TheaterPlan> theaterPlans;
+
+    SchedulePlan(List<TheaterPlan> theaterPlans) {
+        this.theaterPlans = theaterPlans;
+    }
+
+    // Accessors
+
+    public List<TheaterPlan> getTheaterPlans() { return this.theaterPlans; }
+
+    /**
+     * Returns the planned screenings of every theater.
+     *
+     * @return the planned screenings, by theater and then by start time
+     */
+    public List<Screening> getScreenings() {
+        List<Screening> screenings = new ArrayList<>();
+        for (TheaterPlan theaterPlan : this.theaterPlans) {
+            screenings.addAll(theaterPlan.getScreenings());
+        }
+        return screenings;
+    }
+
+    /**
+     * Returns the share of the seat-minutes of the opening hours that are filled by screenings, planned or existing.
+     * Every theater counts by its capacity, so an hour left empty in a large theater weighs more than in a small one.
+     *
+     * @return the utilization of all theaters, from 0.0 (empty) to 1.0 (a show playing whenever they are open)
+     */
+    public double getUtilization() {
+        double openSeatMinutes = 0, screenSeatMinutes = 0;
+        for (TheaterPlan theaterPlan : this.theaterPlans) {
+            int capacity = theaterPlan.getTheater().getRowLength() * theaterPlan.getTheater().getColumnLength();
+            openSeatMinutes += (double) capacity * theaterPlan.getOpenMinutes();
+            screenSeatMinutes += (double) capacity * theaterPlan.getScreenMinutes();
+        }
+        return openSeatMinutes == 0 ? 0 : screenSeatMinutes / openSeatMinutes;
+    }
+
+    /**
+     * The screenings planned in one theater.
+     */
+    public static class TheaterPlan {
+        private final Theater theater;
+        private final List<Screening> screenings;
+        private final long openMinutes;
+        private final long screenMinutes;
+
+        TheaterPlan(Theater theater, List<Screening> screenings, long openMinutes, long screenMinutes) {
+            this.theater = theater;
+            this.screenings = screenings;
+            this.openMinutes = openMinutes;
+            this.screenMinutes = screenMinutes;
+        }
+
+        // Accessors
+
+        public Theater getTheater() { return this.theater; }
+        public List<Screening> getScreenings() { return this.screenings; }
+        public long getOpenMinutes() { return this.openMinutes; }
+
+        /**
+         * Returns the minutes during which a show plays in the theater within the opening hours, planned or existing.
+         *
+         * @return the minutes of shows playing
+         */
+        public long getScreenMinutes() { return this.screenMinutes; }
+
+        public double getUtilization() { return this.openMinutes == 0 ? 0 : (double) this.screenMinutes / this.openMinutes; }
+    }
+}
@@ -0,0 +1,140 @@
+package screening;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the best available contiguous seats of a screening for a party.
+ *
+ * Every row is scanned a word at a time: runs of free seats are found with
+ * Long.numberOfTrailingZeros on the reservation words instead of testing seat by seat.
+ * For each free run that fits the party, the position closest to the centre of the row
+ * is taken as the candidate, and candidates are ranked by:
+ *   - the horizontal distance of the block from the centre of the screen,
+ *   - the distance of the row from the preferred viewing row (two thirds back),
+ *   - a penalty for blocks that sit against an aisle (the first or last column).
+ */
+public class BestAvailableFinder {
+    private static final double COLUMN_WEIGHT = 1.0;
+    private static final double ROW_WEIGHT = 1.5;
+    private static final double AISLE_PENALTY = 2.0;
+
+    /**
+     * Returns the best available block of contiguous seats for the given party size.
+     *
+     * @param screening the screening to search
+     * @param partySize the number of seats that must be next to each other
+     * @return the best block, or null if no row has enough contiguous free seats
+     */
+    public static SeatBlock findBest(Screening screening, int partySize) {
+        List<SeatBlock> blocks = BestAvailableFinder.findBest(screening, partySize, 1);
+        return blocks.isEmpty() ? null : blocks.get(0);
+    }
+
+    /**
+     * Returns up to the given number of available blocks of contiguous seats, best first.
+     * At most one block is returned per free run of seats.
+     *
+     * @param screening the screening to search
+     * @param partySize the number of seats that must be next to each other
+     * @param maxResults the maximum number of blocks to return
+     * @return the best blocks ordered by their score, best first
+     */
+    public static List<SeatBlock> findBest(Screening screening, int partySize, int maxResults) {
+        List<SeatBlock> best = new ArrayList<>(maxResults);
+        SeatReservationEngine engine = screening.getReservationEngine();
+        int nRows = engine.getRowLength();
+        int nColumns = engine.getColumnLength();
+        if (partySize < 1 || partySize > nColumns || maxResults < 1) {
+            return best;
+        }
+
+        int wordsPerRow = engine.getWordsPerRow();
+        double centerColumn = (nColumns - 1) / 2.0;
+        double preferredRow = (nRows - 1) * 2 / 3.0;
+
+        for (int iRow = 0; iRow < nRows; iRow++) {
+            double rowScore = Math.abs(iRow - preferredRow) * ROW_WEIGHT;
+            if (best.size() == maxResults && rowScore >= best.get(best.size() - 1).getScore()) {
+                // No block in this row can beat the worst kept block
+                continue;
+            }
+
+            int runStart = -1;
+            for (int k = 0; k < wordsPerRow; k++) {
+                int base = k << 6;
+                long free = ~engine.getWord(iRow * wordsPerRow + k);
+                int validBits = Math.min(64, nColumns - base);
+                if (validBits < 64) {
+                    free &= (1L << validBits) - 1;
+                }
+
+                int position = 0;
+                while (position < validBits) {
+                    if (runStart < 0) {
+                        long remaining = free >>> position;
+                        if (remaining == 0) {
+                            break;
+                        }
+                        position += Long.numberOfTrailingZeros(remaining);
+                        runStart = base + position;
+                    } else {
+                        long remaining = ~free >>> position;
+                        int freeBits = remaining == 0 ? validBits - position : Math.min(Long.numberOfTrailingZeros(remaining), validBits - position);
+                        position += freeBits;
+                        if (position < validBits) {
+                            BestAvailableFinder.offerRun(best, maxResults, iRow, runStart, base + position, partySize, nColumns, centerColumn, rowScore);
+                            runStart = -1;
+                        }
+                    }
+                }
+            }
+            if (runStart >= 0) {
+                BestAvailableFinder.offerRun(best, maxResults, iRow, runStart, nColumns, partySize, nColumns, centerColumn, rowScore);
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Picks the best position for the party inside a free run and keeps it if it ranks among the best blocks.
+     *
+     * @param best the best blocks found so far, ordered by score
+     * @param maxResults the maximum number of blocks to keep
+     * @param iRow the zero-based row of the run
+     * @param runStart the first free column of the run
+     * @param runEnd the column after the last free column of the run
+     * @param partySize the number of seats of the party
+     * @param nColumns the number of columns in the row
+     * @param centerColumn the centre column of the row
+     * @param rowScore the score of the row itself
+     */
+    private static void offerRun(List<SeatBlock> best, int maxResults, int iRow, int runStart, int runEnd, int partySize, int nColumns, double centerColumn, double rowScore) {
+        if (runEnd - runStart < partySize) {
+            return;
+        }
+
+        int start = (int) Math.round(centerColumn - (partySize - 1) / 2.0);
+        start = Math.max(runStart, Math.min(start, runEnd - partySize));
+        double blockCenter = start + (partySize - 1) / 2.0;
+
+        double score = rowScore + Math.abs(blockCenter - centerColumn) * COLUMN_WEIGHT;
+        if (start == 0 || start + partySize == nColumns) {
+            score += AISLE_PENALTY;
+        }
+
+        if (best.size() == maxResults) {
+            if (score >= best.get(maxResults - 1).getScore()) {
+                return;
+            }
+            best.remove(maxResults - 1);
+        }
+
+        int position = best.size();
+        while (position > 0 && best.get(position - 1).getScore() > score) {
+            position--;
+        }
+        best.add(position, new SeatBlock(iRow, start, partySize, score));
+    }
+}
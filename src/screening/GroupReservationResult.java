@@ -0,0 +1,58 @@
+package screening;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import seat.Seat;
+
+/**
+ * The outcome of an all-or-nothing group reservation on a screening.
+ * Either every requested seat was reserved, or none were and the seats that
+ * blocked the group are listed as conflicting or invalid.
+ */
+public class GroupReservationResult {
+    private static final int[] NO_SEATS = new int[0];
+
+    private final int[] reservedSeatIndices;
+    private final int[] conflictingSeatIndices;
+    private final int[] invalidSeatIndices;
+
+    GroupReservationResult(int[] reservedSeatIndices, int[] conflictingSeatIndices, int[] invalidSeatIndices) {
+        this.reservedSeatIndices = reservedSeatIndices == null ? NO_SEATS : reservedSeatIndices;
+        this.conflictingSeatIndices = conflictingSeatIndices == null ? NO_SEATS : conflictingSeatIndices;
+        this.invalidSeatIndices = invalidSeatIndices == null ? NO_SEATS : invalidSeatIndices;
+    }
+
+    // Accessors
+
+    public boolean isSuccessful() { return this.conflictingSeatIndices.length == 0 && this.invalidSeatIndices.length == 0; }
+    public int[] getReservedSeatIndices() { return this.reservedSeatIndices.clone(); }
+    public int[] getConflictingSeatIndices() { return this.conflictingSeatIndices.clone(); }
+    public int[] getInvalidSeatIndices() { return this.invalidSeatIndices.clone(); }
+
+    /**
+     * Returns the IDs of the seats that were already reserved (or requested twice).
+     *
+     * @return a list of seat IDs (e.g. "A1", "B2", etc.)
+     */
+    public List<String> getConflictingSeatIDs() {
+        return GroupReservationResult.formatSeatIDs(this.conflictingSeatIndices);
+    }
+
+    /**
+     * Returns the IDs of the seats that are not part of the theater's seat layout.
+     *
+     * @return a list of seat IDs (e.g. "A1", "B2", etc.)
+     */
+    public List<String> getInvalidSeatIDs() {
+        return GroupReservationResult.formatSeatIDs(this.invalidSeatIndices);
+    }
+
+    private static List<String> formatSeatIDs(int[] seatIndices) {
+        List<String> seatIDs = new ArrayList<>(seatIndices.length);
+        for (int seatIndex : seatIndices) {
+            seatIDs.add(Seat.formatSeatID(seatIndex));
+        }
+        return seatIDs;
+    }
+}
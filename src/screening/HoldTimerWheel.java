@@ -0,0 +1,106 @@
+package screening;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timer wheel that releases expired seat holds.
+ *
+ * Holds are put in the slot of the tick they expire in. Every tick only the slot of
+ * that tick is swept, so the cost of a sweep is proportional to the holds expiring
+ * around that time, not to the number of seats or screenings. Holds that expire more
+ * than one turn of the wheel ahead are put back until their turn comes.
+ * Holds that were confirmed or released before expiring are simply skipped.
+ */
+public class HoldTimerWheel {
+    private static final HoldTimerWheel SHARED = new HoldTimerWheel(1000, 512);
+
+    private final long tickMillis;
+    private final List<ConcurrentLinkedQueue<SeatHold>> slots;
+    private long lastTick;
+    private ScheduledExecutorService sweeper;
+
+    public HoldTimerWheel(long tickMillis, int nSlots) {
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(nSlots);
+        for (int i = 0; i < nSlots; i++) {
+            this.slots.add(new ConcurrentLinkedQueue<>());
+        }
+        this.lastTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    /**
+     * Returns the timer wheel shared by all screenings.
+     * Its sweeper runs on a daemon thread that is started with the first hold.
+     *
+     * @return the shared timer wheel
+     */
+    public static HoldTimerWheel getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Schedules a hold to be released when it expires.
+     *
+     * @param hold the hold to schedule
+     */
+    public void schedule(SeatHold hold) {
+        long tick = hold.getExpiresAtMillis() / this.tickMillis;
+        this.slots.get((int) (tick % this.slots.size())).add(hold);
+        this.startSweeper();
+    }
+
+    /**
+     * Releases every hold that expired up to the given time.
+     * Each slot is visited at most once per call, even after a long pause.
+     *
+     * @param nowMillis the current time in milliseconds
+     * @return the number of holds that were released
+     */
+    public synchronized int advance(long nowMillis) {
+        long nowTick = nowMillis / this.tickMillis;
+        long firstTick = Math.max(this.lastTick, nowTick - this.slots.size() + 1);
+        int released = 0;
+
+        for (long tick = firstTick; tick <= nowTick; tick++) {
+            ConcurrentLinkedQueue<SeatHold> slot = this.slots.get((int) (tick % this.slots.size()));
+            List<SeatHold> notYetDue = null;
+            SeatHold hold;
+            while ((hold = slot.poll()) != null) {
+                if (hold.getExpiresAtMillis() <= nowMillis) {
+                    if (hold.getScreening().expireHold(hold)) {
+                        released++;
+                    }
+                } else {
+                    if (notYetDue == null) { notYetDue = new ArrayList<>(); }
+                    notYetDue.add(hold);
+                }
+            }
+            if (notYetDue != null) {
+                slot.addAll(notYetDue);
+            }
+        }
+
+        this.lastTick = nowTick;
+        return released;
+    }
+
+    /**
+     * Starts the daemon thread that advances the wheel every tick, if it is not running yet.
+     */
+    private synchronized void startSweeper() {
+        if (this.sweeper != null) {
+            return;
+        }
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-hold-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleAtFixedRate(() -> this.advance(System.currentTimeMillis()), this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,34 @@
+package screening;
+
+/**
+ * Receives the reservation changes of a screening, e.g. to record them in a journal.
+ * Listeners are called on the thread that made the change, after the change succeeded and while the seat is
+ * still locked, so the changes of a seat are reported in the order they were made. Listeners should therefore
+ * return quickly and must not make reservations themselves.
+ * Holds are not reported until they are confirmed as reservations.
+ */
+public interface ReservationListener {
+
+    /**
+     * Called after a seat was reserved, including a confirmed hold.
+     *
+     * @param screening the screening of the seat
+     * @param seatIndex the packed seat index of the reserved seat
+     */
+    void seatReserved(Screening screening, int seatIndex);
+
+    /**
+     * Called after a reserved seat was released.
+     *
+     * @param screening the screening of the seat
+     * @param seatIndex the packed seat index of the released seat
+     */
+    void seatReleased(Screening screening, int seatIndex);
+
+    /**
+     * Called after every reservation and hold of a screening was cleared.
+     *
+     * @param screening the cleared screening
+     */
+    void reservationsCleared(Screening screening);
+}
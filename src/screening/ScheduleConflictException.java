@@ -0,0 +1,20 @@
+package screening;
+
+/**
+ * Thrown when a screening would overlap another screening of the same theater, cleaning time included.
+ */
+public class ScheduleConflictException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    // Screenings are not serializable, so the conflicting screening is not kept by a serialized copy
+    private final transient Screening conflictingScreening;
+
+    public ScheduleConflictException(String message, Screening conflictingScreening) {
+        super(message);
+        this.conflictingScreening = conflictingScreening;
+    }
+
+    // Accessors
+
+    public Screening getConflictingScreening() { return this.conflictingScreening; }
+}
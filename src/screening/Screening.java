@@ -1,52 +1,211 @@
 package screening;
 
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.time.Duration;
+import java.time.Instant;
 
 import show.Show;
 import theater.Theater;
+import seat.Seat;
 import seat.SeatConflictException;
 import seat.InvalidSeatException;
 
 
 public class Screening {
+    private static final AtomicLong nextID = new AtomicLong(1);
+    private static final int N_SEAT_LOCKS = 16;
+
+    private long id;
     private Theater theater;
     private Show show;
     private ExperienceType experienceType;
 
-    private Set<String> reservedSeatIDs;
+    // When the screening starts, null if it was never scheduled, and how long the theater is cleaned after the show
+    private Instant startTime;
+    private Duration cleaningBuffer;
+
+    // Reserved seats are stored as two bits per seat (see SeatReservationEngine).
+    // The engine is swapped for its resized successor when the theater's dimensions change.
+    private volatile SeatReservationEngine reservations;
+
+    // Owners and expiry times of the currently held seats, keyed by packed seat index
+    private final Map<Integer, SeatHold> seatHolds;
+    // Seats dropped by remaps that were not reported yet (see remapSeatLayout)
+    private SeatRemapResult pendingRemapResult;
+    private volatile ReservationListener reservationListener;
+    // While a listener is set, each change and its report are made under the lock of the seat's stripe,
+    // so the listener sees the changes of a seat in the order they were made (see lockStripes)
+    private final ReentrantLock[] seatLocks;
 
     public Screening(Theater theater, Show show, ExperienceType experienceType) {
+        this(theater, show, experienceType, null, Duration.ZERO);
+    }
+
+    public Screening(Theater theater, Show show, ExperienceType experienceType, Instant startTime, Duration cleaningBuffer) {
+        this.id = Screening.nextID.getAndIncrement();
         this.theater = theater;
         this.show = show;
         this.experienceType = experienceType;
-        this.reservedSeatIDs = new HashSet<>();
+        this.startTime = startTime;
+        this.cleaningBuffer = cleaningBuffer;
+        this.reservations = new SeatReservationEngine(theater.getRowLength(), theater.getColumnLength());
+        this.seatHolds = new ConcurrentHashMap<>();
+        this.seatLocks = new ReentrantLock[N_SEAT_LOCKS];
+        for (int i = 0; i < N_SEAT_LOCKS; i++) {
+            this.seatLocks[i] = new ReentrantLock();
+        }
     }
 
     // Accessors
 
-    public Set<String> getReservedSeatIDs() { return Collections.unmodifiableSet(this.reservedSeatIDs); }
+    /**
+     * Returns a read-only view of the reserved seat IDs of this screening.
+     * The view is backed by the reservation bitset, so the IDs are only
+     * formatted while iterating and lookups do not allocate a copy.
+     *
+     * @return a read-only set of reserved seat IDs (e.g. "A1", "B2", etc.)
+     */
+    public Set<String> getReservedSeatIDs() { return new ReservedSeatIDSet(); }
+    public long getID() { return this.id; }
     public Theater getTheater() { return this.theater; }
     public Show getShow() { return this.show; }
     public ExperienceType getExperienceType() { return this.experienceType; }
+    public Instant getStartTime() { return this.startTime; }
+    public Duration getCleaningBuffer() { return this.cleaningBuffer; }
+
+    /**
+     * Returns when the show of this screening is over.
+     *
+     * @return the end time of the screening, or null if it has no start time
+     */
+    public Instant getEndTime() {
+        if (this.startTime == null) {
+            return null;
+        }
+        return this.startTime.plus(this.show == null || this.show.getDuration() == null ? Duration.ZERO : this.show.getDuration());
+    }
+
+    /**
+     * Returns when the theater of this screening is free again, once the show is over and the theater is cleaned.
+     *
+     * @return the end time of the screening plus its cleaning buffer, or null if it has no start time
+     */
+    public Instant getBlockedUntil() {
+        Instant endTime = this.getEndTime();
+        return endTime == null ? null : endTime.plus(this.cleaningBuffer);
+    }
+
+    // Occupancy counts are kept live by the reservation engine, so none of these look at individual seats.
+    public int getSeatCapacity() { return this.getReservationEngine().getCapacity(); }
+    public int getReservedSeatCount() { return this.getReservationEngine().getReservedCount(); }
+    public int getHeldSeatCount() { return this.getReservationEngine().getHeldCount(); }
+    public int getOccupiedSeatCount() { return this.getReservationEngine().getOccupiedCount(); }
+    public int getAvailableSeatCount() { return this.getSeatCapacity() - this.getOccupiedSeatCount(); }
+
+    /**
+     * Returns the number of occupied seats, either reserved or held, in the given row.
+     *
+     * @param row the row number (1-indexed)
+     * @return the number of occupied seats in the row, or 0 if the row is not in the theater's seat layout
+     */
+    public int getRowOccupiedSeatCount(int row) {
+        SeatReservationEngine engine = this.getReservationEngine();
+        if (row < 1 || row > engine.getRowLength()) {
+            return 0;
+        }
+        return engine.getRowOccupiedCount(row - 1);
+    }
+
+    /**
+     * Returns the share of seats that are occupied, either reserved or held.
+     *
+     * @return the fill rate of this screening, from 0.0 (empty) to 1.0 (full)
+     */
+    public double getFillRate() {
+        SeatReservationEngine engine = this.getReservationEngine();
+        return engine.getCapacity() == 0 ? 0 : (double) engine.getOccupiedCount() / engine.getCapacity();
+    }
 
     // Mutators
 
+    /**
+     * Sets the ID of this screening, used when restoring saved screenings.
+     * Screenings created afterwards are given IDs after the largest restored ID.
+     *
+     * @param id the saved ID of this screening
+     */
+    public void setID(long id) {
+        this.id = id;
+        Screening.nextID.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /**
+     * Sets the listener that is told about every reservation change of this screening.
+     *
+     * @param reservationListener the listener, or null to stop reporting changes
+     */
+    public void setReservationListener(ReservationListener reservationListener) { this.reservationListener = reservationListener; }
+
+    /**
+     * Sets the theater of this screening.
+     * Reservations are kept by row and column, seats that do not exist in the new theater are dropped
+     * and returned by the next {@link #remapSeatLayout()}, which the caller is expected to make.
+     *
+     * @param theater the new theater of this screening
+     */
     public void setTheater(Theater theater) { this.theater = theater; }
     public void setShow(Show show) { this.show = show; }
     public void setExperienceType(ExperienceType experienceType) { this.experienceType = experienceType; }
+    public void setStartTime(Instant startTime) { this.startTime = startTime; }
+    public void setCleaningBuffer(Duration cleaningBuffer) { this.cleaningBuffer = cleaningBuffer; }
 
     // Other Methods
 
     /**
      * Checks if a given seat is reserved for this screening.
      * 
-     * @param seatID the ID of the seat to check (e.g. "A1", "B2", etc.)
+     * @param seatID the ID of the seat to check (e.g. "A1", "B2", "AA10", etc.)
      * @return true if the seat is reserved, false otherwise
      */
     public boolean isSeatReserved(String seatID) {
-        return this.reservedSeatIDs.contains(seatID);
+        if (seatID == null || seatID.length() < 2) {
+            return false;
+        }
+        int nLetters = 0;
+        while (nLetters < seatID.length() && Seat.toColumnIndex(seatID.charAt(nLetters)) >= 0) {
+            nLetters++;
+        }
+        if (nLetters == 0 || nLetters == seatID.length()) {
+            return false;
+        }
+        int row = 0;
+        for (int i = nLetters; i < seatID.length(); i++) {
+            char digit = seatID.charAt(i);
+            if (digit < '0' || digit > '9' || row > Integer.MAX_VALUE / 10) {
+                return false;
+            }
+            row = row * 10 + (digit - '0');
+        }
+        int seatIndex = this.theater.getSeatIndex(row, seatID.substring(0, nLetters));
+        return seatIndex != Seat.INVALID_INDEX && this.isSeatReserved(seatIndex);
+    }
+
+    /**
+     * Checks if the seat with the given packed index is reserved for this screening.
+     * 
+     * @param seatIndex the packed seat index (see {@link Theater#getSeatIndex(int, char)})
+     * @return true if the seat is reserved, false otherwise (including seats outside of the layout)
+     */
+    public boolean isSeatReserved(int seatIndex) {
+        return this.getReservationEngine().isReserved(seatIndex);
     }
 
     /**
@@ -58,14 +217,38 @@ public class Screening {
      * @throws InvalidSeatException if the seat is not a valid seat in the theater
      */
     public void createSeatReservation(int row, char column) throws SeatConflictException, InvalidSeatException {
-        String seatID = String.format("%c%d", column, row);
-        if (!theater.isValidSeat(row, column)) {
-            throw new InvalidSeatException(String.format("Failed to reserve reservation: Seat '%s' is not a valid seat.", seatID));
+        int seatIndex = this.theater.getSeatIndex(row, column);
+        if (seatIndex == Seat.INVALID_INDEX) {
+            throw new InvalidSeatException(String.format("Failed to reserve reservation: Seat '%c%d' is not a valid seat.", column, row));
         }
-        if (isSeatReserved(seatID)) {
-            throw new SeatConflictException(String.format("Failed to reserve reservation: Seat '%s' is already reserved.", seatID));
+        this.createSeatReservation(seatIndex);
+    }
+
+    /**
+     * Creates a new seat reservation for the seat with the given packed index.
+     * The seat is claimed atomically, so concurrent calls for the same seat never both succeed.
+     * Nothing is allocated unless the reservation fails.
+     * 
+     * @param seatIndex the packed seat index of the seat to reserve
+     * @throws SeatConflictException if the seat is already reserved for this screening
+     * @throws InvalidSeatException if the seat is not a valid seat in the theater
+     */
+    public void createSeatReservation(int seatIndex) throws SeatConflictException, InvalidSeatException {
+        if (!this.theater.isValidSeatIndex(seatIndex)) {
+            throw new InvalidSeatException(String.format("Failed to reserve reservation: Seat '%s' is not a valid seat.", Seat.formatSeatID(seatIndex)));
+        }
+        ReservationListener listener = this.reservationListener;
+        int locked = this.lockStripes(listener, Screening.stripeOf(seatIndex));
+        try {
+            if (!this.getReservationEngine().tryReserve(seatIndex)) {
+                throw new SeatConflictException(String.format("Failed to reserve reservation: Seat '%s' is already reserved.", Seat.formatSeatID(seatIndex)));
+            }
+            if (listener != null) {
+                listener.seatReserved(this, seatIndex);
+            }
+        } finally {
+            this.unlockStripes(locked);
         }
-        this.reservedSeatIDs.add(seatID);
     }
 
     /**
@@ -77,16 +260,414 @@ public class Screening {
      * @throws InvalidSeatException if the seat is not a valid seat in the theater
      */
     public void deleteSeatReservation(int row, char column) throws SeatConflictException, InvalidSeatException {
-        String seatID = String.format("%c%d", column, row);
-        if (!theater.isValidSeat(row, column)) {
-            throw new InvalidSeatException(String.format("Failed to delete reservation: Seat '%s' is not a valid seat.", seatID));
+        int seatIndex = this.theater.getSeatIndex(row, column);
+        if (seatIndex == Seat.INVALID_INDEX) {
+            throw new InvalidSeatException(String.format("Failed to delete reservation: Seat '%c%d' is not a valid seat.", column, row));
+        }
+        this.deleteSeatReservation(seatIndex);
+    }
+
+    /**
+     * Deletes a seat reservation for the seat with the given packed index.
+     * The seat is released atomically, so concurrent calls for the same seat never both succeed.
+     * Nothing is allocated unless the deletion fails.
+     * 
+     * @param seatIndex the packed seat index of the seat to delete the reservation for
+     * @throws SeatConflictException if the seat is not reserved for this screening
+     * @throws InvalidSeatException if the seat is not a valid seat in the theater
+     */
+    public void deleteSeatReservation(int seatIndex) throws SeatConflictException, InvalidSeatException {
+        if (!this.theater.isValidSeatIndex(seatIndex)) {
+            throw new InvalidSeatException(String.format("Failed to delete reservation: Seat '%s' is not a valid seat.", Seat.formatSeatID(seatIndex)));
+        }
+        ReservationListener listener = this.reservationListener;
+        int locked = this.lockStripes(listener, Screening.stripeOf(seatIndex));
+        try {
+            if (!this.getReservationEngine().tryRelease(seatIndex)) {
+                throw new SeatConflictException(String.format("Failed to delete reservation: Seat '%s' is not reserved.", Seat.formatSeatID(seatIndex)));
+            }
+            if (listener != null) {
+                listener.seatReleased(this, seatIndex);
+            }
+        } finally {
+            this.unlockStripes(locked);
+        }
+    }
+
+    /**
+     * Checks if the seat with the given packed index is held for this screening.
+     * 
+     * @param seatIndex the packed seat index
+     * @return true if the seat is held, false otherwise
+     */
+    public boolean isSeatHeld(int seatIndex) {
+        return this.getReservationEngine().isHeld(seatIndex);
+    }
+
+    /**
+     * Returns the hold on the seat with the given packed index.
+     * 
+     * @param seatIndex the packed seat index
+     * @return the hold on the seat, or null if the seat is not held
+     */
+    public SeatHold getSeatHold(int seatIndex) {
+        return this.seatHolds.get(seatIndex);
+    }
+
+    /**
+     * Holds the seat with the given packed index for an owner until the hold expires.
+     * A held seat cannot be reserved or held by anyone else. Expired holds are released
+     * in bulk by the shared {@link HoldTimerWheel}.
+     * 
+     * @param seatIndex the packed seat index of the seat to hold
+     * @param ownerToken the token identifying the owner of the hold (e.g. a kiosk or cart ID)
+     * @param duration how long the seat stays held
+     * @return the created hold
+     * @throws SeatConflictException if the seat is already reserved or held
+     * @throws InvalidSeatException if the seat is not a valid seat in the theater
+     */
+    public SeatHold holdSeat(int seatIndex, String ownerToken, Duration duration) throws SeatConflictException, InvalidSeatException {
+        if (!this.theater.isValidSeatIndex(seatIndex)) {
+            throw new InvalidSeatException(String.format("Failed to hold seat: Seat '%s' is not a valid seat.", Seat.formatSeatID(seatIndex)));
+        }
+        SeatReservationEngine engine = this.getReservationEngine();
+        SeatHold hold = new SeatHold(this, seatIndex, ownerToken, System.currentTimeMillis() + duration.toMillis());
+        if (this.seatHolds.putIfAbsent(seatIndex, hold) != null) {
+            throw new SeatConflictException(String.format("Failed to hold seat: Seat '%s' is already held.", Seat.formatSeatID(seatIndex)));
+        }
+        if (!engine.tryHold(seatIndex)) {
+            this.seatHolds.remove(seatIndex, hold);
+            throw new SeatConflictException(String.format("Failed to hold seat: Seat '%s' is already reserved or held.", Seat.formatSeatID(seatIndex)));
+        }
+        HoldTimerWheel.getShared().schedule(hold);
+        return hold;
+    }
+
+    /**
+     * Turns a hold into a reservation, e.g. once the customer has paid.
+     * 
+     * @param seatIndex the packed seat index of the held seat
+     * @param ownerToken the token of the owner of the hold
+     * @throws SeatConflictException if the seat is not held by the given owner
+     */
+    public void confirmSeatHold(int seatIndex, String ownerToken) throws SeatConflictException {
+        ReservationListener listener = this.reservationListener;
+        int locked = this.lockStripes(listener, Screening.stripeOf(seatIndex));
+        try {
+            SeatHold hold = this.takeSeatHold(seatIndex, ownerToken);
+            if (hold == null || !this.getReservationEngine().tryConfirmHold(seatIndex)) {
+                throw new SeatConflictException(String.format("Failed to confirm hold: Seat '%s' is not held by '%s'.", Seat.formatSeatID(seatIndex), ownerToken));
+            }
+            if (listener != null) {
+                listener.seatReserved(this, seatIndex);
+            }
+        } finally {
+            this.unlockStripes(locked);
+        }
+    }
+
+    /**
+     * Releases a hold, making the seat available again.
+     * 
+     * @param seatIndex the packed seat index of the held seat
+     * @param ownerToken the token of the owner of the hold
+     * @throws SeatConflictException if the seat is not held by the given owner
+     */
+    public void releaseSeatHold(int seatIndex, String ownerToken) throws SeatConflictException {
+        SeatHold hold = this.takeSeatHold(seatIndex, ownerToken);
+        if (hold == null || !this.getReservationEngine().tryReleaseHold(seatIndex)) {
+            throw new SeatConflictException(String.format("Failed to release hold: Seat '%s' is not held by '%s'.", Seat.formatSeatID(seatIndex), ownerToken));
+        }
+    }
+
+    /**
+     * Releases the given hold if it is still the current hold of its seat.
+     * Called by the {@link HoldTimerWheel} when the hold expires.
+     * 
+     * @param hold the expired hold
+     * @return true if the seat was released, false if the hold was already confirmed or released
+     */
+    boolean expireHold(SeatHold hold) {
+        if (!this.seatHolds.remove(hold.getSeatIndex(), hold)) {
+            return false;
         }
-        if (!isSeatReserved(seatID)) {
-            throw new SeatConflictException(String.format("Failed to delete reservation: Seat '%s' is not reserved.", seatID));
+        return this.getReservationEngine().tryReleaseHold(hold.getSeatIndex());
+    }
+
+    /**
+     * Removes and returns the hold on a seat if it belongs to the given owner.
+     * 
+     * @param seatIndex the packed seat index of the held seat
+     * @param ownerToken the token of the owner of the hold
+     * @return the removed hold, or null if the seat is not held by the owner
+     */
+    private SeatHold takeSeatHold(int seatIndex, String ownerToken) {
+        SeatHold hold = this.seatHolds.get(seatIndex);
+        if (hold == null || !hold.getOwnerToken().equals(ownerToken) || !this.seatHolds.remove(seatIndex, hold)) {
+            return null;
         }
-        this.reservedSeatIDs.remove(seatID);
+        return hold;
     }
 
-    public void clearSeatReservations() { this.reservedSeatIDs.clear(); }
+    /**
+     * Reserves all of the given seats, or none of them.
+     * Seats are claimed one by one and every claim is rolled back as soon as one seat
+     * turns out to be invalid or already reserved. All requested seats are still checked
+     * so that the result can report every seat that blocked the group.
+     * No exceptions are thrown, which keeps the call cheap in a booking loop.
+     * 
+     * @param seatIndices the packed seat indexes of the seats to reserve
+     * @return the result of the group reservation
+     */
+    public GroupReservationResult createSeatReservations(int[] seatIndices) {
+        int stripes = 0;
+        for (int seatIndex : seatIndices) {
+            stripes |= Screening.stripeOf(seatIndex);
+        }
+        ReservationListener listener = this.reservationListener;
+        int locked = this.lockStripes(listener, stripes);
+        try {
+            return this.claimSeatReservations(seatIndices, listener);
+        } finally {
+            this.unlockStripes(locked);
+        }
+    }
+
+    /**
+     * Reserves all of the given seats or none of them, and reports the reserved seats to the listener.
+     * Called with the stripes of the seats locked if there is a listener.
+     *
+     * @param seatIndices the packed seat indexes of the seats to reserve
+     * @param listener the listener to report the reserved seats to, or null
+     * @return the result of the group reservation
+     */
+    private GroupReservationResult claimSeatReservations(int[] seatIndices, ReservationListener listener) {
+        SeatReservationEngine engine = this.getReservationEngine();
+        int[] claimedSeats = new int[seatIndices.length];
+        int claimed = 0;
+        int nConflicting = 0, nInvalid = 0;
+        int[] conflicting = null, invalid = null;
+
+        for (int seatIndex : seatIndices) {
+            if (!this.theater.isValidSeatIndex(seatIndex) || !engine.contains(seatIndex)) {
+                if (invalid == null) { invalid = new int[seatIndices.length]; }
+                invalid[nInvalid++] = seatIndex;
+            } else if (nConflicting + nInvalid > 0) {
+                // The group already failed, only collect the remaining conflicts
+                if (engine.isOccupied(seatIndex)) {
+                    if (conflicting == null) { conflicting = new int[seatIndices.length]; }
+                    conflicting[nConflicting++] = seatIndex;
+                }
+            } else if (engine.tryReserve(seatIndex)) {
+                claimedSeats[claimed++] = seatIndex;
+            } else {
+                if (conflicting == null) { conflicting = new int[seatIndices.length]; }
+                conflicting[nConflicting++] = seatIndex;
+            }
+        }
+
+        if (nConflicting + nInvalid == 0) {
+            if (listener != null) {
+                for (int seatIndex : claimedSeats) {
+                    listener.seatReserved(this, seatIndex);
+                }
+            }
+            return new GroupReservationResult(claimedSeats, null, null);
+        }
+        for (int i = 0; i < claimed; i++) {
+            engine.tryRelease(claimedSeats[i]);
+        }
+        return new GroupReservationResult(
+            null,
+            conflicting == null ? null : Arrays.copyOf(conflicting, nConflicting),
+            invalid == null ? null : Arrays.copyOf(invalid, nInvalid)
+        );
+    }
+
+    /**
+     * Clears all reservations and holds of this screening.
+     */
+    public void clearSeatReservations() {
+        ReservationListener listener = this.reservationListener;
+        int locked = this.lockStripes(listener, (1 << N_SEAT_LOCKS) - 1);
+        try {
+            this.seatHolds.clear();
+            this.getReservationEngine().clear();
+            if (listener != null) {
+                listener.reservationsCleared(this);
+            }
+        } finally {
+            this.unlockStripes(locked);
+        }
+    }
+
+    /**
+     * Returns the bit of the lock stripe of a seat. Rows and columns are mixed, so neighbouring seats of a row
+     * or of a column fall in different stripes.
+     *
+     * @param seatIndex the packed seat index
+     * @return a bitmask with the stripe of the seat set
+     */
+    private static int stripeOf(int seatIndex) {
+        return 1 << ((seatIndex ^ (seatIndex >>> 16)) & (N_SEAT_LOCKS - 1));
+    }
 
+    /**
+     * Locks the given stripes in ascending order, so that changes locking several stripes never deadlock.
+     * Nothing is locked without a listener, since the order of the changes is then not reported anywhere.
+     *
+     * @param listener the listener the changes will be reported to, or null
+     * @param stripes the bitmask of the stripes to lock
+     * @return the bitmask of the stripes that were locked, to pass to {@link #unlockStripes(int)}
+     */
+    private int lockStripes(ReservationListener listener, int stripes) {
+        if (listener == null) {
+            return 0;
+        }
+        for (int remaining = stripes; remaining != 0; remaining &= remaining - 1) {
+            this.seatLocks[Integer.numberOfTrailingZeros(remaining)].lock();
+        }
+        return stripes;
+    }
+
+    /**
+     * Unlocks the stripes locked by {@link #lockStripes(ReservationListener, int)}.
+     *
+     * @param stripes the bitmask of the locked stripes
+     */
+    private void unlockStripes(int stripes) {
+        for (int remaining = stripes; remaining != 0; remaining &= remaining - 1) {
+            this.seatLocks[Integer.numberOfTrailingZeros(remaining)].unlock();
+        }
+    }
+
+    /**
+     * Returns the reserved and held seats of this screening that would not fit in a seat layout of the given dimensions.
+     * Nothing is changed, this is meant to warn about a resize before it is made.
+     *
+     * @param nRows the number of rows of the new seat layout
+     * @param nColumns the number of columns of the new seat layout
+     * @return the seats that would be dropped by the resize
+     */
+    public SeatRemapResult previewSeatLayoutRemap(int nRows, int nColumns) {
+        SeatReservationEngine engine = this.getReservationEngine();
+        return this.splitDroppedSeats(engine, engine.getOccupiedSeatsOutside(nRows, nColumns));
+    }
+
+    /**
+     * Fits the reservations and holds of this screening into the current dimensions of its theater.
+     * Seats inside the new layout keep their row and column, the ones outside of it are released
+     * and returned, including any seats dropped since the last call (e.g. by a lookup made while the theater was resized).
+     *
+     * @return the seats that were dropped since the last call
+     */
+    public synchronized SeatRemapResult remapSeatLayout() {
+        this.getReservationEngine();
+        SeatRemapResult result = this.pendingRemapResult;
+        this.pendingRemapResult = null;
+        return result == null ? new SeatRemapResult(null, null) : result;
+    }
+
+    /**
+     * Splits dropped seats into reserved and held seats.
+     *
+     * @param engine the engine holding the seats
+     * @param droppedSeatIndices the packed seat indexes of the dropped seats
+     * @return the dropped seats split by state
+     */
+    private SeatRemapResult splitDroppedSeats(SeatReservationEngine engine, int[] droppedSeatIndices) {
+        int[] reserved = new int[droppedSeatIndices.length];
+        int[] held = new int[droppedSeatIndices.length];
+        int nReserved = 0, nHeld = 0;
+        for (int seatIndex : droppedSeatIndices) {
+            if (engine.isHeld(seatIndex)) {
+                held[nHeld++] = seatIndex;
+            } else {
+                reserved[nReserved++] = seatIndex;
+            }
+        }
+        return new SeatRemapResult(Arrays.copyOf(reserved, nReserved), Arrays.copyOf(held, nHeld));
+    }
+
+    /**
+     * Returns the reservation engine of this screening, matching the dimensions of the current theater.
+     * If the theater was resized, reservations are moved row by row into a new engine. Changes made on the old engine
+     * while they are moved are carried over (see {@link SeatReservationEngine#resize(int, int)}).
+     * Seats that fall outside of the new layout are released and kept for the next {@link #remapSeatLayout()}.
+     *
+     * @return the reservation engine of this screening
+     */
+    public SeatReservationEngine getReservationEngine() {
+        SeatReservationEngine engine = this.reservations;
+        if (engine.getRowLength() == this.theater.getRowLength() && engine.getColumnLength() == this.theater.getColumnLength()) {
+            return engine;
+        }
+        synchronized (this) {
+            engine = this.reservations;
+            int nRows = this.theater.getRowLength();
+            int nColumns = this.theater.getColumnLength();
+            if (engine.getRowLength() != nRows || engine.getColumnLength() != nColumns) {
+                SeatRemapResult dropped = engine.resize(nRows, nColumns);
+                for (int seatIndex : dropped.getDroppedHeldSeatIndices()) {
+                    this.seatHolds.remove(seatIndex);
+                }
+                this.pendingRemapResult = this.pendingRemapResult == null ? dropped : this.pendingRemapResult.merge(dropped);
+                engine = engine.getSuccessor();
+                this.reservations = engine;
+            }
+            return engine;
+        }
+    }
+
+    /**
+     * A read-only set view of the reserved seat IDs.
+     * Seat IDs are formatted lazily while iterating over the set bits of the reservation bitset.
+     */
+    private class ReservedSeatIDSet extends AbstractSet<String> {
+
+        @Override
+        public boolean contains(Object seatID) {
+            return (seatID instanceof String) && Screening.this.isSeatReserved((String) seatID);
+        }
+
+        @Override
+        public int size() {
+            return Screening.this.getReservationEngine().getReservedCount();
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            SeatReservationEngine engine = Screening.this.getReservationEngine();
+            int wordCount = engine.getWordCount();
+            int wordsPerRow = engine.getWordsPerRow();
+
+            return new Iterator<String>() {
+                private int wordIndex = 0;
+                private long word = wordCount > 0 ? engine.getWord(0) & ~engine.getHeldWord(0) : 0;
+
+                @Override
+                public boolean hasNext() {
+                    while (this.word == 0) {
+                        if (++this.wordIndex >= wordCount) {
+                            return false;
+                        }
+                        this.word = engine.getWord(this.wordIndex) & ~engine.getHeldWord(this.wordIndex);
+                    }
+                    return true;
+                }
+
+                @Override
+                public String next() {
+                    if (!this.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int bit = Long.numberOfTrailingZeros(this.word);
+                    this.word &= this.word - 1;
+                    int iRow = this.wordIndex / wordsPerRow;
+                    int iColumn = ((this.wordIndex % wordsPerRow) << 6) + bit;
+                    return Seat.formatSeatID(Seat.toIndex(iRow, iColumn));
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,257 @@
+package screening;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import theater.Theater;
+
+/**
+ * The times at which every theater is booked by its scheduled screenings.
+ *
+ * Each theater has an interval tree of the screenings scheduled in it: a balanced (AVL) binary search tree ordered
+ * by start time, where every node also knows the latest end time below it. A screening occupies its theater from its
+ * start time until the show and the cleaning after it are over (see {@link Screening#getBlockedUntil()}).
+ * Finding a screening that overlaps a time range skips every subtree that ends before the range starts, so a check
+ * costs O(log n) in the number of screenings of the theater, however many screenings a season holds.
+ * Overlapping screenings can still be indexed (e.g. after a show got longer), and are found all the same.
+ *
+ * The schedule only indexes screenings, rejecting overlaps is left to the caller (see {@link #findConflict}).
+ * The interval of every screening is remembered, so it can be moved after its theater, show or start time changed.
+ * Screenings without a start time are not scheduled and never conflict.
+ */
+public class ScreeningSchedule {
+    private final Map<Long, Node> rootsByTheater;
+    private final Map<Long, Node> nodesByScreening;
+
+    public ScreeningSchedule() {
+        this.rootsByTheater = new HashMap<>();
+        this.nodesByScreening = new HashMap<>();
+    }
+
+    // Accessors
+
+    public int size() { return this.nodesByScreening.size(); }
+
+    /**
+     * Finds a screening of the theater that is booked during the given time range.
+     *
+     * @param theater the theater to look in
+     * @param startTime the start of the range
+     * @param blockedUntil the end of the range, excluded
+     * @param ignored a screening that does not count as a conflict, e.g. the one being moved, or null
+     * @return one of the overlapping screenings, or null if the theater is free during the whole range
+     */
+    public Screening findConflict(Theater theater, Instant startTime, Instant blockedUntil, Screening ignored) {
+        if (theater == null || startTime == null) {
+            return null;
+        }
+        return ScreeningSchedule.findOverlap(this.rootsByTheater.get(theater.getID()), startTime.toEpochMilli(), blockedUntil.toEpochMilli(), ignored);
+    }
+
+    /**
+     * Returns the screenings of the theater that are booked during any part of the given time range.
+     * Like a conflict check, this skips every subtree that ends before the range, so it costs O(log n) plus the number of matches.
+     *
+     * @param theater the theater to look in
+     * @param from the start of the range
+     * @param to the end of the range, excluded
+     * @return the overlapping screenings, ordered by start time
+     */
+    public List<Screening> findBetween(Theater theater, Instant from, Instant to) {
+        List<Screening> screenings = new ArrayList<>();
+        ScreeningSchedule.collectOverlaps(this.rootsByTheater.get(theater.getID()), from.toEpochMilli(), to.toEpochMilli(), screenings);
+        return screenings;
+    }
+
+    // Mutators
+
+    /**
+     * Schedules a screening at its current theater and times, removing it from where it was scheduled before.
+     *
+     * @param screening the added or edited screening
+     */
+    public void put(Screening screening) {
+        this.remove(screening);
+        if (screening.getTheater() == null || screening.getStartTime() == null) {
+            return;
+        }
+        Node node = new Node(screening, screening.getTheater().getID(), screening.getStartTime().toEpochMilli(), screening.getBlockedUntil().toEpochMilli());
+        this.nodesByScreening.put(screening.getID(), node);
+        this.rootsByTheater.put(node.theaterID, ScreeningSchedule.insert(this.rootsByTheater.get(node.theaterID), node));
+    }
+
+    /**
+     * Removes a screening from the schedule of its theater.
+     *
+     * @param screening the screening to remove
+     */
+    public void remove(Screening screening) {
+        Node node = this.nodesByScreening.remove(screening.getID());
+        if (node == null) {
+            return;
+        }
+        Node root = ScreeningSchedule.delete(this.rootsByTheater.get(node.theaterID), node);
+        if (root == null) {
+            this.rootsByTheater.remove(node.theaterID);
+        } else {
+            this.rootsByTheater.put(node.theaterID, root);
+        }
+    }
+
+    // Other Methods
+
+    private static Screening findOverlap(Node node, long start, long end, Screening ignored) {
+        if (node == null || node.maxEnd <= start) {
+            return null;
+        }
+        if (node.start < end && start < node.end && node.screening != ignored) {
+            return node.screening;
+        }
+        Screening found = ScreeningSchedule.findOverlap(node.left, start, end, ignored);
+        if (found != null || node.start >= end) {
+            // Everything to the right starts after this node, so after the range too
+            return found;
+        }
+        return ScreeningSchedule.findOverlap(node.right, start, end, ignored);
+    }
+
+    private static void collectOverlaps(Node node, long start, long end, List<Screening> screenings) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        ScreeningSchedule.collectOverlaps(node.left, start, end, screenings);
+        if (node.start >= end) {
+            return;
+        }
+        if (start < node.end) {
+            screenings.add(node.screening);
+        }
+        ScreeningSchedule.collectOverlaps(node.right, start, end, screenings);
+    }
+
+    private static int compare(Node a, Node b) {
+        int byStart = Long.compare(a.start, b.start);
+        return byStart != 0 ? byStart : Long.compare(a.screening.getID(), b.screening.getID());
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (ScreeningSchedule.compare(added, node) < 0) {
+            node.left = ScreeningSchedule.insert(node.left, added);
+        } else {
+            node.right = ScreeningSchedule.insert(node.right, added);
+        }
+        return ScreeningSchedule.rebalance(node);
+    }
+
+    private static Node delete(Node node, Node removed) {
+        if (node == null) {
+            return null;
+        }
+        int order = ScreeningSchedule.compare(removed, node);
+        if (order < 0) {
+            node.left = ScreeningSchedule.delete(node.left, removed);
+        } else if (order > 0) {
+            node.right = ScreeningSchedule.delete(node.right, removed);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Put the next node in time in the place of the removed one
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = ScreeningSchedule.deleteFirst(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return ScreeningSchedule.rebalance(node);
+    }
+
+    private static Node deleteFirst(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = ScreeningSchedule.deleteFirst(node.left);
+        return ScreeningSchedule.rebalance(node);
+    }
+
+    private static Node rebalance(Node node) {
+        node.update();
+        int balance = Node.heightOf(node.left) - Node.heightOf(node.right);
+        if (balance > 1) {
+            if (Node.heightOf(node.left.left) < Node.heightOf(node.left.right)) {
+                node.left = ScreeningSchedule.rotateLeft(node.left);
+            }
+            return ScreeningSchedule.rotateRight(node);
+        }
+        if (balance < -1) {
+            if (Node.heightOf(node.right.right) < Node.heightOf(node.right.left)) {
+                node.right = ScreeningSchedule.rotateRight(node.right);
+            }
+            return ScreeningSchedule.rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    /**
+     * A scheduled screening, with the time range it books its theater for in epoch milliseconds,
+     * and the height and latest end time of the subtree below it.
+     */
+    private static class Node {
+        private final Screening screening;
+        private final long theaterID;
+        private final long start, end;
+        private Node left, right;
+        private int height;
+        private long maxEnd;
+
+        private Node(Screening screening, long theaterID, long start, long end) {
+            this.screening = screening;
+            this.theaterID = theaterID;
+            this.start = start;
+            this.end = end;
+            this.height = 1;
+            this.maxEnd = end;
+        }
+
+        private static int heightOf(Node node) {
+            return node == null ? 0 : node.height;
+        }
+
+        private void update() {
+            this.height = 1 + Math.max(Node.heightOf(this.left), Node.heightOf(this.right));
+            long latest = this.end;
+            if (this.left != null) { latest = Math.max(latest, this.left.maxEnd); }
+            if (this.right != null) { latest = Math.max(latest, this.right.maxEnd); }
+            this.maxEnd = latest;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package screening;
+
+import seat.Seat;
+
+/**
+ * A run of contiguous seats in one row of a theater.
+ */
+public class SeatBlock {
+    private final int iRow;
+    private final int iStartColumn;
+    private final int length;
+    private final double score;
+
+    SeatBlock(int iRow, int iStartColumn, int length, double score) {
+        this.iRow = iRow;
+        this.iStartColumn = iStartColumn;
+        this.length = length;
+        this.score = score;
+    }
+
+    // Accessors
+
+    public int getRowIndex() { return this.iRow; }
+    public int getStartColumnIndex() { return this.iStartColumn; }
+    public int getLength() { return this.length; }
+
+    /**
+     * Returns the ranking score of this block, lower is better.
+     *
+     * @return the ranking score of this block
+     */
+    public double getScore() { return this.score; }
+
+    /**
+     * Returns the packed seat indexes of all seats in this block, from left to right.
+     *
+     * @return the packed seat indexes of the block
+     */
+    public int[] getSeatIndices() {
+        int[] seatIndices = new int[this.length];
+        for (int i = 0; i < this.length; i++) {
+            seatIndices[i] = Seat.toIndex(this.iRow, this.iStartColumn + i);
+        }
+        return seatIndices;
+    }
+
+    /**
+     * Returns a string describing the block in the format "A5-D5", or "A5" for a single seat.
+     *
+     * @return a string describing the block
+     */
+    @Override
+    public String toString() {
+        String first = Seat.formatSeatID(Seat.toIndex(this.iRow, this.iStartColumn));
+        if (this.length == 1) {
+            return first;
+        }
+        return first + "-" + Seat.formatSeatID(Seat.toIndex(this.iRow, this.iStartColumn + this.length - 1));
+    }
+}
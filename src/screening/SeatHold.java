@@ -0,0 +1,37 @@
+package screening;
+
+import seat.Seat;
+
+/**
+ * A temporary hold on a seat of a screening, owned by a customer or terminal until it expires.
+ */
+public class SeatHold {
+    private final Screening screening;
+    private final int seatIndex;
+    private final String ownerToken;
+    private final long expiresAtMillis;
+
+    SeatHold(Screening screening, int seatIndex, String ownerToken, long expiresAtMillis) {
+        this.screening = screening;
+        this.seatIndex = seatIndex;
+        this.ownerToken = ownerToken;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    // Accessors
+
+    public Screening getScreening() { return this.screening; }
+    public int getSeatIndex() { return this.seatIndex; }
+    public String getOwnerToken() { return this.ownerToken; }
+    public long getExpiresAtMillis() { return this.expiresAtMillis; }
+
+    /**
+     * Returns a string describing the hold in the format "A1 held by Kiosk 1".
+     *
+     * @return a string describing the hold
+     */
+    @Override
+    public String toString() {
+        return Seat.formatSeatID(this.seatIndex) + " held by " + this.ownerToken;
+    }
+}
@@ -0,0 +1,82 @@
+package screening;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import seat.Seat;
+
+/**
+ * The outcome of fitting the reservations of a screening into a new seat layout.
+ * Reservations and holds inside the new layout are kept on the same row and column,
+ * the ones that fall outside of it are listed here instead of being dropped silently.
+ */
+public class SeatRemapResult {
+    private static final int[] NO_SEATS = new int[0];
+
+    private final int[] droppedReservedSeatIndices;
+    private final int[] droppedHeldSeatIndices;
+
+    SeatRemapResult(int[] droppedReservedSeatIndices, int[] droppedHeldSeatIndices) {
+        this.droppedReservedSeatIndices = droppedReservedSeatIndices == null ? NO_SEATS : droppedReservedSeatIndices;
+        this.droppedHeldSeatIndices = droppedHeldSeatIndices == null ? NO_SEATS : droppedHeldSeatIndices;
+    }
+
+    // Accessors
+
+    public boolean hasDroppedSeats() { return this.droppedReservedSeatIndices.length > 0 || this.droppedHeldSeatIndices.length > 0; }
+    public int getDroppedSeatCount() { return this.droppedReservedSeatIndices.length + this.droppedHeldSeatIndices.length; }
+    public int[] getDroppedReservedSeatIndices() { return this.droppedReservedSeatIndices.clone(); }
+    public int[] getDroppedHeldSeatIndices() { return this.droppedHeldSeatIndices.clone(); }
+
+    /**
+     * Returns the IDs of the reserved seats that do not fit in the new seat layout.
+     *
+     * @return a list of seat IDs (e.g. "A1", "B2", etc.)
+     */
+    public List<String> getDroppedReservedSeatIDs() {
+        return SeatRemapResult.formatSeatIDs(this.droppedReservedSeatIndices);
+    }
+
+    /**
+     * Returns the IDs of the held seats that do not fit in the new seat layout.
+     *
+     * @return a list of seat IDs (e.g. "A1", "B2", etc.)
+     */
+    public List<String> getDroppedHeldSeatIDs() {
+        return SeatRemapResult.formatSeatIDs(this.droppedHeldSeatIndices);
+    }
+
+    /**
+     * Combines this result with the result of a later remap of the same screening.
+     *
+     * @param other the result of the later remap, may be null
+     * @return a result listing the dropped seats of both remaps
+     */
+    SeatRemapResult merge(SeatRemapResult other) {
+        if (other == null || !other.hasDroppedSeats()) {
+            return this;
+        }
+        if (!this.hasDroppedSeats()) {
+            return other;
+        }
+        return new SeatRemapResult(
+            SeatRemapResult.concat(this.droppedReservedSeatIndices, other.droppedReservedSeatIndices),
+            SeatRemapResult.concat(this.droppedHeldSeatIndices, other.droppedHeldSeatIndices)
+        );
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static List<String> formatSeatIDs(int[] seatIndices) {
+        List<String> seatIDs = new ArrayList<>(seatIndices.length);
+        for (int seatIndex : seatIndices) {
+            seatIDs.add(Seat.formatSeatID(seatIndex));
+        }
+        return seatIDs;
+    }
+}
@@ -0,0 +1,505 @@
+package screening;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import seat.Seat;
+
+/**
+ * Thread-safe store of the reserved seats of a single screening.
+ *
+ * Every seat has a state of two bits: free (00), reserved (01) or held (11). The states are packed 32 seats
+ * to an AtomicLongArray entry, with every row starting on a fresh entry, and every change of a seat is one
+ * compare-and-set from the state it expects to the state it leaves, so two claims on the same seat can never
+ * both succeed and a hold can never be half made or half released. Reads are plain volatile reads and never
+ * take a lock.
+ *
+ * The low bit of every state is the occupied bit. Callers see the seats as words of 64 occupied (or held) bits
+ * per row, see {@link #getWord(int)}, which are gathered from two entries.
+ *
+ * The number of occupied seats, held seats and occupied seats per row are kept as counters next to the states
+ * and updated by every successful change, so occupancy can be read without looking at the seats.
+ * Seats outside of the layout are never changed, e.g. when the layout shrank after a caller checked the seat.
+ *
+ * A resize moves the seats into a new engine (see {@link #resize(int, int)}). Every entry is swapped for the
+ * marker {@link #MOVED} once it is copied, a pattern no seats can make since a seat is never held without being
+ * occupied. Changes that find the marker are retried on the new engine, and reads are forwarded to it, so a
+ * change made on this engine while the copy is running is never lost.
+ */
+public class SeatReservationEngine {
+    private static final int FREE = 0b00;
+    private static final int RESERVED = 0b01;
+    private static final int HELD = 0b11;
+
+    private static final long OCCUPIED_BITS = 0x5555555555555555L;
+    private static final long MOVED = 0xAAAAAAAAAAAAAAAAL;
+
+    private final int nRows, nColumns, wordsPerRow, statesPerRow;
+    private final AtomicLongArray states;
+    private final AtomicInteger occupiedCount, heldCount;
+    private final AtomicIntegerArray rowOccupiedCounts;
+    private volatile SeatReservationEngine successor;
+
+    public SeatReservationEngine(int nRows, int nColumns) {
+        this.nRows = nRows;
+        this.nColumns = nColumns;
+        this.wordsPerRow = (nColumns + 63) >>> 6;
+        this.statesPerRow = this.wordsPerRow << 1;
+        this.states = new AtomicLongArray(nRows * this.statesPerRow);
+        this.occupiedCount = new AtomicInteger();
+        this.heldCount = new AtomicInteger();
+        this.rowOccupiedCounts = new AtomicIntegerArray(nRows);
+    }
+
+    // Accessors
+
+    public int getRowLength() { return this.nRows; }
+    public int getColumnLength() { return this.nColumns; }
+    public int getWordsPerRow() { return this.wordsPerRow; }
+    public int getWordCount() { return this.nRows * this.wordsPerRow; }
+    public int getCapacity() { return this.nRows * this.nColumns; }
+    public int getOccupiedCount() { return this.occupiedCount.get(); }
+    public int getHeldCount() { return this.heldCount.get(); }
+
+    /**
+     * Returns the engine the seats of this engine were moved to by {@link #resize(int, int)}.
+     *
+     * @return the resized engine, or null if this engine was not resized
+     */
+    public SeatReservationEngine getSuccessor() { return this.successor; }
+
+    /**
+     * Returns the number of reserved seats, meaning occupied seats that are not held.
+     *
+     * @return the number of reserved seats
+     */
+    public int getReservedCount() { return Math.max(0, this.occupiedCount.get() - this.heldCount.get()); }
+
+    /**
+     * Returns the number of occupied seats, either reserved or held, in the given row.
+     *
+     * @param iRow the zero-based row
+     * @return the number of occupied seats in the row
+     */
+    public int getRowOccupiedCount(int iRow) { return this.rowOccupiedCounts.get(iRow); }
+
+    /**
+     * Returns the occupied bits of the word at the given position.
+     * Word {@code iRow * getWordsPerRow() + k} holds columns {@code 64k} to {@code 64k + 63} of the row.
+     *
+     * @param wordIndex the position of the word
+     * @return the occupied bits of the word, reserved or held
+     */
+    public long getWord(int wordIndex) {
+        long low = this.readState(wordIndex << 1);
+        long high = this.readState((wordIndex << 1) | 1);
+        return SeatReservationEngine.gatherBits(low) | (SeatReservationEngine.gatherBits(high) << 32);
+    }
+
+    /**
+     * Returns the held bits of the word at the given position.
+     * Held seats are also set in {@link #getWord(int)}.
+     *
+     * @param wordIndex the position of the word
+     * @return the held bits of the word
+     */
+    public long getHeldWord(int wordIndex) {
+        long low = this.readState(wordIndex << 1);
+        long high = this.readState((wordIndex << 1) | 1);
+        return SeatReservationEngine.gatherBits(low >>> 1) | (SeatReservationEngine.gatherBits(high >>> 1) << 32);
+    }
+
+    /**
+     * Returns a copy of the reserved bits of every word, leaving held seats out.
+     * Each word is read once, so a seat that changes during the copy is never half reserved and half held.
+     *
+     * @return the reserved bits, one word per position
+     */
+    public long[] copyReservedWords() {
+        long[] words = new long[this.getWordCount()];
+        for (int i = 0; i < words.length; i++) {
+            long low = this.readState(i << 1);
+            long high = this.readState((i << 1) | 1);
+            words[i] = SeatReservationEngine.gatherBits(low & ~(low >>> 1)) | (SeatReservationEngine.gatherBits(high & ~(high >>> 1)) << 32);
+        }
+        return words;
+    }
+
+    /**
+     * Checks if the given packed seat index lies inside the layout of this engine.
+     *
+     * @param seatIndex the packed seat index
+     * @return true if the seat is part of the layout, false otherwise
+     */
+    public boolean contains(int seatIndex) {
+        return seatIndex >= 0 && Seat.getRowIndex(seatIndex) < this.nRows && Seat.getColumnIndex(seatIndex) < this.nColumns;
+    }
+
+    /**
+     * Checks if the seat with the given packed index is occupied, either reserved or held.
+     *
+     * @param seatIndex the packed seat index
+     * @return true if the seat is occupied, false otherwise (including seats outside of the layout)
+     */
+    public boolean isOccupied(int seatIndex) {
+        return (this.readSeat(seatIndex) & RESERVED) != 0;
+    }
+
+    /**
+     * Checks if the seat with the given packed index is held.
+     *
+     * @param seatIndex the packed seat index
+     * @return true if the seat is held, false otherwise (including seats outside of the layout)
+     */
+    public boolean isHeld(int seatIndex) {
+        return this.readSeat(seatIndex) == HELD;
+    }
+
+    /**
+     * Checks if the seat with the given packed index is reserved, meaning occupied but not held.
+     *
+     * @param seatIndex the packed seat index
+     * @return true if the seat is reserved, false otherwise (including seats outside of the layout)
+     */
+    public boolean isReserved(int seatIndex) {
+        return this.readSeat(seatIndex) == RESERVED;
+    }
+
+    // Mutators
+
+    /**
+     * Atomically claims the seat with the given packed index.
+     *
+     * @param seatIndex the packed seat index
+     * @return true if this call claimed the seat, false if the seat was already reserved or held
+     */
+    public boolean tryReserve(int seatIndex) {
+        return this.tryChange(seatIndex, FREE, RESERVED);
+    }
+
+    /**
+     * Atomically releases the reserved seat with the given packed index.
+     *
+     * @param seatIndex the packed seat index
+     * @return true if this call released the seat, false if the seat was not reserved or is held
+     */
+    public boolean tryRelease(int seatIndex) {
+        return this.tryChange(seatIndex, RESERVED, FREE);
+    }
+
+    /**
+     * Atomically claims the seat with the given packed index as a hold.
+     *
+     * @param seatIndex the packed seat index
+     * @return true if this call held the seat, false if the seat was already reserved or held
+     */
+    public boolean tryHold(int seatIndex) {
+        return this.tryChange(seatIndex, FREE, HELD);
+    }
+
+    /**
+     * Atomically turns the held seat with the given packed index into a reservation.
+     *
+     * @param seatIndex the packed seat index
+     * @return true if this call converted the hold, false if the seat was not held
+     */
+    public boolean tryConfirmHold(int seatIndex) {
+        return this.tryChange(seatIndex, HELD, RESERVED);
+    }
+
+    /**
+     * Atomically releases the held seat with the given packed index, making it available again.
+     *
+     * @param seatIndex the packed seat index
+     * @return true if this call released the hold, false if the seat was not held
+     */
+    public boolean tryReleaseHold(int seatIndex) {
+        return this.tryChange(seatIndex, HELD, FREE);
+    }
+
+    /**
+     * Atomically claims every free seat of the mask in one word (see {@link #getWord(int)}).
+     * Bits past the last column of the row are ignored. This is meant for bulk loads,
+     * such as restoring the reservations of a screening from a saved file.
+     *
+     * @param wordIndex the position of the word
+     * @param mask the seats to claim
+     * @return the bits of the seats claimed by this call
+     */
+    public long tryReserveWord(int wordIndex, long mask) {
+        int base = (wordIndex % this.wordsPerRow) << 6;
+        if (this.nColumns - base < 64) {
+            mask &= (1L << (this.nColumns - base)) - 1;
+        }
+        long low = this.reserveStates(wordIndex << 1, SeatReservationEngine.spreadBits(mask));
+        long high = this.reserveStates((wordIndex << 1) | 1, SeatReservationEngine.spreadBits(mask >>> 32));
+        return SeatReservationEngine.gatherBits(low) | (SeatReservationEngine.gatherBits(high) << 32);
+    }
+
+    /**
+     * Atomically releases every reservation and hold, one entry at a time.
+     * A seat claimed while this runs is either cleared with its entry or claimed right after it.
+     */
+    public synchronized void clear() {
+        if (this.successor != null) {
+            this.successor.clear();
+            return;
+        }
+        for (int i = 0; i < this.states.length(); i++) {
+            long state = this.states.getAndSet(i, 0);
+            if (state == 0) {
+                continue;
+            }
+            int nOccupied = Long.bitCount(state & OCCUPIED_BITS);
+            this.occupiedCount.addAndGet(-nOccupied);
+            this.heldCount.addAndGet(-Long.bitCount((state >>> 1) & OCCUPIED_BITS));
+            this.rowOccupiedCounts.addAndGet(i / this.statesPerRow, -nOccupied);
+        }
+    }
+
+    /**
+     * Moves the reservations and holds of this engine into a new engine with the given dimensions.
+     * Seats keep their row and column, and seats outside of the new layout are dropped and returned
+     * (see {@link #getOccupiedSeatsOutside(int, int)} to find them beforehand).
+     *
+     * Entries are moved one by one: each is copied, then swapped for {@link #MOVED} if no seat of it changed
+     * in the meantime, otherwise the copy is made again. Changes that reach this engine afterwards are made on
+     * the new engine (see {@link #getSuccessor()}), so no reservation is lost and no seat is sold twice.
+     * An engine can only be resized once, later resizes are made on its successor.
+     *
+     * @param nRows the number of rows of the new layout
+     * @param nColumns the number of columns of the new layout
+     * @return the seats that were dropped, as they were when they were moved
+     */
+    public synchronized SeatRemapResult resize(int nRows, int nColumns) {
+        if (this.successor != null) {
+            throw new IllegalStateException("The seats of this engine were already moved to a resized engine.");
+        }
+        SeatReservationEngine resized = new SeatReservationEngine(nRows, nColumns);
+        this.successor = resized;
+
+        int[] reserved = new int[0], held = new int[0];
+        int nReserved = 0, nHeld = 0;
+        for (int iRow = 0; iRow < this.nRows; iRow++) {
+            for (int j = 0; j < this.statesPerRow; j++) {
+                int from = iRow * this.statesPerRow + j;
+                int to = resized.stateIndexOf(iRow, j);
+                long keptMask = to < 0 ? 0 : SeatReservationEngine.columnMask(j, nColumns);
+                long state;
+                do {
+                    state = this.states.get(from);
+                    if (to >= 0) {
+                        resized.states.set(to, state & keptMask);
+                    }
+                } while (!this.states.compareAndSet(from, state, MOVED));
+
+                long kept = state & keptMask;
+                if (kept != 0) {
+                    int nOccupied = Long.bitCount(kept & OCCUPIED_BITS);
+                    resized.occupiedCount.addAndGet(nOccupied);
+                    resized.heldCount.addAndGet(Long.bitCount((kept >>> 1) & OCCUPIED_BITS));
+                    resized.rowOccupiedCounts.addAndGet(iRow, nOccupied);
+                }
+                for (long dropped = state & ~keptMask & OCCUPIED_BITS; dropped != 0; dropped &= dropped - 1) {
+                    int lane = Long.numberOfTrailingZeros(dropped);
+                    int seatIndex = Seat.toIndex(iRow, (j << 5) + (lane >>> 1));
+                    if ((state & (2L << lane)) != 0) {
+                        if (nHeld == held.length) { held = Arrays.copyOf(held, Math.max(8, nHeld * 2)); }
+                        held[nHeld++] = seatIndex;
+                    } else {
+                        if (nReserved == reserved.length) { reserved = Arrays.copyOf(reserved, Math.max(8, nReserved * 2)); }
+                        reserved[nReserved++] = seatIndex;
+                    }
+                }
+            }
+        }
+        return new SeatRemapResult(Arrays.copyOf(reserved, nReserved), Arrays.copyOf(held, nHeld));
+    }
+
+    // Other Methods
+
+    /**
+     * Returns the occupied seats, either reserved or held, that lie outside of the given dimensions.
+     * Rows without occupied seats are skipped using the per-row counts, so the work
+     * depends on the occupied rows rather than on the size of the layout.
+     *
+     * @param nRows the number of rows of the new layout
+     * @param nColumns the number of columns of the new layout
+     * @return the packed seat indexes of the occupied seats outside of the new layout, in row order
+     */
+    public int[] getOccupiedSeatsOutside(int nRows, int nColumns) {
+        int[] outside = new int[0];
+        int nOutside = 0;
+        for (int iRow = 0; iRow < this.nRows; iRow++) {
+            if (this.rowOccupiedCounts.get(iRow) == 0 && this.successor == null) {
+                continue;
+            }
+            int firstColumn = iRow < nRows ? nColumns : 0;
+            for (int k = firstColumn >>> 6; k < this.wordsPerRow; k++) {
+                long word = this.getWord(iRow * this.wordsPerRow + k);
+                if (k == firstColumn >>> 6 && (firstColumn & 63) != 0) {
+                    word &= -1L << firstColumn;
+                }
+                while (word != 0) {
+                    if (nOutside == outside.length) {
+                        outside = Arrays.copyOf(outside, Math.max(8, nOutside * 2));
+                    }
+                    outside[nOutside++] = Seat.toIndex(iRow, (k << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+        return Arrays.copyOf(outside, nOutside);
+    }
+
+    /**
+     * Changes the state of a seat with a compare-and-set loop on the entry holding it.
+     * If the entry was moved by a resize, the change is made on the resized engine instead.
+     *
+     * @param seatIndex the packed seat index
+     * @param from the state the seat must be in
+     * @param to the state to leave the seat in
+     * @return true if this call changed the seat, false if it was not in the expected state or lies outside of the layout
+     */
+    private boolean tryChange(int seatIndex, int from, int to) {
+        if (!this.contains(seatIndex)) {
+            return false;
+        }
+        int stateIndex = this.stateIndexOf(Seat.getRowIndex(seatIndex), Seat.getColumnIndex(seatIndex) >>> 5);
+        int shift = (Seat.getColumnIndex(seatIndex) & 31) << 1;
+        long flip = (long) (from ^ to) << shift;
+        while (true) {
+            long state = this.states.get(stateIndex);
+            if (state == MOVED) {
+                SeatReservationEngine resized = this.successor;
+                return resized.tryChange(seatIndex, from, to);
+            }
+            if ((int) ((state >>> shift) & 3) != from) {
+                return false;
+            }
+            if (this.states.compareAndSet(stateIndex, state, state ^ flip)) {
+                int occupiedChange = (to & 1) - (from & 1);
+                if (occupiedChange != 0) {
+                    this.occupiedCount.addAndGet(occupiedChange);
+                    this.rowOccupiedCounts.addAndGet(Seat.getRowIndex(seatIndex), occupiedChange);
+                }
+                int heldChange = (to >>> 1) - (from >>> 1);
+                if (heldChange != 0) {
+                    this.heldCount.addAndGet(heldChange);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserves every free seat of the given occupied bits in one entry, forwarding to the resized engine if it was moved.
+     *
+     * @param stateIndex the position of the entry
+     * @param occupiedBits the low bits of the seats to reserve
+     * @return the low bits of the seats reserved by this call
+     */
+    private long reserveStates(int stateIndex, long occupiedBits) {
+        while (occupiedBits != 0) {
+            long state = this.states.get(stateIndex);
+            if (state == MOVED) {
+                int to = this.successor.stateIndexOf(stateIndex / this.statesPerRow, stateIndex % this.statesPerRow);
+                return to < 0 ? 0 : this.successor.reserveStates(to, occupiedBits & SeatReservationEngine.columnMask(stateIndex % this.statesPerRow, this.successor.nColumns));
+            }
+            long claimed = occupiedBits & ~state;
+            if (claimed == 0) {
+                return 0;
+            }
+            if (this.states.compareAndSet(stateIndex, state, state | claimed)) {
+                this.occupiedCount.addAndGet(Long.bitCount(claimed));
+                this.rowOccupiedCounts.addAndGet(stateIndex / this.statesPerRow, Long.bitCount(claimed));
+                return claimed;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the state of a seat, read from the resized engine if its entry was moved.
+     *
+     * @param seatIndex the packed seat index
+     * @return the state of the seat, free for seats outside of the layout
+     */
+    private int readSeat(int seatIndex) {
+        if (!this.contains(seatIndex)) {
+            return FREE;
+        }
+        long state = this.readState(this.stateIndexOf(Seat.getRowIndex(seatIndex), Seat.getColumnIndex(seatIndex) >>> 5));
+        return (int) ((state >>> ((Seat.getColumnIndex(seatIndex) & 31) << 1)) & 3);
+    }
+
+    /**
+     * Returns an entry of states, read from the resized engine if it was moved.
+     *
+     * @param stateIndex the position of the entry
+     * @return the states of the 32 seats of the entry
+     */
+    private long readState(int stateIndex) {
+        long state = this.states.get(stateIndex);
+        if (state != MOVED) {
+            return state;
+        }
+        int to = this.successor.stateIndexOf(stateIndex / this.statesPerRow, stateIndex % this.statesPerRow);
+        return to < 0 ? 0 : this.successor.readState(to);
+    }
+
+    /**
+     * Returns the position of the entry holding columns {@code 32j} to {@code 32j + 31} of a row.
+     *
+     * @param iRow the zero-based row
+     * @param j the position of the entry in the row
+     * @return the position of the entry, or -1 if it lies outside of the layout
+     */
+    private int stateIndexOf(int iRow, int j) {
+        return iRow < this.nRows && j < this.statesPerRow ? iRow * this.statesPerRow + j : -1;
+    }
+
+    /**
+     * Returns the bits of the seats of an entry that lie inside a layout of the given width.
+     *
+     * @param j the position of the entry in its row
+     * @param nColumns the number of columns of the layout
+     * @return both bits of every seat before the last column
+     */
+    private static long columnMask(int j, int nColumns) {
+        int nSeats = Math.max(0, Math.min(32, nColumns - (j << 5)));
+        return nSeats == 32 ? -1L : (1L << (nSeats << 1)) - 1;
+    }
+
+    /**
+     * Gathers the even bits of a value into its low 32 bits, e.g. the occupied bits of an entry.
+     *
+     * @param value the bits to gather
+     * @return bit {@code 2i} of the value as bit {@code i}
+     */
+    private static long gatherBits(long value) {
+        value &= OCCUPIED_BITS;
+        value = (value | (value >>> 1)) & 0x3333333333333333L;
+        value = (value | (value >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        value = (value | (value >>> 4)) & 0x00FF00FF00FF00FFL;
+        value = (value | (value >>> 8)) & 0x0000FFFF0000FFFFL;
+        return (value | (value >>> 16)) & 0x00000000FFFFFFFFL;
+    }
+
+    /**
+     * Spreads the low 32 bits of a value onto the even bits, the inverse of {@link #gatherBits(long)}.
+     *
+     * @param value the bits to spread
+     * @return bit {@code i} of the value as bit {@code 2i}
+     */
+    private static long spreadBits(long value) {
+        value &= 0x00000000FFFFFFFFL;
+        value = (value | (value << 16)) & 0x0000FFFF0000FFFFL;
+        value = (value | (value << 8)) & 0x00FF00FF00FF00FFL;
+        value = (value | (value << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        value = (value | (value << 2)) & 0x3333333333333333L;
+        return (value | (value << 1)) & OCCUPIED_BITS;
+    }
+}
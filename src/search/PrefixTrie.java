@@ -0,0 +1,238 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A compact prefix tree (radix tree) from names to IDs, for completing names as they are typed.
+ *
+ * Names are compared in lowercase. Chains of nodes with a single child are merged into one edge labelled with
+ * their characters, so the tree has at most two nodes per name, and each node keeps its children in a sorted
+ * array instead of a map. Completing a prefix walks down to the prefix, then visits the names below it in
+ * alphabetical order and stops after the requested number of IDs, so it never scans the whole collection.
+ * Names can be added, changed and removed one at a time; removing a name merges the nodes it leaves behind.
+ */
+public class PrefixTrie {
+    private final Node root;
+    private final Map<Long, String> namesByID;
+
+    public PrefixTrie() {
+        this.root = new Node("");
+        this.namesByID = new HashMap<>();
+    }
+
+    // Accessors
+
+    public int size() { return this.namesByID.size(); }
+
+    // Mutators
+
+    /**
+     * Adds an ID under a name, or moves it to its new name if it was added before.
+     *
+     * @param id the ID
+     * @param name the current name of the item with the ID
+     */
+    public void put(long id, String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        String previous = this.namesByID.put(id, key);
+        if (key.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            this.removeKey(previous, id);
+        }
+        this.insertKey(key, id);
+    }
+
+    /**
+     * Removes an ID.
+     *
+     * @param id the ID to remove
+     */
+    public void remove(long id) {
+        String previous = this.namesByID.remove(id);
+        if (previous != null) {
+            this.removeKey(previous, id);
+        }
+    }
+
+    // Other Methods
+
+    /**
+     * Returns the first IDs, in alphabetical order of their names, whose name starts with the given prefix.
+     *
+     * @param prefix the start of the name, in any case
+     * @param limit the largest number of IDs to return
+     * @return the IDs of the first matching names
+     */
+    public List<Long> complete(String prefix, int limit) {
+        List<Long> ids = new ArrayList<>();
+        String key = prefix.toLowerCase(Locale.ROOT);
+        Node node = this.root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.getChild(key.charAt(i));
+            if (child == null) {
+                return ids;
+            }
+            int length = Math.min(child.edge.length(), key.length() - i);
+            if (!key.regionMatches(i, child.edge, 0, length)) {
+                return ids;
+            }
+            node = child;
+            i += child.edge.length();
+        }
+        PrefixTrie.collect(node, ids, limit);
+        return ids;
+    }
+
+    private static void collect(Node node, List<Long> ids, int limit) {
+        for (int i = 0; i < node.idCount && ids.size() < limit; i++) {
+            ids.add(node.ids[i]);
+        }
+        for (int i = 0; i < node.childCount && ids.size() < limit; i++) {
+            PrefixTrie.collect(node.children[i], ids, limit);
+        }
+    }
+
+    private void insertKey(String key, long id) {
+        Node node = this.root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.getChild(key.charAt(i));
+            if (child == null) {
+                Node leaf = new Node(key.substring(i));
+                leaf.addID(id);
+                node.addChild(leaf);
+                return;
+            }
+            int common = 1;
+            while (common < child.edge.length() && i + common < key.length() && child.edge.charAt(common) == key.charAt(i + common)) {
+                common++;
+            }
+            if (common < child.edge.length()) {
+                // The key leaves the edge part way, so split the edge where it does
+                Node middle = new Node(child.edge.substring(0, common));
+                node.replaceChild(child, middle);
+                child.edge = child.edge.substring(common);
+                middle.addChild(child);
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        node.addID(id);
+    }
+
+    private void removeKey(String key, long id) {
+        Node parent = null;
+        Node node = this.root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.getChild(key.charAt(i));
+            if (child == null || !key.startsWith(child.edge, i)) {
+                return;
+            }
+            parent = node;
+            node = child;
+            i += child.edge.length();
+        }
+        if (!node.removeID(id) || node == this.root) {
+            return;
+        }
+
+        // Drop the node if nothing is left below it, then merge whichever node is left with a single child
+        if (node.idCount == 0 && node.childCount == 0) {
+            parent.removeChild(node);
+            node = parent;
+        }
+        if (node != this.root && node.idCount == 0 && node.childCount == 1) {
+            Node onlyChild = node.children[0];
+            node.edge = node.edge + onlyChild.edge;
+            node.ids = onlyChild.ids;
+            node.idCount = onlyChild.idCount;
+            node.children = onlyChild.children;
+            node.childCount = onlyChild.childCount;
+        }
+    }
+
+    /**
+     * A node of the tree: the characters of the edge leading to it, the IDs of the names ending at it,
+     * and its children sorted by the first character of their edge.
+     */
+    private static class Node {
+        private String edge;
+        private long[] ids = new long[0];
+        private int idCount;
+        private Node[] children = new Node[0];
+        private int childCount;
+
+        private Node(String edge) {
+            this.edge = edge;
+        }
+
+        private int findChild(char first) {
+            int low = 0, high = this.childCount - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char middleFirst = this.children[middle].edge.charAt(0);
+                if (middleFirst < first) {
+                    low = middle + 1;
+                } else if (middleFirst > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        private Node getChild(char first) {
+            int position = this.findChild(first);
+            return position >= 0 ? this.children[position] : null;
+        }
+
+        private void addChild(Node child) {
+            int position = -this.findChild(child.edge.charAt(0)) - 1;
+            if (this.childCount == this.children.length) {
+                this.children = Arrays.copyOf(this.children, Math.max(2, this.childCount * 2));
+            }
+            System.arraycopy(this.children, position, this.children, position + 1, this.childCount - position);
+            this.children[position] = child;
+            this.childCount++;
+        }
+
+        private void replaceChild(Node child, Node replacement) {
+            this.children[this.findChild(child.edge.charAt(0))] = replacement;
+        }
+
+        private void removeChild(Node child) {
+            int position = this.findChild(child.edge.charAt(0));
+            System.arraycopy(this.children, position + 1, this.children, position, this.childCount - position - 1);
+            this.children[--this.childCount] = null;
+        }
+
+        private void addID(long id) {
+            if (this.idCount == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, Math.max(1, this.idCount * 2));
+            }
+            this.ids[this.idCount++] = id;
+        }
+
+        private boolean removeID(long id) {
+            for (int i = 0; i < this.idCount; i++) {
+                if (this.ids[i] == id) {
+                    System.arraycopy(this.ids, i + 1, this.ids, i, this.idCount - i - 1);
+                    this.idCount--;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package search;
+
+import java.util.Comparator;
+
+/**
+ * A show matching a search query, with its relevance score.
+ */
+public class SearchHit {
+    /**
+     * Orders hits by descending score, and hits with the same score by ascending show ID.
+     */
+    public static final Comparator<SearchHit> BEST_FIRST = Comparator
+        .comparingDouble(SearchHit::getScore).reversed()
+        .thenComparingLong(SearchHit::getShowID);
+
+    private final long showID;
+    private final double score;
+
+    SearchHit(long showID, double score) {
+        this.showID = showID;
+        this.score = score;
+    }
+
+    // Accessors
+
+    public long getShowID() { return this.showID; }
+    public double getScore() { return this.score; }
+}
@@ -0,0 +1,291 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import show.AnimatedMovie;
+import show.ConcertFilm;
+import show.Movie;
+import show.Show;
+
+/**
+ * A full-text inverted index over the shows of the cinema.
+ *
+ * The title, description and credit (lead actor, animation studio or artist) of every show are cut into lowercase
+ * words, and each word maps to the shows containing it, with a weight that counts how often it appears and in which
+ * field: a word in the title weighs more than one in the credit, which weighs more than one in the description.
+ * A query matches the shows containing all of its words and ranks them by the sum of the weights, each scaled by
+ * how rare the word is across the catalog (tf-idf).
+ *
+ * Every indexed show gets a slot number, and the postings of a word are kept as a sorted array of slots with a
+ * parallel array of weights. A query walks the postings of its rarest word and gallops through the others, so it
+ * costs O(shows containing the rarest word), independent of the size of the catalog, without boxing.
+ * The index is updated one show at a time, and keeps the words of every show to unindex them when it changes.
+ */
+public class ShowSearchIndex {
+    public static final int TITLE_WEIGHT = 4;
+    public static final int CREDIT_WEIGHT = 2;
+    public static final int DESCRIPTION_WEIGHT = 1;
+
+    private final Map<String, Postings> postings;
+    private final Map<Long, Integer> slotsByID;
+    private long[] idsBySlot;
+    private String[][] wordsBySlot;
+    private int nextSlot;
+
+    public ShowSearchIndex() {
+        this.postings = new HashMap<>();
+        this.slotsByID = new HashMap<>();
+        this.idsBySlot = new long[16];
+        this.wordsBySlot = new String[16][];
+    }
+
+    // Accessors
+
+    public int size() { return this.slotsByID.size(); }
+    public int getWordCount() { return this.postings.size(); }
+
+    // Mutators
+
+    /**
+     * Indexes a show under the words of its current fields, replacing the words it was indexed under before.
+     *
+     * @param show the added or edited show
+     */
+    public void put(Show show) {
+        Integer existingSlot = this.slotsByID.get(show.getID());
+        int slot;
+        if (existingSlot == null) {
+            slot = this.nextSlot++;
+            if (slot == this.idsBySlot.length) {
+                this.idsBySlot = Arrays.copyOf(this.idsBySlot, slot * 2);
+                this.wordsBySlot = Arrays.copyOf(this.wordsBySlot, slot * 2);
+            }
+            this.idsBySlot[slot] = show.getID();
+            this.slotsByID.put(show.getID(), slot);
+        } else {
+            slot = existingSlot;
+        }
+
+        Map<String, Integer> weights = new HashMap<>();
+        ShowSearchIndex.addWords(weights, show.getTitle(), TITLE_WEIGHT);
+        ShowSearchIndex.addWords(weights, ShowSearchIndex.getCredit(show), CREDIT_WEIGHT);
+        ShowSearchIndex.addWords(weights, show.getDescription(), DESCRIPTION_WEIGHT);
+
+        // After an edit only the words the show lost leave their postings, the others are reweighted in place
+        String[] previousWords = this.wordsBySlot[slot];
+        if (previousWords != null) {
+            for (String word : previousWords) {
+                if (!weights.containsKey(word)) {
+                    this.unindex(word, slot);
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            this.postings.computeIfAbsent(entry.getKey(), word -> new Postings()).put(slot, entry.getValue());
+        }
+        this.wordsBySlot[slot] = weights.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Removes a show from the index.
+     *
+     * @param id the ID of the show
+     */
+    public void remove(long id) {
+        Integer slot = this.slotsByID.remove(id);
+        if (slot == null) {
+            return;
+        }
+        for (String word : this.wordsBySlot[slot]) {
+            this.unindex(word, slot);
+        }
+        this.wordsBySlot[slot] = null;
+    }
+
+    // Other Methods
+
+    /**
+     * Finds the shows containing every word of the query, best match first.
+     *
+     * @param query the words to search for, in any case and separated by anything but letters and digits
+     * @param limit the largest number of results to return
+     * @return the matching shows, ordered by descending score, then by ascending ID
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> words = new LinkedHashSet<>(ShowSearchIndex.tokenize(query));
+        if (words.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        // Look up every word's postings, with the rarest word first; a missing word matches nothing
+        Postings[] wordPostings = new Postings[words.size()];
+        int nWords = 0;
+        for (String word : words) {
+            Postings found = this.postings.get(word);
+            if (found == null) {
+                return new ArrayList<>();
+            }
+            wordPostings[nWords++] = found;
+        }
+        Arrays.sort(wordPostings, (a, b) -> Integer.compare(a.size, b.size));
+        double[] idfs = new double[nWords];
+        for (int i = 0; i < nWords; i++) {
+            idfs[i] = Math.log(1.0 + (double) this.size() / wordPostings[i].size);
+        }
+
+        // Keep the best results in a min-heap whose head is the worst of them
+        PriorityQueue<SearchHit> best = new PriorityQueue<>(limit + 1, SearchHit.BEST_FIRST.reversed());
+        int[] cursors = new int[nWords];
+        Postings rarest = wordPostings[0];
+        candidates:
+        for (int i = 0; i < rarest.size; i++) {
+            int slot = rarest.slots[i];
+            double score = rarest.weights[i] * idfs[0];
+            for (int w = 1; w < nWords; w++) {
+                Postings other = wordPostings[w];
+                cursors[w] = other.seek(slot, cursors[w]);
+                if (cursors[w] == other.size) {
+                    break candidates;
+                }
+                if (other.slots[cursors[w]] != slot) {
+                    continue candidates;
+                }
+                score += other.weights[cursors[w]] * idfs[w];
+            }
+            if (best.size() == limit) {
+                SearchHit worst = best.peek();
+                if (score < worst.getScore() || (score == worst.getScore() && this.idsBySlot[slot] > worst.getShowID())) {
+                    continue;
+                }
+                best.poll();
+            }
+            best.add(new SearchHit(this.idsBySlot[slot], score));
+        }
+
+        List<SearchHit> hits = new ArrayList<>(best);
+        Collections.sort(hits, SearchHit.BEST_FIRST);
+        return hits;
+    }
+
+    /**
+     * Cuts text into lowercase words, at every character that is not a letter or digit.
+     *
+     * @param text the text to cut, may be null
+     * @return the words of the text, in order and with duplicates
+     */
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String lowercase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowercase.length(); i++) {
+            boolean wordCharacter = i < lowercase.length() && Character.isLetterOrDigit(lowercase.charAt(i));
+            if (wordCharacter && start < 0) {
+                start = i;
+            } else if (!wordCharacter && start >= 0) {
+                words.add(lowercase.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Removes a slot from the postings of a word, and the word once no show contains it.
+     */
+    private void unindex(String word, int slot) {
+        Postings wordPostings = this.postings.get(word);
+        wordPostings.remove(slot);
+        if (wordPostings.size == 0) {
+            this.postings.remove(word);
+        }
+    }
+
+    private static void addWords(Map<String, Integer> weights, String text, int weight) {
+        for (String word : ShowSearchIndex.tokenize(text)) {
+            weights.merge(word, weight, Integer::sum);
+        }
+    }
+
+    private static String getCredit(Show show) {
+        if (show instanceof Movie) {
+            return ((Movie) show).getLeadActor();
+        } else if (show instanceof AnimatedMovie) {
+            return ((AnimatedMovie) show).getStudio();
+        } else if (show instanceof ConcertFilm) {
+            return ((ConcertFilm) show).getArtist();
+        }
+        return null;
+    }
+
+    /**
+     * The slots of the shows containing a word, in ascending order, with the weight of the word in each show.
+     * New shows get the highest slot, so adding them appends to the arrays.
+     */
+    private static class Postings {
+        private int[] slots = new int[4];
+        private int[] weights = new int[4];
+        private int size;
+
+        private void put(int slot, int weight) {
+            int position = this.size == 0 || this.slots[this.size - 1] < slot
+                ? -this.size - 1
+                : Arrays.binarySearch(this.slots, 0, this.size, slot);
+            if (position >= 0) {
+                this.weights[position] = weight;
+                return;
+            }
+            position = -position - 1;
+            if (this.size == this.slots.length) {
+                this.slots = Arrays.copyOf(this.slots, this.size * 2);
+                this.weights = Arrays.copyOf(this.weights, this.size * 2);
+            }
+            System.arraycopy(this.slots, position, this.slots, position + 1, this.size - position);
+            System.arraycopy(this.weights, position, this.weights, position + 1, this.size - position);
+            this.slots[position] = slot;
+            this.weights[position] = weight;
+            this.size++;
+        }
+
+        private void remove(int slot) {
+            int position = Arrays.binarySearch(this.slots, 0, this.size, slot);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(this.slots, position + 1, this.slots, position, this.size - position - 1);
+            System.arraycopy(this.weights, position + 1, this.weights, position, this.size - position - 1);
+            this.size--;
+        }
+
+        /**
+         * Finds the first position at or after the given one whose slot is not below the target,
+         * galloping forward and then searching the last gap.
+         *
+         * @return the position, or size if every remaining slot is below the target
+         */
+        private int seek(int target, int from) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < this.size && this.slots[high] < target) {
+                low = high + 1;
+                high = from + step;
+                step <<= 1;
+            }
+            high = Math.min(high, this.size);
+            int position = Arrays.binarySearch(this.slots, low, high, target);
+            return position >= 0 ? position : -position - 1;
+        }
+    }
+}
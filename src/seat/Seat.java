@@ -1,18 +1,168 @@
 package seat;
 
+/**
+ * A lightweight view of a single seat, identified only by its packed seat index.
+ * Theaters do not keep Seat objects, they are created when a seat is referenced
+ * and the seat ID is only formatted when it is asked for.
+ */
 public class Seat {
-    private final String seatID;
+    /**
+     * The seat index returned for seats that are not part of a layout.
+     */
+    public static final int INVALID_INDEX = -1;
+
+    private final int seatIndex;
 
-    public Seat(String seatID) {
-        this.seatID = seatID;
+    public Seat(int seatIndex) {
+        this.seatIndex = seatIndex;
     }
 
+    public int getSeatIndex() { return this.seatIndex; }
+
+    /**
+     * Returns the row number of this seat (1-indexed).
+     *
+     * @return the row number of this seat
+     */
+    public int getRow() { return Seat.getRowIndex(this.seatIndex) + 1; }
+
+    /**
+     * Returns the column label of this seat (e.g. "A", "AB", etc.).
+     *
+     * @return the column label of this seat
+     */
+    public String getColumnLabel() { return Seat.formatColumnLabel(Seat.getColumnIndex(this.seatIndex)); }
+
     /**
-     * Returns the ID of this seat in the format "A1", "B2", etc.
-     * 
+     * Returns the ID of this seat in the format "A1", "B2", "AA10", etc.
+     *
      * @return the ID of this seat
      */
     public String getSeatID() {
-        return this.seatID;
+        return Seat.formatSeatID(this.seatIndex);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return (other instanceof Seat) && ((Seat) other).seatIndex == this.seatIndex;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.seatIndex;
+    }
+
+    // Seat Index Utilities
+
+    /**
+     * Packs a zero-based row and column into a single seat index.
+     * The row is stored in the upper 16 bits and the column in the lower 16 bits,
+     * so the index does not depend on the dimensions of the theater.
+     *
+     * @param iRow the zero-based row of the seat
+     * @param iColumn the zero-based column of the seat
+     * @return the packed seat index
+     */
+    public static int toIndex(int iRow, int iColumn) {
+        return (iRow << 16) | iColumn;
+    }
+
+    /**
+     * Returns the zero-based row of a packed seat index.
+     *
+     * @param seatIndex the packed seat index
+     * @return the zero-based row of the seat
+     */
+    public static int getRowIndex(int seatIndex) {
+        return seatIndex >>> 16;
+    }
+
+    /**
+     * Returns the zero-based column of a packed seat index.
+     *
+     * @param seatIndex the packed seat index
+     * @return the zero-based column of the seat
+     */
+    public static int getColumnIndex(int seatIndex) {
+        return seatIndex & 0xFFFF;
+    }
+
+    /**
+     * Converts a column letter into a zero-based column index.
+     *
+     * @param column the column letter of the seat (e.g. 'A', 'b', etc.)
+     * @return the zero-based column index, or -1 if the character is not a letter
+     */
+    public static int toColumnIndex(char column) {
+        if (column >= 'A' && column <= 'Z') {
+            return column - 'A';
+        }
+        if (column >= 'a' && column <= 'z') {
+            return column - 'a';
+        }
+        return -1;
+    }
+
+    /**
+     * Converts a column label into a zero-based column index.
+     * Labels run A to Z, then AA, AB and so on, like spreadsheet columns.
+     *
+     * @param label the column label of the seat (e.g. "A", "ab", etc.)
+     * @return the zero-based column index, or -1 if the label is empty or not made of letters
+     */
+    public static int toColumnIndex(CharSequence label) {
+        if (label.length() == 0 || label.length() > 3) {
+            return -1;
+        }
+        int column = 0;
+        for (int i = 0; i < label.length(); i++) {
+            int letter = Seat.toColumnIndex(label.charAt(i));
+            if (letter < 0) {
+                return -1;
+            }
+            column = column * 26 + letter + 1;
+        }
+        return column - 1;
+    }
+
+    /**
+     * Formats a zero-based column index as a column label (e.g. "A", "Z", "AA", "AB", etc.).
+     *
+     * @param iColumn the zero-based column index
+     * @return the column label
+     */
+    public static String formatColumnLabel(int iColumn) {
+        if (iColumn < 26) {
+            return String.valueOf((char) ('A' + iColumn));
+        }
+        StringBuilder label = new StringBuilder(3);
+        for (int column = iColumn + 1; column > 0; column = (column - 1) / 26) {
+            label.append((char) ('A' + (column - 1) % 26));
+        }
+        return label.reverse().toString();
+    }
+
+    /**
+     * Returns the length of the longest column label in a layout with the given number of columns.
+     *
+     * @param nColumns the number of columns in the layout
+     * @return the length of the longest column label
+     */
+    public static int getColumnLabelWidth(int nColumns) {
+        return nColumns <= 26 ? 1 : Seat.formatColumnLabel(nColumns - 1).length();
+    }
+
+    /**
+     * Formats a packed seat index as a seat ID in the format "A1", "B2", "AA10", etc.
+     * This is only meant for display, the booking paths work on seat indexes.
+     *
+     * @param seatIndex the packed seat index
+     * @return the seat ID of the seat
+     */
+    public static String formatSeatID(int seatIndex) {
+        if (seatIndex < 0) {
+            return "?";
+        }
+        return Seat.formatColumnLabel(getColumnIndex(seatIndex)) + (getRowIndex(seatIndex) + 1);
     }
 }
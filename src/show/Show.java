@@ -2,25 +2,41 @@ package show;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class Show {
+    private static final AtomicLong nextID = new AtomicLong(1);
+
+    private long id;
     private String title;
     private String description;
     private int releaseYear;
     private Duration duration;
 
     public Show(String title, String description, int releaseYear, Duration duration) {
+        this.id = Show.nextID.getAndIncrement();
         this.title = title;
         this.description = description;
         this.releaseYear = releaseYear;
         this.duration = duration;
     }
 
+    public long getID() { return this.id; }
     public String getTitle() { return this.title; }
     public String getDescription() { return this.description; }
     public int getReleaseYear() { return this.releaseYear; }
     public Duration getDuration() { return this.duration; }
 
+    /**
+     * Sets the ID of this show, used when restoring saved shows.
+     * Shows created afterwards are given IDs after the largest restored ID.
+     * 
+     * @param id the saved ID of this show
+     */
+    public void setID(long id) {
+        this.id = id;
+        Show.nextID.accumulateAndGet(id + 1, Math::max);
+    }
     public void setTitle(String title) { this.title = title; }
     public void setDescription(String description) { this.description = description; }
     public void setReleaseYear(int releaseYear) { this.releaseYear = releaseYear; }
@@ -2,15 +2,18 @@ package theater;
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import seat.Seat;
 import screening.Screening;
 
 public class Theater {
+    private static final AtomicLong nextID = new AtomicLong(1);
+
+    private long id;
     private String name;
     private int nRows, nColumns;
-    private Seat[][] seatLayout;
-    private String seatAvailableIcon, seatUnavailableIcon;
+    private String seatAvailableIcon, seatUnavailableIcon, seatHeldIcon;
     private Screening currentScreening;
 
     public Theater(String name, int nRows, int nColumns) {
@@ -18,32 +21,78 @@ public class Theater {
     }
 
     public Theater(String name, int nRows, int nColumns, String seatAvailableIcon, String seatUnavailableIcon) {
+        this.id = Theater.nextID.getAndIncrement();
         this.name = name;
         this.nRows = nRows;
         this.nColumns = nColumns;
         this.seatAvailableIcon = seatAvailableIcon;
         this.seatUnavailableIcon = seatUnavailableIcon;
+        this.seatHeldIcon = "h";
         this.currentScreening = null;
-        this.generateSeatLayout();
     }
 
     // Accessors
 
+    public long getID() { return this.id; }
     public String getName() { return this.name; }
     public int getRowLength() { return this.nRows; }
     public int getColumnLength() { return this.nColumns; }
+    public String getSeatAvailableIcon() { return this.seatAvailableIcon; }
+    public String getSeatUnavailableIcon() { return this.seatUnavailableIcon; }
+    public String getSeatHeldIcon() { return this.seatHeldIcon; }
     
     /**
      * Retrieves a seat from the theater's seat layout based on the given row and column.
      * 
      * @param row the row number of the seat (1-indexed)
      * @param column the column letter of the seat (e.g. 'A', 'B', etc.)
-     * @return the corresponding Seat object
+     * @return the corresponding Seat object, or null if the seat is not in the theater's seat layout
      */
     public Seat getSeat(int row, char column) { 
-        int iRow = row - 1;
-        int iColumn = (int) column - 65;
-        return this.seatLayout[iRow][iColumn]; 
+        return this.getSeat(this.getSeatIndex(row, column));
+    }
+
+    /**
+     * Retrieves a seat from the theater's seat layout based on the given seat index.
+     * Seats are not stored by the theater, the returned Seat is a view created on demand.
+     * 
+     * @param seatIndex the packed seat index (see {@link Seat#toIndex(int, int)})
+     * @return the corresponding Seat object, or null if the seat is not in the theater's seat layout
+     */
+    public Seat getSeat(int seatIndex) {
+        if (!this.isValidSeatIndex(seatIndex)) {
+            return null;
+        }
+        return new Seat(seatIndex);
+    }
+
+    /**
+     * Returns the packed seat index of the seat at the given row and column.
+     * 
+     * @param row the row number of the seat (1-indexed)
+     * @param column the column letter of the seat (e.g. 'A', 'B', etc.)
+     * @return the packed seat index, or {@link Seat#INVALID_INDEX} if the seat is not in the theater's seat layout
+     */
+    public int getSeatIndex(int row, char column) {
+        return this.toSeatIndex(row - 1, Seat.toColumnIndex(column));
+    }
+
+    /**
+     * Returns the packed seat index of the seat at the given row and column label.
+     * 
+     * @param row the row number of the seat (1-indexed)
+     * @param columnLabel the column label of the seat (e.g. "A", "AB", etc.)
+     * @return the packed seat index, or {@link Seat#INVALID_INDEX} if the seat is not in the theater's seat layout
+     */
+    public int getSeatIndex(int row, String columnLabel) {
+        return this.toSeatIndex(row - 1, Seat.toColumnIndex(columnLabel));
+    }
+
+    private int toSeatIndex(int iRow, int iColumn) {
+        if (iRow < 0 || iRow >= this.nRows || iColumn < 0 || iColumn >= this.nColumns) {
+            return Seat.INVALID_INDEX;
+        }
+        return Seat.toIndex(iRow, iColumn);
     }
 
     /**
@@ -57,6 +106,16 @@ public class Theater {
 
     // Mutators
 
+    /**
+     * Sets the ID of this theater, used when restoring saved theaters.
+     * Theaters created afterwards are given IDs after the largest restored ID.
+     * 
+     * @param id the saved ID of this theater
+     */
+    public void setID(long id) {
+        this.id = id;
+        Theater.nextID.accumulateAndGet(id + 1, Math::max);
+    }
     public void setName(String name) { this.name = name; }
 
     /**
@@ -71,23 +130,18 @@ public class Theater {
     }
     
     /**
-     * Generates the seat layout for the theater based on the current row and column counts.
-     * This method populates the seatLayout array with Seat objects, each with a unique ID
-     * based on the row and column number in the format "A1", "B2", etc.
+     * Sets the icon used to represent held seats in the theater's seat layout.
+     * 
+     * @param seatHeldIcon the icon to use for held seats
      */
-    private void generateSeatLayout() {
-        this.seatLayout = new Seat[this.nRows][this.nColumns];
-        for (int iRow = 0; iRow < this.nRows; iRow++) {
-            for (int iColumn = 0; iColumn < this.nColumns; iColumn++) {
-                this.seatLayout[iRow][iColumn] = new Seat(String.format("%c%d", (char) iColumn + 65, iRow + 1));
-            }
-        }
+    public void setSeatHeldIcon(String seatHeldIcon) {
+        this.seatHeldIcon = seatHeldIcon;
     }
 
     /**
      * Sets the dimensions of the theater's seat layout.
-     * This method populates the seatLayout array with Seat objects, each with a unique ID
-     * based on the row and column number in the format "A1", "B2", etc.
+     * No seats are allocated, seats are addressed by their packed index and their IDs
+     * (in the format "A1", "B2", "AA10", etc.) are computed when needed.
      * 
      * @param nRows the number of rows in the theater's seat layout
      * @param nColumns the number of columns in the theater's seat layout
@@ -95,7 +149,6 @@ public class Theater {
     public void setSeatLayoutDimensions(int nRows, int nColumns) {
         this.nRows = nRows;
         this.nColumns = nColumns;
-        this.generateSeatLayout();
     }
 
     // Other Methods
@@ -108,9 +161,17 @@ public class Theater {
      * @return true if the seat is valid, false otherwise
      */
     public boolean isValidSeat(int row, char column) {
-        int iRow = row - 1;
-        int iColumn = (int) column - 65;
-        return (iRow >= 0 && iRow < this.nRows && iColumn >= 0 && iColumn < this.nColumns);
+        return this.getSeatIndex(row, column) != Seat.INVALID_INDEX;
+    }
+
+    /**
+     * Checks if a given packed seat index is valid in the theater's seat layout.
+     * 
+     * @param seatIndex the packed seat index
+     * @return true if the seat is valid, false otherwise
+     */
+    public boolean isValidSeatIndex(int seatIndex) {
+        return seatIndex >= 0 && Seat.getRowIndex(seatIndex) < this.nRows && Seat.getColumnIndex(seatIndex) < this.nColumns;
     }
 
     /**
@@ -123,9 +184,76 @@ public class Theater {
         if (this.currentScreening == null) {
             return this.generateSeatLayoutDisplay(Collections.emptySet());
         }
-        return this.generateSeatLayoutDisplay(this.currentScreening.getReservedSeatIDs());
+        return this.generateSeatLayoutDisplay(this.currentScreening);
     };
 
+    /**
+     * Generates a string representation of the theater's seat layout with the reserved and held seats of the given screening.
+     * Seats are looked up by their packed index, so no seat IDs are formatted while rendering.
+     * @param screening the screening whose reserved seats should be highlighted
+     * @return a string representation of the theater's seat layout, including the current state of reserved seats
+     */
+    public String generateSeatLayoutDisplay(Screening screening) {
+        int columnWidth = Seat.getColumnLabelWidth(this.nColumns);
+        StringBuilder result = new StringBuilder((this.nRows + 1) * (this.nColumns * (columnWidth + 1) + 4));
+        this.appendColumnHeader(result, columnWidth);
+
+        for (int iRow = 0; iRow < this.nRows; iRow++) {
+            result.append('\n');
+            this.appendSeatRow(result, screening, iRow, columnWidth);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Generates the first line of the seat layout display, which holds the column labels.
+     * 
+     * @return the column label line of the seat layout display
+     */
+    public String generateSeatLayoutHeader() {
+        StringBuilder result = new StringBuilder();
+        this.appendColumnHeader(result, Seat.getColumnLabelWidth(this.nColumns));
+        return result.toString();
+    }
+
+    /**
+     * Generates a single row of the seat layout display with the reserved and held seats of the given screening.
+     * Joining the header and every row with line breaks gives the same result as {@link #generateSeatLayoutDisplay(Screening)}.
+     * 
+     * @param screening the screening whose reserved seats should be highlighted
+     * @param iRow the zero-based row to generate
+     * @return the line of the seat layout display for the row
+     */
+    public String generateSeatLayoutRow(Screening screening, int iRow) {
+        int columnWidth = Seat.getColumnLabelWidth(this.nColumns);
+        StringBuilder result = new StringBuilder(this.nColumns * (columnWidth + 1) + 4);
+        this.appendSeatRow(result, screening, iRow, columnWidth);
+        return result.toString();
+    }
+
+    /**
+     * Appends the row number and the seats of a single row of the seat layout display.
+     * 
+     * @param result the builder of the seat layout display
+     * @param screening the screening whose reserved seats should be highlighted
+     * @param iRow the zero-based row
+     * @param columnWidth the width of a single column
+     */
+    private void appendSeatRow(StringBuilder result, Screening screening, int iRow, int columnWidth) {
+        this.appendRowLabel(result, iRow);
+        for (int iColumn = 0; iColumn < this.nColumns; iColumn++) {
+            int seatIndex = Seat.toIndex(iRow, iColumn);
+            if (screening.isSeatHeld(seatIndex)) {
+                Theater.appendCell(result, this.seatHeldIcon, columnWidth);
+            } else if (screening.isSeatReserved(seatIndex)) {
+                Theater.appendCell(result, this.seatUnavailableIcon, columnWidth);
+            } else {
+                Theater.appendCell(result, this.seatAvailableIcon, columnWidth);
+            }
+        }
+    }
+
     /**
      * Generates a string representation of the theater's seat layout, including the current state of reserved seats.
      * If the theater is currently screening a show, the reserved seats for that show will be highlighted.
@@ -134,21 +262,18 @@ public class Theater {
      * @return a string representation of the theater's seat layout, including the current state of reserved seats
      */
     public String generateSeatLayoutDisplay(Set<String> reservedSeatIDs) {
-        StringBuilder result = new StringBuilder("  ");
-
-        for (int i = 0; i < this.nColumns; i++) {
-            result.append(' ');
-            result.append((char) (i + 65));
-        }
+        int columnWidth = Seat.getColumnLabelWidth(this.nColumns);
+        StringBuilder result = new StringBuilder();
+        this.appendColumnHeader(result, columnWidth);
 
         for (int iRow = 0; iRow < this.nRows; iRow++) {
-            result.append(String.format("\n%2s", iRow + 1));
+            result.append('\n');
+            this.appendRowLabel(result, iRow);
             for (int iColumn = 0; iColumn < this.nColumns; iColumn++) {
-                result.append(' ');
-                if (reservedSeatIDs.contains(this.seatLayout[iRow][iColumn].getSeatID())) {
-                    result.append(this.seatUnavailableIcon);
+                if (!reservedSeatIDs.isEmpty() && reservedSeatIDs.contains(Seat.formatSeatID(Seat.toIndex(iRow, iColumn)))) {
+                    Theater.appendCell(result, this.seatUnavailableIcon, columnWidth);
                 } else {
-                    result.append(this.seatAvailableIcon);
+                    Theater.appendCell(result, this.seatAvailableIcon, columnWidth);
                 }
             };
         }
@@ -156,6 +281,52 @@ public class Theater {
         return result.toString();
     };
 
+    /**
+     * Appends the row of column labels of the seat layout display, each label right-aligned to the given width.
+     * 
+     * @param result the builder of the seat layout display
+     * @param columnWidth the width of a single column
+     */
+    private void appendColumnHeader(StringBuilder result, int columnWidth) {
+        Theater.appendPadding(result, this.getRowLabelWidth());
+        for (int iColumn = 0; iColumn < this.nColumns; iColumn++) {
+            Theater.appendCell(result, Seat.formatColumnLabel(iColumn), columnWidth);
+        }
+    }
+
+    /**
+     * Appends the right-aligned row number of a line of the seat layout display.
+     * 
+     * @param result the builder of the seat layout display
+     * @param iRow the zero-based row
+     */
+    private void appendRowLabel(StringBuilder result, int iRow) {
+        String rowLabel = String.valueOf(iRow + 1);
+        Theater.appendPadding(result, this.getRowLabelWidth() - rowLabel.length());
+        result.append(rowLabel);
+    }
+
+    /**
+     * Returns the width of the row numbers of the seat layout display, at least 2.
+     * 
+     * @return the width of the row numbers
+     */
+    private int getRowLabelWidth() {
+        return Math.max(2, String.valueOf(this.nRows).length());
+    }
+
+    private static void appendCell(StringBuilder result, String cell, int columnWidth) {
+        result.append(' ');
+        Theater.appendPadding(result, columnWidth - cell.length());
+        result.append(cell);
+    }
+
+    private static void appendPadding(StringBuilder result, int width) {
+        for (int i = 0; i < width; i++) {
+            result.append(' ');
+        }
+    }
+
     /**
      * Starts a screening for the given show in the theater.
      * 
@@ -0,0 +1,430 @@
+package screening;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import seat.InvalidSeatException;
+import seat.Seat;
+import seat.SeatConflictException;
+import theater.Theater;
+
+/**
+ * Hammers the seat reservation engine from many threads and checks that no seat was lost or sold twice.
+ *
+ * Every worker claims random seats and only releases, confirms or gives up the seats it claimed itself, keeping
+ * its own record of them. While they run, the layout is shrunk step by step, so the seats are moved to resized
+ * engines in the middle of the claims. Afterwards the records of all workers must not overlap, and together they
+ * must be exactly the seats of the engine, with its occupied, held and per-row counts matching.
+ *
+ * The first run drives the engine directly. The second runs through a screening, with group reservations and
+ * holds that expire on the hold timer wheel while their owners try to confirm or release them. Its changes are
+ * reported to a listener that puts them in one order, as the journal does, and replaying them in that order
+ * must give back the reserved seats of the screening.
+ *
+ * Build and run from the project root:
+ * <pre>
+ * javac -d out -sourcepath src tools/screening/SeatReservationStress.java
+ * java -cp out screening.SeatReservationStress [threads] [seconds]
+ * </pre>
+ * The exit code is 1 if a check failed.
+ */
+public class SeatReservationStress {
+    private static final int N_ROWS = 60, N_COLUMNS = 150;
+    private static final int N_RESIZES = 8;
+
+    private final int nThreads;
+    private final long runMillis;
+    private final List<String> failures;
+
+    private SeatReservationStress(int nThreads, long runMillis) {
+        this.nThreads = nThreads;
+        this.runMillis = runMillis;
+        this.failures = new ArrayList<>();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int nThreads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        long runMillis = (args.length > 1 ? Long.parseLong(args[1]) : 3) * 1000;
+
+        SeatReservationStress stress = new SeatReservationStress(nThreads, runMillis);
+        stress.runEngine();
+        stress.runScreening();
+
+        if (stress.failures.isEmpty()) {
+            System.out.println("All checks passed.");
+            return;
+        }
+        for (String failure : stress.failures) {
+            System.out.println("FAILED: " + failure);
+        }
+        System.exit(1);
+    }
+
+    // Engine Run
+
+    /**
+     * Claims, releases, holds, confirms and releases holds on the engine directly while it is resized.
+     */
+    private void runEngine() throws InterruptedException {
+        AtomicReference<SeatReservationEngine> current = new AtomicReference<>(new SeatReservationEngine(N_ROWS, N_COLUMNS));
+        Set<Integer> dropped = ConcurrentHashMap.newKeySet();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Map<Integer, Integer>> owned = new ArrayList<>();
+        List<List<Integer>> lostClaims = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        long[] nChanges = new long[this.nThreads];
+
+        for (int t = 0; t < this.nThreads; t++) {
+            Map<Integer, Integer> mine = new HashMap<>();
+            List<Integer> lost = new ArrayList<>();
+            owned.add(mine);
+            lostClaims.add(lost);
+            int worker = t;
+            threads.add(new Thread(() -> {
+                Random random = new Random(worker);
+                List<Integer> seats = new ArrayList<>();
+                while (running.get()) {
+                    SeatReservationEngine engine = current.get();
+                    int op = random.nextInt(7);
+                    if (op < 3 || seats.isEmpty()) {
+                        int seatIndex = Seat.toIndex(random.nextInt(N_ROWS), random.nextInt(N_COLUMNS));
+                        boolean hold = op == 2;
+                        if (engine.contains(seatIndex) && (hold ? engine.tryHold(seatIndex) : engine.tryReserve(seatIndex))) {
+                            if (mine.put(seatIndex, hold ? 3 : 1) == null) {
+                                seats.add(seatIndex);
+                            }
+                            nChanges[worker]++;
+                        }
+                        continue;
+                    }
+                    int position = random.nextInt(seats.size());
+                    int seatIndex = seats.get(position);
+                    boolean held = mine.get(seatIndex) == 3;
+                    boolean changed;
+                    if (!engine.contains(seatIndex)) {
+                        changed = false;
+                    } else if (!held) {
+                        changed = engine.tryRelease(seatIndex);
+                    } else if (op < 5) {
+                        changed = engine.tryConfirmHold(seatIndex);
+                    } else {
+                        changed = engine.tryReleaseHold(seatIndex);
+                    }
+                    if (!changed) {
+                        // Only a resize can take an owned seat away, checked once the resizes are done
+                        lost.add(seatIndex);
+                    } else {
+                        nChanges[worker]++;
+                    }
+                    if (!changed || !held || op >= 5) {
+                        mine.remove(seatIndex);
+                        seats.set(position, seats.get(seats.size() - 1));
+                        seats.remove(seats.size() - 1);
+                    } else {
+                        mine.put(seatIndex, 1);
+                    }
+                }
+            }, "engine-worker-" + t));
+        }
+
+        Thread resizer = new Thread(() -> {
+            Random random = new Random(-1);
+            for (int i = 0; i < N_RESIZES; i++) {
+                SeatReservationStress.sleep(this.runMillis / (N_RESIZES + 1));
+                SeatReservationEngine engine = current.get();
+                int nRows = engine.getRowLength() - 1 - random.nextInt(3);
+                int nColumns = engine.getColumnLength() - 1 - random.nextInt(12);
+                SeatRemapResult result = engine.resize(nRows, nColumns);
+                for (int seatIndex : result.getDroppedReservedSeatIndices()) { dropped.add(seatIndex); }
+                for (int seatIndex : result.getDroppedHeldSeatIndices()) { dropped.add(seatIndex); }
+                current.set(engine.getSuccessor());
+            }
+        }, "engine-resizer");
+
+        this.runAll(threads, resizer, running);
+
+        SeatReservationEngine engine = current.get();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int t = 0; t < this.nThreads; t++) {
+            for (Map.Entry<Integer, Integer> entry : owned.get(t).entrySet()) {
+                if (dropped.contains(entry.getKey())) {
+                    continue;
+                }
+                Integer other = expected.put(entry.getKey(), entry.getValue());
+                if (other != null) {
+                    this.failures.add("Engine: seat " + Seat.formatSeatID(entry.getKey()) + " is owned by two workers");
+                }
+            }
+            for (int seatIndex : lostClaims.get(t)) {
+                if (!dropped.contains(seatIndex)) {
+                    this.failures.add("Engine: seat " + Seat.formatSeatID(seatIndex) + " was taken from its owner without a resize");
+                }
+            }
+        }
+        this.checkEngine("Engine", engine, expected);
+
+        long total = 0;
+        for (long n : nChanges) { total += n; }
+        System.out.printf("Engine: %d threads made %d changes through %d resizes, %d seats left, %d dropped%n",
+            this.nThreads, total, N_RESIZES, engine.getOccupiedCount(), dropped.size());
+    }
+
+    // Screening Run
+
+    /**
+     * Reserves, releases, holds, confirms and releases holds through a screening while holds expire and the theater shrinks.
+     */
+    private void runScreening() throws InterruptedException {
+        Theater theater = new Theater("Stress", N_ROWS, N_COLUMNS);
+        Screening screening = new Screening(theater, null, ExperienceType.STANDARD_2D);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Set<Integer>> reservedBy = new ArrayList<>();
+        List<Map<Integer, String>> heldBy = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        long[] nExpiries = new long[1];
+        List<int[]> reported = new ArrayList<>();
+        screening.setReservationListener(new ReservationListener() {
+            @Override
+            public void seatReserved(Screening screening, int seatIndex) {
+                synchronized (reported) { reported.add(new int[] { seatIndex, 1 }); }
+            }
+
+            @Override
+            public void seatReleased(Screening screening, int seatIndex) {
+                synchronized (reported) { reported.add(new int[] { seatIndex, 0 }); }
+            }
+
+            @Override
+            public void reservationsCleared(Screening screening) {
+                synchronized (reported) { reported.add(new int[] { -1, 0 }); }
+            }
+        });
+
+        for (int t = 0; t < this.nThreads; t++) {
+            Set<Integer> reserved = ConcurrentHashMap.newKeySet();
+            Map<Integer, String> held = new HashMap<>();
+            reservedBy.add(reserved);
+            heldBy.add(held);
+            int worker = t;
+            threads.add(new Thread(() -> {
+                Random random = new Random(1000 + worker);
+                List<Integer> reservedSeats = new ArrayList<>();
+                List<Integer> heldSeats = new ArrayList<>();
+                long nHolds = 0;
+                while (running.get()) {
+                    int op = random.nextInt(7);
+                    try {
+                        if (op == 6) {
+                            int iRow = random.nextInt(N_ROWS), iColumn = random.nextInt(N_COLUMNS - 2);
+                            int[] group = { Seat.toIndex(iRow, iColumn), Seat.toIndex(iRow, iColumn + 1), Seat.toIndex(iRow, iColumn + 2) };
+                            if (screening.createSeatReservations(group).isSuccessful()) {
+                                for (int seatIndex : group) {
+                                    reserved.add(seatIndex);
+                                    reservedSeats.add(seatIndex);
+                                }
+                            }
+                        } else if (op == 0 || (op < 3 && reservedSeats.isEmpty() && heldSeats.isEmpty())) {
+                            int seatIndex = Seat.toIndex(random.nextInt(N_ROWS), random.nextInt(N_COLUMNS));
+                            screening.createSeatReservation(seatIndex);
+                            reserved.add(seatIndex);
+                            reservedSeats.add(seatIndex);
+                        } else if (op == 1 || op == 2) {
+                            int seatIndex = Seat.toIndex(random.nextInt(N_ROWS), random.nextInt(N_COLUMNS));
+                            String token = "worker-" + worker + "-" + nHolds++;
+                            screening.holdSeat(seatIndex, token, Duration.ofMillis(random.nextInt(40)));
+                            held.put(seatIndex, token);
+                            heldSeats.add(seatIndex);
+                        } else if (op == 3 && !reservedSeats.isEmpty()) {
+                            int seatIndex = SeatReservationStress.takeRandom(reservedSeats, random);
+                            reserved.remove(seatIndex);
+                            screening.deleteSeatReservation(seatIndex);
+                        } else if (!heldSeats.isEmpty()) {
+                            int seatIndex = SeatReservationStress.takeRandom(heldSeats, random);
+                            String token = held.remove(seatIndex);
+                            if (op == 4) {
+                                screening.confirmSeatHold(seatIndex, token);
+                                reserved.add(seatIndex);
+                                reservedSeats.add(seatIndex);
+                            } else {
+                                screening.releaseSeatHold(seatIndex, token);
+                            }
+                        }
+                    } catch (SeatConflictException | InvalidSeatException e) {
+                        // Taken by someone else, expired, or outside of the shrunk theater
+                    }
+                }
+            }, "screening-worker-" + t));
+        }
+
+        Thread expirer = new Thread(() -> {
+            while (running.get()) {
+                nExpiries[0] += HoldTimerWheel.getShared().advance(System.currentTimeMillis());
+                Thread.onSpinWait();
+            }
+        }, "screening-expirer");
+        Thread resizer = new Thread(() -> {
+            for (int i = 0; i < N_RESIZES; i++) {
+                SeatReservationStress.sleep(this.runMillis / (N_RESIZES + 1));
+                theater.setSeatLayoutDimensions(theater.getRowLength() - 2, theater.getColumnLength() - 7);
+                screening.getReservationEngine();
+            }
+        }, "screening-resizer");
+        threads.add(expirer);
+
+        this.runAll(threads, resizer, running);
+
+        // The shared wheel keeps expiring holds on its own sweeper thread, so the last holds are left to expire before checking
+        long deadline = System.currentTimeMillis() + 2000;
+        while (screening.getReservationEngine().getHeldCount() > 0 && System.currentTimeMillis() < deadline) {
+            nExpiries[0] += HoldTimerWheel.getShared().advance(System.currentTimeMillis());
+            SeatReservationStress.sleep(5);
+        }
+        if (screening.getReservationEngine().getHeldCount() > 0) {
+            this.failures.add("Screening: " + screening.getReservationEngine().getHeldCount() + " seats are still held after their holds expired");
+        }
+
+        SeatRemapResult dropped = screening.remapSeatLayout();
+        Set<Integer> droppedSeats = new java.util.HashSet<>();
+        for (int seatIndex : dropped.getDroppedReservedSeatIndices()) { droppedSeats.add(seatIndex); }
+        for (int seatIndex : dropped.getDroppedHeldSeatIndices()) { droppedSeats.add(seatIndex); }
+
+        SeatReservationEngine engine = screening.getReservationEngine();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int t = 0; t < this.nThreads; t++) {
+            for (int seatIndex : reservedBy.get(t)) {
+                if (droppedSeats.contains(seatIndex)) {
+                    continue;
+                }
+                if (expected.put(seatIndex, 1) != null) {
+                    this.failures.add("Screening: seat " + Seat.formatSeatID(seatIndex) + " is reserved by two workers");
+                }
+            }
+            for (Map.Entry<Integer, String> entry : heldBy.get(t).entrySet()) {
+                SeatHold hold = screening.getSeatHold(entry.getKey());
+                // Holds that expired or were dropped are still in their owner's record
+                if (hold != null && hold.getOwnerToken().equals(entry.getValue())) {
+                    if (expected.put(entry.getKey(), 3) != null) {
+                        this.failures.add("Screening: seat " + Seat.formatSeatID(entry.getKey()) + " is held and reserved by two workers");
+                    }
+                }
+            }
+        }
+        for (int iRow = 0; iRow < engine.getRowLength(); iRow++) {
+            for (int iColumn = 0; iColumn < engine.getColumnLength(); iColumn++) {
+                int seatIndex = Seat.toIndex(iRow, iColumn);
+                if (engine.isHeld(seatIndex) && screening.getSeatHold(seatIndex) == null) {
+                    this.failures.add("Screening: seat " + Seat.formatSeatID(seatIndex) + " is held without a hold");
+                }
+            }
+        }
+        this.checkEngine("Screening", engine, expected);
+
+        // Replaying the reported changes in their order must give the reserved seats, as replaying the journal would
+        Map<Integer, Integer> replayed = new HashMap<>();
+        for (int[] change : reported) {
+            if (change[0] < 0) {
+                replayed.clear();
+            } else {
+                replayed.put(change[0], change[1]);
+            }
+        }
+        for (Map.Entry<Integer, Integer> entry : replayed.entrySet()) {
+            int seatIndex = entry.getKey();
+            if (!droppedSeats.contains(seatIndex) && (entry.getValue() == 1) != engine.isReserved(seatIndex)) {
+                this.failures.add("Screening: seat " + Seat.formatSeatID(seatIndex) + " was reported " + (entry.getValue() == 1 ? "reserved" : "released") + " last, but is not");
+            }
+        }
+
+        System.out.printf("Screening: %d threads, %d holds expired, %d seats reserved, %d held, %d dropped by resizes%n",
+            this.nThreads, nExpiries[0], engine.getReservedCount(), engine.getHeldCount(), dropped.getDroppedSeatCount());
+    }
+
+    // Checks
+
+    /**
+     * Checks that the engine holds exactly the expected seats, and that its counters agree with its seats.
+     *
+     * @param run the name of the run, for the failure messages
+     * @param engine the engine after the run
+     * @param expected the expected state of every occupied seat, 1 for reserved and 3 for held
+     */
+    private void checkEngine(String run, SeatReservationEngine engine, Map<Integer, Integer> expected) {
+        int nOccupied = 0, nHeld = 0;
+        for (int iRow = 0; iRow < engine.getRowLength(); iRow++) {
+            int nRowOccupied = 0;
+            for (int k = 0; k < engine.getWordsPerRow(); k++) {
+                long word = engine.getWord(iRow * engine.getWordsPerRow() + k);
+                long heldWord = engine.getHeldWord(iRow * engine.getWordsPerRow() + k);
+                if ((heldWord & ~word) != 0) {
+                    this.failures.add(run + ": row " + (iRow + 1) + " has held seats that are not occupied");
+                }
+                nRowOccupied += Long.bitCount(word);
+                nHeld += Long.bitCount(heldWord);
+                for (long bits = word; bits != 0; bits &= bits - 1) {
+                    int seatIndex = Seat.toIndex(iRow, (k << 6) + Long.numberOfTrailingZeros(bits));
+                    int state = engine.isHeld(seatIndex) ? 3 : 1;
+                    Integer want = expected.get(seatIndex);
+                    if (want == null) {
+                        this.failures.add(run + ": seat " + Seat.formatSeatID(seatIndex) + " is occupied but owned by no one");
+                    } else if (want != state) {
+                        this.failures.add(run + ": seat " + Seat.formatSeatID(seatIndex) + " is " + (state == 3 ? "held" : "reserved") + " but its owner thinks otherwise");
+                    }
+                }
+            }
+            if (engine.getRowOccupiedCount(iRow) != nRowOccupied) {
+                this.failures.add(run + ": row " + (iRow + 1) + " counts " + engine.getRowOccupiedCount(iRow) + " occupied seats, its bits " + nRowOccupied);
+            }
+            nOccupied += nRowOccupied;
+        }
+        for (int seatIndex : expected.keySet()) {
+            if (!engine.isOccupied(seatIndex)) {
+                this.failures.add(run + ": seat " + Seat.formatSeatID(seatIndex) + " was lost, its owner still has it");
+            }
+        }
+        if (engine.getOccupiedCount() != nOccupied) {
+            this.failures.add(run + ": the engine counts " + engine.getOccupiedCount() + " occupied seats, its bits " + nOccupied);
+        }
+        if (engine.getHeldCount() != nHeld) {
+            this.failures.add(run + ": the engine counts " + engine.getHeldCount() + " held seats, its bits " + nHeld);
+        }
+    }
+
+    // Other Methods
+
+    private void runAll(List<Thread> threads, Thread resizer, AtomicBoolean running) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        resizer.start();
+        resizer.join();
+        SeatReservationStress.sleep(this.runMillis / (N_RESIZES + 1));
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static int takeRandom(List<Integer> seats, Random random) {
+        int position = random.nextInt(seats.size());
+        int seatIndex = seats.get(position);
+        seats.set(position, seats.get(seats.size() - 1));
+        seats.remove(seats.size() - 1);
+        return seatIndex;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}